@@ -0,0 +1,119 @@
+package fileio;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Reads the simulations and the commands of an input file one at a time, as they are
+ * used, instead of binding the whole file like InputLoader. Each array is read by its
+ * own parser over the file, so that the order of the two fields does not matter and
+ * only the current simulation and the current command are held in memory.
+ */
+public final class StreamingInputLoader implements Closeable {
+    private static final String SIMULATIONS_FIELD = "simulationParams";
+    private static final String COMMANDS_FIELD = "commands";
+
+    private final ObjectMapper mapper;
+    private final JsonParser simulations;
+    private final JsonParser commands;
+
+    public StreamingInputLoader(final String filePath) throws IOException {
+        this(filePath, new ObjectMapper());
+    }
+
+    public StreamingInputLoader(final String filePath, final ObjectMapper mapper)
+            throws IOException {
+        this.mapper = mapper;
+        File file = new File(filePath);
+        this.simulations = openArray(file, SIMULATIONS_FIELD);
+        try {
+            this.commands = openArray(file, COMMANDS_FIELD);
+        } catch (IOException e) {
+            simulations.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Opens a parser positioned inside the array of a field of the root object.
+     *
+     * @param file The input file.
+     * @param field The name of the field.
+     * @return The parser, or null if the file has no such array.
+     */
+    private JsonParser openArray(final File file, final String field) throws IOException {
+        JsonParser parser = mapper.createParser(file);
+        if (parser.nextToken() != JsonToken.START_OBJECT) {
+            parser.close();
+            return null;
+        }
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String name = parser.currentName();
+            JsonToken value = parser.nextToken();
+            if (name.equals(field) && value == JsonToken.START_ARRAY) {
+                return parser;
+            }
+            parser.skipChildren();
+        }
+        parser.close();
+        return null;
+    }
+
+    /**
+     * Binds the next element of an array.
+     *
+     * @param parser The parser of the array, or null if the file has none.
+     * @param type The type of the elements.
+     * @param <T> The type of the elements.
+     * @return The element, or null once the array is exhausted.
+     */
+    private <T> T next(final JsonParser parser, final Class<T> type) throws IOException {
+        if (parser == null || parser.isClosed()) {
+            return null;
+        }
+        if (parser.nextToken() != JsonToken.START_OBJECT) {
+            // The end of the array: the rest of the file belongs to the other parser
+            parser.close();
+            return null;
+        }
+        return mapper.readValue(parser, type);
+    }
+
+    /**
+     * Reads the parameters of the next simulation.
+     *
+     * @return The simulation, or null if there are no more.
+     * @throws IOException when the file cannot be read.
+     */
+    public SimulationInput nextSimulation() throws IOException {
+        return next(simulations, SimulationInput.class);
+    }
+
+    /**
+     * Reads the next command.
+     *
+     * @return The command, or null if there are no more.
+     * @throws IOException when the file cannot be read.
+     */
+    public CommandInput nextCommand() throws IOException {
+        return next(commands, CommandInput.class);
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            if (simulations != null) {
+                simulations.close();
+            }
+        } finally {
+            if (commands != null) {
+                commands.close();
+            }
+        }
+    }
+}
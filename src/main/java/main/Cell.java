@@ -5,6 +5,9 @@ import main.entities.Soil.Soil;
 import main.entities.Plant.Plant;
 import main.entities.Water.Water;
 import main.entities.Animal.Animal;
+import main.storage.CellStorage;
+import main.storage.CellView;
+import main.storage.GridFlags;
 import lombok.Getter;
 import lombok.Setter;
 
@@ -18,10 +21,158 @@ public final class Cell {
     private Plant plant;
     private Water water;
     private Animal animal;
+    private final CellStorage storage;
+    private final int slot;
+    /** The index of the slot in the storage (see CellStorage.indexOf). */
+    private final int storageIndex;
+    /** The flags of the map, or null for a cell outside a map. */
+    private final GridFlags flags;
 
     public Cell(final int x, final int y) {
+        this(x, y, null, -1);
+    }
+
+    public Cell(final int x, final int y, final CellStorage storage, final int slot) {
+        this(x, y, storage, slot, null);
+    }
+
+    public Cell(final int x, final int y, final CellStorage storage, final int slot,
+                final GridFlags flags) {
         this.x = x;
         this.y = y;
+        this.storage = storage;
+        this.slot = slot;
+        this.storageIndex = storage == null ? slot : storage.indexOf(slot);
+        this.flags = flags;
+    }
+
+    /**
+     * Updates the flags of the cell for the entity that replaces another one.
+     *
+     * @param previous The entity that leaves the cell, or null.
+     * @param entity The entity placed in the cell, or null.
+     * @param occupied The occupancy flag of the entity type.
+     * @param scanned The scanned flag of the entity type.
+     * @param isScanned Whether the entity placed in the cell is scanned.
+     */
+    private void updateFlags(final CellView previous, final CellView entity,
+                             final GridFlags.Flag occupied, final GridFlags.Flag scanned,
+                             final boolean isScanned) {
+        if (flags == null) {
+            return;
+        }
+        if (previous != null && previous != entity) {
+            previous.leave(flags, slot);
+        }
+        if (entity != null) {
+            entity.place(flags, slot);
+        }
+        flags.set(occupied, slot, entity != null);
+        flags.set(scanned, slot, isScanned);
+    }
+
+    /**
+     * Places an air entity in the cell, moving its state into the cell's storage slot.
+     *
+     * @param air The air entity, or null to clear the cell.
+     */
+    public void setAir(final Air air) {
+        if (storage != null) {
+            if (this.air != null && this.air != air) {
+                this.air.detach(storage, storageIndex);
+            }
+            if (air != null) {
+                air.attach(storage, storageIndex);
+            }
+        }
+        this.air = air;
+    }
+
+    /**
+     * Places a soil entity in the cell, moving its state into the cell's storage slot.
+     *
+     * @param soil The soil entity, or null to clear the cell.
+     */
+    public void setSoil(final Soil soil) {
+        if (storage != null) {
+            if (this.soil != null && this.soil != soil) {
+                this.soil.detach(storage, storageIndex);
+            }
+            if (soil != null) {
+                soil.attach(storage, storageIndex);
+            }
+        }
+        this.soil = soil;
+    }
+
+    /**
+     * Places a plant in the cell, moving its state into the cell's storage slot and
+     * updating the flags of the map.
+     *
+     * @param plant The plant, or null to clear the cell.
+     */
+    public void setPlant(final Plant plant) {
+        if (storage != null) {
+            if (this.plant != null && this.plant != plant) {
+                this.plant.detach(storage, storageIndex);
+            }
+            if (plant != null) {
+                plant.attach(storage, storageIndex);
+            }
+        }
+        updateFlags(this.plant, plant, GridFlags.Flag.PLANT, GridFlags.Flag.SCANNED_PLANT,
+                plant != null && plant.isScanned());
+        this.plant = plant;
+    }
+
+    /**
+     * Places a water source in the cell, moving its state into the cell's storage slot.
+     *
+     * @param water The water source, or null to clear the cell.
+     */
+    public void setWater(final Water water) {
+        if (storage != null) {
+            if (this.water != null && this.water != water) {
+                this.water.detach(storage, storageIndex);
+            }
+            if (water != null) {
+                water.attach(storage, storageIndex);
+            }
+        }
+        updateFlags(this.water, water, GridFlags.Flag.WATER, GridFlags.Flag.SCANNED_WATER,
+                water != null && water.isScanned());
+        this.water = water;
+    }
+
+    /**
+     * Places an animal in the cell, moving its state into the cell's storage slot.
+     * An animal that arrives from another cell carries its state along; the animal
+     * it replaces keeps its last state in its own fields.
+     *
+     * @param animal The animal, or null to clear the cell.
+     */
+    public void setAnimal(final Animal animal) {
+        if (storage != null) {
+            if (this.animal != null && this.animal != animal) {
+                this.animal.detach(storage, storageIndex);
+            }
+            if (animal != null) {
+                animal.attach(storage, storageIndex);
+            }
+        }
+        updateFlags(this.animal, animal, GridFlags.Flag.ANIMAL, GridFlags.Flag.SCANNED_ANIMAL,
+                animal != null && animal.isScanned());
+        this.animal = animal;
+    }
+
+    /**
+     * Returns the state word of the cell in the flags of its map: its occupancy and
+     * scanned flags (see GridFlags).
+     *
+     * @return The state word, or 0 for a cell outside a map.
+     */
+    public int getState() {
+        return flags == null ? 0 : flags.state(slot);
     }
 
     /**
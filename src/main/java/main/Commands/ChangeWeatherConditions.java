@@ -1,6 +1,7 @@
 package main.Commands;
 
 import fileio.CommandInput;
+import main.Simulation;
 import main.SimulationMap;
 import main.entities.Air.Air;
 
@@ -10,29 +11,33 @@ public final class ChangeWeatherConditions {
     }
     /**
      * Executes the weather change logic based on the input command.
-     * Iterates through the entire map, checks if the Air entity at each cell
+     * Iterates through the allocated cells of the map, checks if the Air entity at each cell
      * is affected by the specific weather command, and applies the effect if so.
      *
+     * The end of each weather event is scheduled on the simulation's timers.
+     *
      * @param command The command input containing weather details.
-     * @param map The simulation map.
+     * @param sim The simulation.
      * @return A string message indicating success or the specific error.
      */
     public static String execute(final CommandInput command,
-                                 final SimulationMap map) {
-        int change = 0;
-        for (int x = 0; x < map.getWidth(); x++) {
-            for (int y = 0; y < map.getHeight(); y++) {
-                Air air = map.getCell(x, y).getAir();
-                if (air != null) {
-                    double value = air.calculateWeather(command);
-                    if (value != 0) {
-                        air.setWeather(value, 2);
-                        change = 1;
-                    }
+                                 final Simulation sim) {
+        SimulationMap map = sim.getMap();
+        boolean[] change = {false};
+        // Each cell is changed on its own, so the cells are visited in the order of the map
+        map.forEachCell(cell -> {
+            Air air = cell.getAir();
+            if (air != null) {
+                double value = air.calculateWeather(command);
+                if (value != 0) {
+                    air.setWeather(value);
+                    sim.scheduleWeatherEnd(cell.getX(), cell.getY(), 2);
+                    map.markActive(cell.getX(), cell.getY());
+                    change[0] = true;
                 }
             }
-        }
-        if (change == 0) {
+        });
+        if (!change[0]) {
             return "ERROR: The weather change does not affect the environment."
                     + " Cannot perform action";
         }
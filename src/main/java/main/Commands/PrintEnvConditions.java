@@ -2,18 +2,23 @@ package main.Commands;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ObjectNode;
-import main.Cell;
+import main.LiveMapView;
+import main.MapView;
 import main.SimulationMap;
 import main.TerraBot;
+import main.entities.Air.Air;
+import main.entities.Animal.Animal;
+import main.entities.Plant.Plant;
+import main.entities.Soil.Soil;
+import main.entities.Water.Water;
 
 public final class PrintEnvConditions {
     private PrintEnvConditions() {
 
     }
     /**
-     * Executes the logic to print environmental conditions.
-     * Creates a JSON object containing information about all entities
-     * that exist on robot's current coordinates.
+     * Executes the logic to print environmental conditions on the live map, at the
+     * robot's current coordinates.
      *
      * @param mapper The ObjectMapper used to create JSON nodes.
      * @param map The simulation map.
@@ -23,52 +28,75 @@ public final class PrintEnvConditions {
     public static ObjectNode execute(final ObjectMapper mapper,
                                      final SimulationMap map,
                                      final TerraBot robot) {
+        return execute(mapper, new LiveMapView(map), robot.getX(), robot.getY());
+    }
+
+    /**
+     * Executes the logic to print environmental conditions.
+     * Creates a JSON object containing information about all entities
+     * that exist on a cell.
+     *
+     * @param mapper The ObjectMapper used to create JSON nodes.
+     * @param view The live map or a snapshot (read between beginRead and validate).
+     * @param x The x-coordinate of the cell.
+     * @param y The y-coordinate of the cell.
+     * @return An ObjectNode containing the structured JSON data of the environment conditions.
+     */
+    public static ObjectNode execute(final ObjectMapper mapper,
+                                     final MapView view,
+                                     final int x,
+                                     final int y) {
         ObjectNode envConditions = mapper.createObjectNode();
-        Cell cell = map.getCell(robot.getX(), robot.getY());
-        if (cell.getSoil() != null) {
+        int slot = view.slotOf(x, y);
+        Soil soil = view.getSoil(slot);
+        if (soil != null) {
             ObjectNode node = mapper.createObjectNode();
-            node.put("type", cell.getSoil().getType());
-            node.put("name", cell.getSoil().getName());
-            node.put("mass", cell.getSoil().getMass());
-            node.put("nitrogen", cell.getSoil().getNitrogen());
-            node.put("waterRetention", cell.getSoil().getWaterRetention());
-            node.put("soilpH", cell.getSoil().getSoilpH());
-            node.put("organicMatter", cell.getSoil().getOrganicMatter());
-            node.put("soilQuality", cell.getSoil().calculateQuality());
-            cell.getSoil().addSpecificFields(node);
+            node.put("type", soil.getType());
+            node.put("name", soil.getName());
+            node.put("mass", soil.getMass());
+            node.put("nitrogen", soil.getNitrogen());
+            node.put("waterRetention", view.getWaterRetention(slot));
+            node.put("soilpH", soil.getSoilpH());
+            node.put("organicMatter", view.getOrganicMatter(slot));
+            node.put("soilQuality", view.getSoilQuality(slot));
+            soil.addSpecificFields(node);
             envConditions.set("soil", node);
         }
-        if (cell.getPlant() != null) {
+        Plant plant = view.getPlant(slot);
+        if (plant != null) {
             ObjectNode node = mapper.createObjectNode();
-            node.put("type", cell.getPlant().getType());
-            node.put("name", cell.getPlant().getName());
-            node.put("mass", cell.getPlant().getMass());
+            node.put("type", plant.getType());
+            node.put("name", plant.getName());
+            node.put("mass", view.getPlantMass(slot));
             envConditions.set("plants", node);
         }
-        if (cell.getAnimal() != null) {
+        Animal animal = view.getAnimal(slot);
+        if (animal != null) {
             ObjectNode node = mapper.createObjectNode();
-            node.put("type", cell.getAnimal().getType());
-            node.put("name", cell.getAnimal().getName());
-            node.put("mass", cell.getAnimal().getMass());
+            node.put("type", animal.getType());
+            node.put("name", animal.getName());
+            node.put("mass", view.getAnimalMass(slot));
             envConditions.set("animals", node);
         }
-        if (cell.getWater() != null) {
+        Water water = view.getWater(slot);
+        if (water != null) {
             ObjectNode node = mapper.createObjectNode();
-            node.put("type", cell.getWater().getType());
-            node.put("name", cell.getWater().getName());
-            node.put("mass", cell.getWater().getMass());
+            node.put("type", water.getType());
+            node.put("name", water.getName());
+            node.put("mass", view.getWaterMass(slot));
             envConditions.set("water", node);
         }
-        if (cell.getAir() != null) {
+        Air air = view.getAir(slot);
+        if (air != null) {
             ObjectNode node = mapper.createObjectNode();
-            node.put("type", cell.getAir().getType());
-            node.put("name", cell.getAir().getName());
-            node.put("mass", cell.getAir().getMass());
-            node.put("humidity", cell.getAir().getHumidity());
-            node.put("temperature", cell.getAir().getTemperature());
-            node.put("oxygenLevel", cell.getAir().getOxygenLevel());
-            node.put("airQuality", cell.getAir().calculateQuality());
-            cell.getAir().addSpecificFields(node);
+            node.put("type", air.getType());
+            node.put("name", air.getName());
+            node.put("mass", air.getMass());
+            node.put("humidity", view.getHumidity(slot));
+            node.put("temperature", air.getTemperature());
+            node.put("oxygenLevel", view.getOxygenLevel(slot));
+            node.put("airQuality", view.getAirQuality(slot));
+            view.addAirFields(slot, node);
             envConditions.set("air", node);
         }
         return envConditions;
@@ -4,40 +4,99 @@ import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
-import main.Cell;
+import main.GridLayout;
+import main.LiveMapView;
+import main.MapView;
 import main.SimulationMap;
+import main.entities.Air.Air;
+import main.entities.Soil.Soil;
 
 public final class PrintMap {
+    private static final int CHUNK_CELLS = SimulationMap.CHUNK_SIZE * SimulationMap.CHUNK_SIZE;
+
     private PrintMap() {
 
     }
+    /**
+     * Executes the logic to generate the map details of the live map.
+     *
+     * @param mapper The ObjectMapper used to create JSON nodes.
+     * @param map The simulation map.
+     * @return A JsonNode containing the list of all cell states.
+     */
+    public static JsonNode execute(final ObjectMapper mapper,
+                                   final SimulationMap map) {
+        return execute(mapper, new LiveMapView(map));
+    }
+
     /**
      * Executes the logic to generate the map details.
      * Iterates through every cell in the simulation grid and creates a JSON object
      * for each, containing coordinates ,number of objects, air quality and
-     * soil quality
+     * soil quality. A section with only one of air and soil has only that quality, and
+     * the sections with neither, such as the chunks of the map that were never
+     * allocated, are left out.
+     * The cells are read chunk by chunk, along bands of CHUNK_SIZE rows, each chunk in
+     * the order of the layout of the view, and the rows of each band are appended in
+     * order once it is complete. Every layout meets the cells of a row in increasing x.
      *
      * @param mapper The ObjectMapper used to create JSON nodes.
-     * @param map The simulation map.
+     * @param view The live map or a snapshot (read between beginRead and validate).
      * @return A JsonNode containing the list of all cell states.
      */
     public static JsonNode execute(final ObjectMapper mapper,
-                                   final SimulationMap map) {
+                                   final MapView view) {
         ArrayNode arrayNode = mapper.createArrayNode();
-        for (int i = 0; i < map.getHeight(); i++) {
-            for (int j = 0; j < map.getWidth(); j++) {
-                ObjectNode node = mapper.createObjectNode();
-                Cell cell = map.getCell(j, i);
-                ArrayNode coords = mapper.createArrayNode();
-                coords.add(j);
-                coords.add(i);
-                node.set("section", coords);
-                node.put("totalNrOfObjects", cell.getTotalNrOfObjects());
-                node.put("airQuality", cell.getAir().interpretationQuality());
-                node.put("soilQuality", cell.getSoil().interpretationQuality());
-                arrayNode.add(node);
+        GridLayout layout = view.getLayout();
+        ArrayNode[] rows = new ArrayNode[SimulationMap.CHUNK_SIZE];
+        for (int k = 0; k < rows.length; k++) {
+            rows[k] = mapper.createArrayNode();
+        }
+        for (int fromY = 0; fromY < view.getHeight(); fromY = SimulationMap.nextChunk(fromY)) {
+            int toY = Math.min(SimulationMap.nextChunk(fromY), view.getHeight());
+            for (int fromX = 0; fromX < view.getWidth();
+                    fromX = SimulationMap.nextChunk(fromX)) {
+                if (!view.hasChunk(fromX, fromY)) {
+                    continue;
+                }
+                view.prepareTile(fromX, fromY);
+                for (int index = 0; index < CHUNK_CELLS; index++) {
+                    int j = fromX + layout.xOf(index);
+                    int i = fromY + layout.yOf(index);
+                    if (j < view.getWidth() && i < toY) {
+                        addSection(mapper, view, j, i, rows[i - fromY]);
+                    }
+                }
+            }
+            for (int i = fromY; i < toY; i++) {
+                arrayNode.addAll(rows[i - fromY]);
+                rows[i - fromY].removeAll();
             }
         }
         return arrayNode;
     }
+
+    private static void addSection(final ObjectMapper mapper, final MapView view,
+                                   final int j, final int i, final ArrayNode row) {
+        int slot = view.slotOf(j, i);
+        if (view.getAir(slot) == null && view.getSoil(slot) == null) {
+            return;
+        }
+        ObjectNode node = mapper.createObjectNode();
+        ArrayNode coords = mapper.createArrayNode();
+        coords.add(j);
+        coords.add(i);
+        node.set("section", coords);
+        node.put("totalNrOfObjects", view.getTotalNrOfObjects(slot));
+        // A section without air or without soil has no score to interpret
+        if (view.getAir(slot) != null) {
+            node.put("airQuality",
+                    Air.interpretationQuality(view.getAirQuality(slot)));
+        }
+        if (view.getSoil(slot) != null) {
+            node.put("soilQuality",
+                    Soil.interpretationQuality(view.getSoilQuality(slot)));
+        }
+        row.add(node);
+    }
 }
@@ -49,6 +49,8 @@ public final class ScanObject {
             }
         } else if (cell.getAnimal() != null) {
             cell.getAnimal().scan();
+            // Its turns read the neighbours with peekCell
+            map.restoreAround(robot.getX(), robot.getY());
             objectType = "an animal.";
             entity = cell.getAnimal();
         }
@@ -57,6 +59,7 @@ public final class ScanObject {
         } else {
             robot.consumeEnergy(ENERGY_COST);
             robot.addToInventory(entity);
+            map.markActive(robot.getX(), robot.getY());
             return "The scanned object is " + objectType;
         }
     }
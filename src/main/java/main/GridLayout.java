@@ -0,0 +1,82 @@
+package main;
+
+/**
+ * The order in which the cells of a chunk of the SimulationMap are stored, and allocated.
+ * A traversal in the same order reads the chunk sequentially, one in the other order
+ * jumps by CHUNK_SIZE references at every cell.
+ */
+public enum GridLayout {
+    /** Column by column (x, then y): the order of the engines (the default). */
+    COLUMNS,
+    /** Row by row (y, then x): the order of printMap. */
+    ROWS,
+    /** Z-order curve: neighbours in both directions stay close, whatever the traversal. */
+    MORTON;
+
+    private static final int BITS = SimulationMap.CHUNK_BITS;
+    private static final int MASK = SimulationMap.CHUNK_SIZE - 1;
+    /** The bits of a coordinate, spread to the even bits of a Morton index. */
+    private static final int[] SPREAD = new int[SimulationMap.CHUNK_SIZE];
+
+    static {
+        for (int value = 0; value < SPREAD.length; value++) {
+            for (int bit = 0; bit < BITS; bit++) {
+                SPREAD[value] |= (value >> bit & 1) << (2 * bit);
+            }
+        }
+    }
+
+    /**
+     * Returns the position of a cell in its chunk.
+     *
+     * @param x The x-coordinate in the chunk, from 0 to CHUNK_SIZE - 1.
+     * @param y The y-coordinate in the chunk, from 0 to CHUNK_SIZE - 1.
+     * @return The index of the cell in the array of the chunk.
+     */
+    public int index(final int x, final int y) {
+        return switch (this) {
+            case ROWS -> y << BITS | x;
+            case MORTON -> SPREAD[x] << 1 | SPREAD[y];
+            default -> x << BITS | y;
+        };
+    }
+
+    /**
+     * Returns the x-coordinate, in its chunk, of the cell stored at an index.
+     *
+     * @param index The index of the cell in the array of the chunk.
+     * @return The x-coordinate in the chunk.
+     */
+    public int xOf(final int index) {
+        return switch (this) {
+            case ROWS -> index & MASK;
+            case MORTON -> compact(index >> 1);
+            default -> index >> BITS;
+        };
+    }
+
+    /**
+     * Returns the y-coordinate, in its chunk, of the cell stored at an index.
+     *
+     * @param index The index of the cell in the array of the chunk.
+     * @return The y-coordinate in the chunk.
+     */
+    public int yOf(final int index) {
+        return switch (this) {
+            case ROWS -> index >> BITS;
+            case MORTON -> compact(index);
+            default -> index & MASK;
+        };
+    }
+
+    /**
+     * Gathers the even bits of a Morton index.
+     */
+    private static int compact(final int index) {
+        int value = 0;
+        for (int bit = 0; bit < BITS; bit++) {
+            value |= (index >> (2 * bit) & 1) << bit;
+        }
+        return value;
+    }
+}
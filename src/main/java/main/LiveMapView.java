@@ -0,0 +1,177 @@
+package main;
+
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import main.entities.Air.Air;
+import main.entities.Animal.Animal;
+import main.entities.Plant.Plant;
+import main.entities.QualityBatch;
+import main.entities.Soil.Soil;
+import main.entities.Water.Water;
+import main.storage.GridFlags;
+
+/**
+ * The MapView of the live map, read through its cells. The quality scores of a chunk are
+ * computed together by prepareTile (see QualityBatch), which leaves them in the cache of
+ * the entities for the reads that follow. Reading a parked chunk brings it back.
+ */
+public final class LiveMapView implements MapView {
+    private static final int CHUNK_CELLS = SimulationMap.CHUNK_SIZE * SimulationMap.CHUNK_SIZE;
+    private final SimulationMap map;
+    private final QualityBatch airs;
+    private final QualityBatch soils;
+    /** The cell of the last slot read, since the accessors of a cell come in a row. */
+    private int currentSlot = -1;
+    private Cell current;
+
+    public LiveMapView(final SimulationMap map) {
+        this.map = map;
+        this.airs = QualityBatch.forAir(CHUNK_CELLS);
+        this.soils = QualityBatch.forSoil(CHUNK_CELLS);
+    }
+
+    private Cell cellAt(final int slot) {
+        if (slot != currentSlot) {
+            current = map.getCell(slot / map.getHeight(), slot % map.getHeight());
+            currentSlot = slot;
+        }
+        return current;
+    }
+
+    @Override
+    public int getWidth() {
+        return map.getWidth();
+    }
+
+    @Override
+    public int getHeight() {
+        return map.getHeight();
+    }
+
+    @Override
+    public boolean hasChunk(final int x, final int y) {
+        return map.hasChunk(x, y) || map.isParked(x, y);
+    }
+
+    @Override
+    public int slotOf(final int x, final int y) {
+        return map.slotOf(x, y);
+    }
+
+    @Override
+    public GridLayout getLayout() {
+        return map.getLayout();
+    }
+
+    @Override
+    public void prepareTile(final int fromX, final int fromY) {
+        GridLayout layout = map.getLayout();
+        for (int index = 0; index < CHUNK_CELLS; index++) {
+            int x = fromX + layout.xOf(index);
+            int y = fromY + layout.yOf(index);
+            if (x >= map.getWidth() || y >= map.getHeight()) {
+                continue;
+            }
+            Cell cell = map.getCell(x, y);
+            if (cell.getAir() != null) {
+                airs.add(cell.getAir());
+            }
+            if (cell.getSoil() != null) {
+                soils.add(cell.getSoil());
+            }
+        }
+        airs.compute();
+        soils.compute();
+        airs.clear();
+        soils.clear();
+    }
+
+    @Override
+    public Air getAir(final int slot) {
+        return cellAt(slot).getAir();
+    }
+
+    @Override
+    public Soil getSoil(final int slot) {
+        return cellAt(slot).getSoil();
+    }
+
+    @Override
+    public Plant getPlant(final int slot) {
+        return cellAt(slot).getPlant();
+    }
+
+    @Override
+    public Water getWater(final int slot) {
+        return cellAt(slot).getWater();
+    }
+
+    @Override
+    public Animal getAnimal(final int slot) {
+        return cellAt(slot).getAnimal();
+    }
+
+    @Override
+    public int getTotalNrOfObjects(final int slot) {
+        return GridFlags.countObjects(cellAt(slot).getState());
+    }
+
+    @Override
+    public double getAirQuality(final int slot) {
+        return cellAt(slot).getAir().calculateQuality();
+    }
+
+    @Override
+    public double getHumidity(final int slot) {
+        return cellAt(slot).getAir().getHumidity();
+    }
+
+    @Override
+    public double getOxygenLevel(final int slot) {
+        return cellAt(slot).getAir().getOxygenLevel();
+    }
+
+    /**
+     * Adds the fields of the air as printEnvConditions always did, which for a tropical
+     * air also rounds its stored CO2 level (see TropicalAir.addSpecificFields).
+     *
+     * @param slot The slot of the cell.
+     * @param node The ObjectNode to populate.
+     */
+    @Override
+    public void addAirFields(final int slot, final ObjectNode node) {
+        cellAt(slot).getAir().addSpecificFields(node);
+    }
+
+    @Override
+    public double getSoilQuality(final int slot) {
+        return cellAt(slot).getSoil().calculateQuality();
+    }
+
+    @Override
+    public double getWaterRetention(final int slot) {
+        return cellAt(slot).getSoil().getWaterRetention();
+    }
+
+    @Override
+    public double getOrganicMatter(final int slot) {
+        return cellAt(slot).getSoil().getOrganicMatter();
+    }
+
+    @Override
+    public double getPlantMass(final int slot) {
+        Plant plant = cellAt(slot).getPlant();
+        return plant == null ? 0 : plant.getMass();
+    }
+
+    @Override
+    public double getWaterMass(final int slot) {
+        Water water = cellAt(slot).getWater();
+        return water == null ? 0 : water.getMass();
+    }
+
+    @Override
+    public double getAnimalMass(final int slot) {
+        Animal animal = cellAt(slot).getAnimal();
+        return animal == null ? 0 : animal.getMass();
+    }
+}
@@ -1,11 +1,14 @@
 package main;
 
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.util.DefaultPrettyPrinter;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.ObjectWriter;
-import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import fileio.CommandInput;
-import fileio.InputLoader;
+import fileio.StreamingInputLoader;
 import main.Commands.PrintEnvConditions;
 import main.Commands.PrintMap;
 import main.Commands.MoveRobot;
@@ -25,7 +28,9 @@ public final class Main {
     private Main() {
     }
 
-    private static final ObjectMapper MAPPER = new ObjectMapper();
+    /** Writes the commands one by one into a buffered output, without a flush after each. */
+    private static final ObjectMapper MAPPER = new ObjectMapper()
+            .disable(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
     public static final ObjectWriter WRITER = MAPPER.writer().withDefaultPrettyPrinter();
 
     /**
@@ -35,86 +40,107 @@ public final class Main {
      */
     public static void action(final String inputPath,
                               final String outputPath) throws IOException {
+        action(inputPath, outputPath, SimulationConfig.fromSystemProperties());
+    }
 
-        InputLoader inputLoader = new InputLoader(inputPath);
-        ArrayNode output = MAPPER.createArrayNode();
-        Simulation sim = null;
-        int idx = 0;
-        int previousTimestamp = 0;
-        for (CommandInput command : inputLoader.getCommands()) {
-            String commandName = command.getCommand();
-            int currentTimestamp = command.getTimestamp();
-            ObjectNode out = MAPPER.createObjectNode();
-            out.put("command", commandName);
-            if (commandName.equals("startSimulation")) {
-                if (sim == null) {
-                    sim = new Simulation(inputLoader.getSimulations().get(idx));
-                    previousTimestamp = currentTimestamp;
-                    out.put("message", "Simulation has started.");
-                    idx++;
-                } else {
-                    out.put("message", "ERROR: Simulation already"
-                            + " started. Cannot perform action");
-                }
-            } else if (commandName.equals("endSimulation")) {
-                if (sim == null) {
-                    out.put("message", "ERROR: Simulation not "
-                            + "started. Cannot perform action");
-                } else {
-                    sim = null;
-                    out.put("message", "Simulation has ended.");
-                }
-            } else {
-                if (sim == null) {
-                    out.put("message", "ERROR: Simulation not "
-                            + "started. Cannot perform action");
-                } else {
-                    int dif = currentTimestamp - previousTimestamp;
-                    for (int i = 0; i < dif; i++) {
-                        sim.updateEnvironment();
+    /**
+     * @param inputPath input file path
+     * @param outputPath output file path
+     * @param config the implementation strategies used by the simulations
+     * @throws IOException when files cannot be loaded.
+     */
+    public static void action(final String inputPath,
+                              final String outputPath,
+                              final SimulationConfig config) throws IOException {
+
+        File outputFile = new File(outputPath);
+        outputFile.getParentFile().mkdirs();
+        // Every command is written out as soon as it runs, so that neither the input nor
+        // the output of a long command file is ever held in memory as a whole
+        try (StreamingInputLoader inputLoader = new StreamingInputLoader(inputPath, MAPPER);
+             JsonGenerator output = MAPPER.createGenerator(outputFile, JsonEncoding.UTF8)) {
+            output.setPrettyPrinter(new DefaultPrettyPrinter());
+            output.writeStartArray();
+            Simulation sim = null;
+            // The map of the last ended simulation, reused by the next one of the same size
+            SimulationMap recycled = null;
+            int previousTimestamp = 0;
+            for (CommandInput command = inputLoader.nextCommand(); command != null;
+                    command = inputLoader.nextCommand()) {
+                String commandName = command.getCommand();
+                int currentTimestamp = command.getTimestamp();
+                ObjectNode out = MAPPER.createObjectNode();
+                out.put("command", commandName);
+                if (commandName.equals("startSimulation")) {
+                    if (sim == null) {
+                        sim = new Simulation(inputLoader.nextSimulation(), config, recycled);
+                        recycled = null;
+                        previousTimestamp = currentTimestamp;
+                        out.put("message", "Simulation has started.");
+                    } else {
+                        out.put("message", "ERROR: Simulation already"
+                                + " started. Cannot perform action");
+                    }
+                } else if (commandName.equals("endSimulation")) {
+                    if (sim == null) {
+                        out.put("message", "ERROR: Simulation not "
+                                + "started. Cannot perform action");
+                    } else {
+                        recycled = sim.recycle();
+                        sim = null;
+                        out.put("message", "Simulation has ended.");
                     }
-                    if (sim.isCharging(command.getTimestamp())) {
-                        out.put("message", "ERROR: Robot still charging."
-                                + " Cannot perform action");
-                    } else if (commandName.equals("printEnvConditions")) {
-                        out.put("output",
-                                PrintEnvConditions.execute(MAPPER, sim.getMap(), sim.getRobot()));
-                    } else if (commandName.equals("printMap")) {
-                        out.put("output", PrintMap.execute(MAPPER, sim.getMap()));
-                    } else if (commandName.equals("moveRobot")) {
-                        out.put("message", MoveRobot.execute(sim.getMap(), sim.getRobot()));
-                    } else if (commandName.equals("getEnergyStatus")) {
-                        out.put("message", "TerraBot has " + sim.getRobot().getEnergy()
-                                + " energy points left.");
-                    } else if (commandName.equals("rechargeBattery")) {
-                        sim.getRobot().rechargeEnergy(command.getTimeToCharge());
-                        sim.setChargeUntil(currentTimestamp + command.getTimeToCharge());
-                        out.put("message", "Robot battery is charging.");
-                    } else if (commandName.equals("changeWeatherConditions")) {
-                        out.put("message",
-                                ChangeWeatherConditions.execute(command, sim.getMap()));
-                    } else if (commandName.equals("scanObject")) {
-                        out.put("message",
-                                ScanObject.execute(command, sim.getMap(), sim.getRobot()));
-                    } else if (commandName.equals("learnFact")) {
-                        out.put("message", LearnFact.execute(command, sim.getRobot()));
-                    } else if (commandName.equals("printKnowledgeBase")) {
-                        out.put("output", PrintKnowledgeBase.execute(MAPPER, sim.getRobot()));
-                    } else if (commandName.equals("improveEnvironment")) {
-                        out.put("message",
-                                ImproveEnvironment.execute(command, sim.getMap(), sim.getRobot()));
+                } else {
+                    if (sim == null) {
+                        out.put("message", "ERROR: Simulation not "
+                                + "started. Cannot perform action");
+                    } else {
+                        int dif = currentTimestamp - previousTimestamp;
+                        // Only the commands that read or change the map apply the steps
+                        sim.defer(dif);
+                        if (sim.isCharging(command.getTimestamp())) {
+                            out.put("message", "ERROR: Robot still charging."
+                                    + " Cannot perform action");
+                        } else if (commandName.equals("printEnvConditions")) {
+                            out.put("output", PrintEnvConditions.execute(
+                                    MAPPER, sim.getMap(), sim.getRobot()));
+                        } else if (commandName.equals("printMap")) {
+                            out.put("output", PrintMap.execute(MAPPER, sim.getMap()));
+                        } else if (commandName.equals("moveRobot")) {
+                            out.put("message", MoveRobot.execute(sim.getMap(), sim.getRobot()));
+                        } else if (commandName.equals("getEnergyStatus")) {
+                            out.put("message", "TerraBot has " + sim.getRobot().getEnergy()
+                                    + " energy points left.");
+                        } else if (commandName.equals("rechargeBattery")) {
+                            sim.getRobot().rechargeEnergy(command.getTimeToCharge());
+                            sim.setChargeUntil(currentTimestamp + command.getTimeToCharge());
+                            out.put("message", "Robot battery is charging.");
+                        } else if (commandName.equals("changeWeatherConditions")) {
+                            out.put("message",
+                                    ChangeWeatherConditions.execute(command, sim));
+                            sim.publish();
+                        } else if (commandName.equals("scanObject")) {
+                            out.put("message",
+                                    ScanObject.execute(command, sim.getMap(), sim.getRobot()));
+                            sim.publish();
+                        } else if (commandName.equals("learnFact")) {
+                            out.put("message", LearnFact.execute(command, sim.getRobot()));
+                        } else if (commandName.equals("printKnowledgeBase")) {
+                            out.put("output", PrintKnowledgeBase.execute(MAPPER, sim.getRobot()));
+                        } else if (commandName.equals("improveEnvironment")) {
+                            out.put("message", ImproveEnvironment.execute(
+                                    command, sim.getMap(), sim.getRobot()));
+                            sim.publish();
+                        }
                     }
                 }
+                if (currentTimestamp != 0) {
+                    out.put("timestamp", currentTimestamp);
+                    previousTimestamp = currentTimestamp;
+                }
+                MAPPER.writeTree(output, out);
             }
-            if (currentTimestamp != 0) {
-                out.put("timestamp", currentTimestamp);
-                previousTimestamp = currentTimestamp;
-            }
-            output.add(out);
+            output.writeEndArray();
         }
-
-        File outputFile = new File(outputPath);
-        outputFile.getParentFile().mkdirs();
-        WRITER.writeValue(outputFile, output);
     }
 }
@@ -0,0 +1,481 @@
+package main;
+
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import main.entities.Air.Air;
+import main.entities.Animal.Animal;
+import main.entities.QualityBatch;
+import main.entities.Plant.Plant;
+import main.entities.Soil.Soil;
+import main.entities.Water.Water;
+import main.storage.GridFlags;
+
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+
+/**
+ * A copy of what printMap and printEnvConditions report about every cell, taken at the
+ * end of a step, which they read through MapView like the live map. The entities are
+ * only kept for their fixed descriptors (type, name, input values); everything a step
+ * can change is copied into per-slot arrays.
+ *
+ * A Simulation keeps two snapshots and overwrites the one that is not published (see
+ * Simulation.readSnapshot). Readers never lock: they check the version before and after
+ * reading, and read again if the snapshot was overwritten meanwhile.
+ *
+ * A capture only copies the chunks that may have changed since the snapshot last copied
+ * them (see SimulationMap.changedAt), and clears the chunks of the map that hold no cell
+ * once.
+ */
+public final class MapSnapshot implements MapView {
+    /** The copiedAt of a chunk whose slots are empty. */
+    private static final long EMPTY = Long.MIN_VALUE;
+    private static final int CHUNK_CELLS = SimulationMap.CHUNK_SIZE * SimulationMap.CHUNK_SIZE;
+
+    private final int width;
+    private final int height;
+    private final int chunksY;
+    /** The change count of the map when each chunk was last copied, or EMPTY. */
+    private final long[] copiedAt;
+    private int copiedChunks;
+    private final Air[] airs;
+    private final Soil[] soils;
+    private final Plant[] plants;
+    private final Water[] waters;
+    private final Animal[] animals;
+    private final double[] airQualities;
+    private final double[] humidities;
+    private final double[] oxygenLevels;
+    private final boolean[] weatherActive;
+    private final double[] soilQualities;
+    private final double[] waterRetentions;
+    private final double[] organicMatters;
+    private final double[] plantMasses;
+    private final double[] waterMasses;
+    private final double[] animalMasses;
+    /** Compute the qualities of a chunk of the map together (see QualityBatch). */
+    private final QualityBatch airBatch;
+    private final QualityBatch soilBatch;
+    /** The slots of the rows of the two batches. */
+    private final int[] airSlots;
+    private final int[] soilSlots;
+    /** Odd while the snapshot is being written. */
+    private volatile int version;
+    private int step;
+
+    public MapSnapshot(final int width, final int height) {
+        this.width = width;
+        this.height = height;
+        this.chunksY = (height + SimulationMap.CHUNK_SIZE - 1) >> SimulationMap.CHUNK_BITS;
+        this.copiedAt = new long[((width + SimulationMap.CHUNK_SIZE - 1)
+                >> SimulationMap.CHUNK_BITS) * chunksY];
+        Arrays.fill(copiedAt, EMPTY);
+        int size = width * height;
+        this.airs = new Air[size];
+        this.soils = new Soil[size];
+        this.plants = new Plant[size];
+        this.waters = new Water[size];
+        this.animals = new Animal[size];
+        this.airQualities = new double[size];
+        this.humidities = new double[size];
+        this.oxygenLevels = new double[size];
+        this.weatherActive = new boolean[size];
+        this.soilQualities = new double[size];
+        this.waterRetentions = new double[size];
+        this.organicMatters = new double[size];
+        this.plantMasses = new double[size];
+        this.waterMasses = new double[size];
+        this.animalMasses = new double[size];
+        this.airBatch = QualityBatch.forAir(CHUNK_CELLS);
+        this.soilBatch = QualityBatch.forSoil(CHUNK_CELLS);
+        this.airSlots = new int[CHUNK_CELLS];
+        this.soilSlots = new int[CHUNK_CELLS];
+    }
+
+    /**
+     * Copies the state of the map into the snapshot. Only the simulation thread writes.
+     *
+     * @param map The map.
+     * @param currentStep The step the map has reached.
+     */
+    public void capture(final SimulationMap map, final int currentStep) {
+        version++;
+        // The copy must not become visible before the version turns odd
+        VarHandle.releaseFence();
+        step = currentStep;
+        long changes = map.getChangeCount();
+        copiedChunks = 0;
+        for (int fromX = 0; fromX < width; fromX = SimulationMap.nextChunk(fromX)) {
+            int toX = Math.min(SimulationMap.nextChunk(fromX), width);
+            for (int fromY = 0; fromY < height; fromY = SimulationMap.nextChunk(fromY)) {
+                int toY = Math.min(SimulationMap.nextChunk(fromY), height);
+                int chunk = (fromX >> SimulationMap.CHUNK_BITS) * chunksY
+                        + (fromY >> SimulationMap.CHUNK_BITS);
+                if (!map.hasChunk(fromX, fromY) && !map.isParked(fromX, fromY)) {
+                    if (copiedAt[chunk] != EMPTY) {
+                        clear(fromX, toX, fromY, toY);
+                        copiedAt[chunk] = EMPTY;
+                    }
+                } else if (copiedAt[chunk] == EMPTY
+                        || map.changedAt(fromX, fromY) > copiedAt[chunk]
+                        || hasScanned(map.getFlags(), fromX, toX, fromY, toY)) {
+                    copy(map, fromX, toX, fromY, toY);
+                    copiedAt[chunk] = changes;
+                    copiedChunks++;
+                }
+            }
+        }
+        version++;
+    }
+
+    /**
+     * Checks if a chunk holds a scanned entity, which the steps change without going
+     * through getCell.
+     */
+    private boolean hasScanned(final GridFlags flags, final int fromX, final int toX,
+                               final int fromY, final int toY) {
+        for (int x = fromX; x < toX; x++) {
+            for (int slot = slotOf(x, fromY); slot < slotOf(x, toY); slot++) {
+                if (GridFlags.hasScanned(flags.state(slot))) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private void copy(final SimulationMap map, final int fromX, final int toX,
+                      final int fromY, final int toY) {
+        if (map.isParked(fromX, fromY)) {
+            // Only happens before the chunk was first copied; peekCell reads it afterwards
+            map.getCell(fromX, fromY);
+        }
+        for (int x = fromX; x < toX; x++) {
+            for (int y = fromY; y < toY; y++) {
+                int slot = slotOf(x, y);
+                Cell cell = map.peekCell(x, y);
+                Air air = cell.getAir();
+                Soil soil = cell.getSoil();
+                Plant plant = cell.getPlant();
+                Water water = cell.getWater();
+                Animal animal = cell.getAnimal();
+                airs[slot] = air;
+                soils[slot] = soil;
+                plants[slot] = plant;
+                waters[slot] = water;
+                animals[slot] = animal;
+                if (air != null) {
+                    airSlots[airBatch.add(air)] = slot;
+                    humidities[slot] = air.getHumidity();
+                    oxygenLevels[slot] = air.getOxygenLevel();
+                    weatherActive[slot] = air.isWeatherActive();
+                }
+                if (soil != null) {
+                    soilSlots[soilBatch.add(soil)] = slot;
+                    waterRetentions[slot] = soil.getWaterRetention();
+                    organicMatters[slot] = soil.getOrganicMatter();
+                }
+                plantMasses[slot] = plant == null ? 0 : plant.getMass();
+                waterMasses[slot] = water == null ? 0 : water.getMass();
+                animalMasses[slot] = animal == null ? 0 : animal.getMass();
+            }
+        }
+        airBatch.compute();
+        for (int row = 0; row < airBatch.size(); row++) {
+            airQualities[airSlots[row]] = airBatch.getQuality(row);
+        }
+        soilBatch.compute();
+        for (int row = 0; row < soilBatch.size(); row++) {
+            soilQualities[soilSlots[row]] = soilBatch.getQuality(row);
+        }
+        airBatch.clear();
+        soilBatch.clear();
+    }
+
+    private void clear(final int fromX, final int toX, final int fromY, final int toY) {
+        for (int x = fromX; x < toX; x++) {
+            for (int y = fromY; y < toY; y++) {
+                clear(slotOf(x, y));
+            }
+        }
+    }
+
+    /**
+     * Returns the number of chunks the last capture copied.
+     *
+     * @return The number of chunks.
+     */
+    public int getCopiedChunks() {
+        return copiedChunks;
+    }
+
+    private void clear(final int slot) {
+        airs[slot] = null;
+        soils[slot] = null;
+        plants[slot] = null;
+        waters[slot] = null;
+        animals[slot] = null;
+        plantMasses[slot] = 0;
+        waterMasses[slot] = 0;
+        animalMasses[slot] = 0;
+    }
+
+    /**
+     * Starts a read of the snapshot.
+     *
+     * @return The version to pass to validate, or -1 if the snapshot is being written.
+     */
+    public int beginRead() {
+        int current = version;
+        return (current & 1) == 0 ? current : -1;
+    }
+
+    /**
+     * Checks that the snapshot was not overwritten since beginRead.
+     *
+     * @param readVersion The value returned by beginRead.
+     * @return true if everything read in between is consistent.
+     */
+    public boolean validate(final int readVersion) {
+        // The reads of the copy must not move after the second read of the version
+        VarHandle.acquireFence();
+        return readVersion != -1 && version == readVersion;
+    }
+
+    /**
+     * Returns the width of the map.
+     *
+     * @return The number of columns.
+     */
+    @Override
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * Returns the height of the map.
+     *
+     * @return The number of rows.
+     */
+    @Override
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Returns the step the map had reached when the snapshot was taken.
+     *
+     * @return The step.
+     */
+    public int getStep() {
+        return step;
+    }
+
+    /**
+     * Returns the slot of a cell, in the same order as SimulationMap.slotOf.
+     *
+     * @param x The x-coordinate.
+     * @param y The y-coordinate.
+     * @return The slot index.
+     */
+    @Override
+    public int slotOf(final int x, final int y) {
+        return x * height + y;
+    }
+
+    /**
+     * Returns the air of a cell.
+     *
+     * @param slot The slot of the cell.
+     * @return The air entity, only to be used for its fixed descriptors.
+     */
+    @Override
+    public Air getAir(final int slot) {
+        return airs[slot];
+    }
+
+    /**
+     * Returns the soil of a cell.
+     *
+     * @param slot The slot of the cell.
+     * @return The soil entity, only to be used for its fixed descriptors.
+     */
+    @Override
+    public Soil getSoil(final int slot) {
+        return soils[slot];
+    }
+
+    /**
+     * Returns the plant of a cell.
+     *
+     * @param slot The slot of the cell.
+     * @return The plant, only to be used for its fixed descriptors, or null.
+     */
+    @Override
+    public Plant getPlant(final int slot) {
+        return plants[slot];
+    }
+
+    /**
+     * Returns the water source of a cell.
+     *
+     * @param slot The slot of the cell.
+     * @return The water source, only to be used for its fixed descriptors, or null.
+     */
+    @Override
+    public Water getWater(final int slot) {
+        return waters[slot];
+    }
+
+    /**
+     * Returns the animal of a cell.
+     *
+     * @param slot The slot of the cell.
+     * @return The animal, only to be used for its fixed descriptors, or null.
+     */
+    @Override
+    public Animal getAnimal(final int slot) {
+        return animals[slot];
+    }
+
+    /**
+     * Counts the plant, water source and animal of a cell, like Cell.getTotalNrOfObjects.
+     *
+     * @param slot The slot of the cell.
+     * @return The count of objects (0 to 3).
+     */
+    @Override
+    public int getTotalNrOfObjects(final int slot) {
+        int count = 0;
+        if (plants[slot] != null) {
+            count++;
+        }
+        if (waters[slot] != null) {
+            count++;
+        }
+        if (animals[slot] != null) {
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * Returns the air quality score of a cell.
+     *
+     * @param slot The slot of the cell.
+     * @return The score.
+     */
+    @Override
+    public double getAirQuality(final int slot) {
+        return airQualities[slot];
+    }
+
+    /**
+     * Returns the humidity of the air of a cell.
+     *
+     * @param slot The slot of the cell.
+     * @return The humidity.
+     */
+    @Override
+    public double getHumidity(final int slot) {
+        return humidities[slot];
+    }
+
+    /**
+     * Returns the oxygen level of the air of a cell.
+     *
+     * @param slot The slot of the cell.
+     * @return The oxygen level.
+     */
+    @Override
+    public double getOxygenLevel(final int slot) {
+        return oxygenLevels[slot];
+    }
+
+    /**
+     * Checks if a weather event was in effect on a cell.
+     *
+     * @param slot The slot of the cell.
+     * @return true if the weather of the cell was changed.
+     */
+    public boolean isWeatherActive(final int slot) {
+        return weatherActive[slot];
+    }
+
+    /**
+     * Adds the fields of the air as they were when the snapshot was taken, without
+     * changing the air.
+     *
+     * @param slot The slot of the cell.
+     * @param node The ObjectNode to populate.
+     */
+    @Override
+    public void addAirFields(final int slot, final ObjectNode node) {
+        airs[slot].addSpecificFields(node, weatherActive[slot]);
+    }
+
+    /**
+     * Returns the soil quality score of a cell.
+     *
+     * @param slot The slot of the cell.
+     * @return The score.
+     */
+    @Override
+    public double getSoilQuality(final int slot) {
+        return soilQualities[slot];
+    }
+
+    /**
+     * Returns the water retention of the soil of a cell.
+     *
+     * @param slot The slot of the cell.
+     * @return The water retention.
+     */
+    @Override
+    public double getWaterRetention(final int slot) {
+        return waterRetentions[slot];
+    }
+
+    /**
+     * Returns the organic matter of the soil of a cell.
+     *
+     * @param slot The slot of the cell.
+     * @return The organic matter.
+     */
+    @Override
+    public double getOrganicMatter(final int slot) {
+        return organicMatters[slot];
+    }
+
+    /**
+     * Returns the mass of the plant of a cell.
+     *
+     * @param slot The slot of the cell.
+     * @return The mass, or 0 if there is no plant.
+     */
+    @Override
+    public double getPlantMass(final int slot) {
+        return plantMasses[slot];
+    }
+
+    /**
+     * Returns the mass of the water source of a cell.
+     *
+     * @param slot The slot of the cell.
+     * @return The mass, or 0 if there is no water source.
+     */
+    @Override
+    public double getWaterMass(final int slot) {
+        return waterMasses[slot];
+    }
+
+    /**
+     * Returns the mass of the animal of a cell.
+     *
+     * @param slot The slot of the cell.
+     * @return The mass, or 0 if there is no animal.
+     */
+    @Override
+    public double getAnimalMass(final int slot) {
+        return animalMasses[slot];
+    }
+}
@@ -0,0 +1,203 @@
+package main;
+
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import main.entities.Air.Air;
+import main.entities.Animal.Animal;
+import main.entities.Plant.Plant;
+import main.entities.Soil.Soil;
+import main.entities.Water.Water;
+
+/**
+ * What printMap and printEnvConditions read about the cells of a map, so that they
+ * render the live map (LiveMapView) and a MapSnapshot the same way.
+ * The cells are addressed by the slot returned by slotOf. The entities are only used for
+ * their fixed descriptors (type, name, input values); everything a step can change is
+ * read through the view.
+ */
+public interface MapView {
+    /**
+     * Returns the width of the map.
+     *
+     * @return The number of columns.
+     */
+    int getWidth();
+
+    /**
+     * Returns the height of the map.
+     *
+     * @return The number of rows.
+     */
+    int getHeight();
+
+    /**
+     * Checks if the chunk of a cell holds any cell, see SimulationMap.hasChunk. The
+     * parked chunks hold cells.
+     *
+     * @param x The x-coordinate.
+     * @param y The y-coordinate.
+     * @return false if every cell of the chunk is empty.
+     */
+    default boolean hasChunk(final int x, final int y) {
+        return true;
+    }
+
+    /**
+     * Returns the slot of a cell, in the same order as SimulationMap.slotOf.
+     *
+     * @param x The x-coordinate.
+     * @param y The y-coordinate.
+     * @return The slot index.
+     */
+    int slotOf(int x, int y);
+
+    /**
+     * Returns the order in which the view keeps the cells of a chunk, the order in which
+     * a pass over the chunk reads them sequentially.
+     *
+     * @return The layout of the chunks.
+     */
+    default GridLayout getLayout() {
+        return GridLayout.COLUMNS;
+    }
+
+    /**
+     * Gets the quality scores of the cells of a chunk ready before they are read one by
+     * one.
+     *
+     * @param fromX The x-coordinate of the first column of the chunk.
+     * @param fromY The y-coordinate of the first row of the chunk.
+     */
+    default void prepareTile(final int fromX, final int fromY) {
+
+    }
+
+    /**
+     * Returns the air of a cell.
+     *
+     * @param slot The slot of the cell.
+     * @return The air, or null.
+     */
+    Air getAir(int slot);
+
+    /**
+     * Returns the soil of a cell.
+     *
+     * @param slot The slot of the cell.
+     * @return The soil, or null.
+     */
+    Soil getSoil(int slot);
+
+    /**
+     * Returns the plant of a cell.
+     *
+     * @param slot The slot of the cell.
+     * @return The plant, or null.
+     */
+    Plant getPlant(int slot);
+
+    /**
+     * Returns the water source of a cell.
+     *
+     * @param slot The slot of the cell.
+     * @return The water source, or null.
+     */
+    Water getWater(int slot);
+
+    /**
+     * Returns the animal of a cell.
+     *
+     * @param slot The slot of the cell.
+     * @return The animal, or null.
+     */
+    Animal getAnimal(int slot);
+
+    /**
+     * Counts the plant, water source and animal of a cell.
+     *
+     * @param slot The slot of the cell.
+     * @return The count of objects (0 to 3).
+     */
+    int getTotalNrOfObjects(int slot);
+
+    /**
+     * Returns the air quality score of a cell. Only meaningful when the cell has
+     * an air (see getAir).
+     *
+     * @param slot The slot of the cell.
+     * @return The score.
+     */
+    double getAirQuality(int slot);
+
+    /**
+     * Returns the humidity of the air of a cell.
+     *
+     * @param slot The slot of the cell.
+     * @return The humidity.
+     */
+    double getHumidity(int slot);
+
+    /**
+     * Returns the oxygen level of the air of a cell.
+     *
+     * @param slot The slot of the cell.
+     * @return The oxygen level.
+     */
+    double getOxygenLevel(int slot);
+
+    /**
+     * Adds the fields specific to the type of the air of a cell.
+     *
+     * @param slot The slot of the cell.
+     * @param node The ObjectNode to populate.
+     */
+    void addAirFields(int slot, ObjectNode node);
+
+    /**
+     * Returns the soil quality score of a cell. Only meaningful when the cell has
+     * a soil (see getSoil).
+     *
+     * @param slot The slot of the cell.
+     * @return The score.
+     */
+    double getSoilQuality(int slot);
+
+    /**
+     * Returns the water retention of the soil of a cell.
+     *
+     * @param slot The slot of the cell.
+     * @return The water retention.
+     */
+    double getWaterRetention(int slot);
+
+    /**
+     * Returns the organic matter of the soil of a cell.
+     *
+     * @param slot The slot of the cell.
+     * @return The organic matter.
+     */
+    double getOrganicMatter(int slot);
+
+    /**
+     * Returns the mass of the plant of a cell.
+     *
+     * @param slot The slot of the cell.
+     * @return The mass, or 0 if there is no plant.
+     */
+    double getPlantMass(int slot);
+
+    /**
+     * Returns the mass of the water source of a cell.
+     *
+     * @param slot The slot of the cell.
+     * @return The mass, or 0 if there is no water source.
+     */
+    double getWaterMass(int slot);
+
+    /**
+     * Returns the mass of the animal of a cell.
+     *
+     * @param slot The slot of the cell.
+     * @return The mass, or 0 if there is no animal.
+     */
+    double getAnimalMass(int slot);
+}
@@ -1,12 +1,21 @@
 package main;
 
 import main.entities.Animal.Animal;
+import main.entities.Plant.Plant;
+import main.entities.Water.Water;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.BitSet;
 
 public final class MoveAnimal {
-    private static final int NUM_DIRECTIONS = 4;
+    public static final int NUM_DIRECTIONS = 4;
+    public static final int OUTSIDE = -1;
+    public static final int PLANT_AND_WATER = 0;
+    public static final int PLANT = 1;
+    public static final int WATER = 2;
+    public static final int EMPTY = 3;
+    private static final int[] DX = {0, 1, 0, -1};
+    private static final int[] DY = {1, 0, -1, 0};
+
     private MoveAnimal() {
 
     }
@@ -25,75 +34,210 @@ public final class MoveAnimal {
                                final int x,
                                final int y,
                                final Animal animal) {
-        int[] a = {0, 1, 0, -1};
-        int[] b = {1, 0, -1, 0};
-        List<Integer> plantAndWater = new ArrayList<>();
-        List<Integer> plant = new ArrayList<>();
-        List<Integer> water = new ArrayList<>();
-        List<Integer> empty = new ArrayList<>();
+        moveTo(map, x, y, animal, select(map, x, y, animal, null, null, 0));
+    }
+
+    /**
+     * Classifies the 4 neighbors of a position by the resources they offer.
+     * The result does not depend on the animal or on which neighbors are occupied,
+     * so it can be computed ahead of the move (see move).
+     *
+     * @param map The simulation map.
+     * @param x The x coordinate of the animal.
+     * @param y The y coordinate of the animal.
+     * @param categories Receives the category of each direction (OUTSIDE, PLANT_AND_WATER,
+     *                   PLANT, WATER or EMPTY), starting at offset.
+     * @param qualities Receives the water quality of each direction that offers water.
+     * @param offset The first index written in the two arrays.
+     */
+    public static void classify(final SimulationMap map,
+                                final int x,
+                                final int y,
+                                final int[] categories,
+                                final double[] qualities,
+                                final int offset) {
         for (int i = 0; i < NUM_DIRECTIONS; i++) {
-            int nextX = x + a[i];
-            int nextY = y + b[i];
-            if (nextX >= 0 && nextY >= 0 && nextX < map.getWidth() && nextY < map.getHeight()) {
-                Cell cell = map.getCell(nextX, nextY);
-                if (cell.getAnimal() == null || animal.isCarnivoreOrParasite()) {
-                    if (cell.getPlant() != null && cell.getWater() != null
-                            && cell.getPlant().isScanned() && cell.getWater().isScanned()) {
-                        plantAndWater.add(i);
-                    } else if (cell.getPlant() != null && cell.getPlant().isScanned()) {
-                        plant.add(i);
-                    } else if (cell.getWater() != null && cell.getWater().isScanned()) {
-                        water.add(i);
-                    } else {
-                        empty.add(i);
-                    }
-                }
+            classifyNeighbor(map, x, y, i, categories, qualities, offset);
+        }
+    }
+
+    /**
+     * Classifies again the neighbours that lost an entity since classify was called.
+     *
+     * @param map The simulation map.
+     * @param x The x coordinate of the animal.
+     * @param y The y coordinate of the animal.
+     * @param changed The slots (see SimulationMap.slotOf) whose entities were removed.
+     * @param categories The categories written by classify.
+     * @param qualities The water qualities written by classify.
+     * @param offset The first index of the two arrays.
+     */
+    public static void reclassify(final SimulationMap map,
+                                  final int x,
+                                  final int y,
+                                  final BitSet changed,
+                                  final int[] categories,
+                                  final double[] qualities,
+                                  final int offset) {
+        for (int i = 0; i < NUM_DIRECTIONS; i++) {
+            if (categories[offset + i] != OUTSIDE
+                    && changed.get(map.slotOf(x + DX[i], y + DY[i]))) {
+                classifyNeighbor(map, x, y, i, categories, qualities, offset);
             }
         }
-        int dir = -1;
-        if (!plantAndWater.isEmpty()) {
-            dir = getBestWaterDir(map, plantAndWater, x, y, a, b);
-        } else if (!plant.isEmpty()) {
-            dir = plant.getFirst();
-        } else if (!water.isEmpty()) {
-            dir = getBestWaterDir(map, water, x, y, a, b);
-        } else if (!empty.isEmpty()) {
-            dir = empty.getFirst();
+    }
+
+    private static void classifyNeighbor(final SimulationMap map,
+                                         final int x,
+                                         final int y,
+                                         final int i,
+                                         final int[] categories,
+                                         final double[] qualities,
+                                         final int offset) {
+        Cell cell = map.peekCell(x + DX[i], y + DY[i]);
+        int category = categoryAt(map, x + DX[i], y + DY[i], cell);
+        categories[offset + i] = category;
+        qualities[offset + i] = hasWater(category) ? cell.getWater().calculateQuality() : 0;
+    }
+
+    /**
+     * Classifies a neighbour read with peekCell, which is null outside the map and in a
+     * chunk that was never allocated, whose cells are all empty.
+     */
+    private static int categoryAt(final SimulationMap map,
+                                  final int x,
+                                  final int y,
+                                  final Cell cell) {
+        if (!map.contains(x, y)) {
+            return OUTSIDE;
         }
-        if (dir != -1) {
-            int newX = x + a[dir];
-            int newY = y + b[dir];
-            map.getCell(newX, newY).setAnimal(animal);
-            map.getCell(x, y).setAnimal(null);
+        return cell == null ? EMPTY : categoryOf(cell);
+    }
+
+    private static int categoryOf(final Cell cell) {
+        Plant plant = cell.getPlant();
+        Water water = cell.getWater();
+        if (plant != null && water != null && plant.isScanned() && water.isScanned()) {
+            return PLANT_AND_WATER;
+        } else if (plant != null && plant.isScanned()) {
+            return PLANT;
+        } else if (water != null && water.isScanned()) {
+            return WATER;
         }
+        return EMPTY;
     }
+
+    private static boolean hasWater(final int category) {
+        return category == PLANT_AND_WATER || category == WATER;
+    }
+
+    /**
+     * Moves an animal using a classification of its neighbors made by classify.
+     * Neighbors holding another animal are skipped, unless the animal is a carnivore or
+     * a parasite. Among the rest, a cell with both plant and water is preferred (best
+     * water first), then a plant, then water (best water first), then an empty cell.
+     *
+     * @param map The simulation map.
+     * @param x The current x coordinate of the animal.
+     * @param y The current y coordinate of the animal.
+     * @param animal The animal entity to be moved.
+     * @param categories The category of each direction.
+     * @param qualities The water quality of each direction.
+     * @param offset The index of the first direction in the two arrays.
+     */
+    public static void move(final SimulationMap map,
+                            final int x,
+                            final int y,
+                            final Animal animal,
+                            final int[] categories,
+                            final double[] qualities,
+                            final int offset) {
+        moveTo(map, x, y, animal, select(map, x, y, animal, categories, qualities, offset));
+    }
+
     /**
-     * Helper method to find the direction with the best water quality among a list of candidates.
+     * Chooses the direction of a move, reading the neighbours from the map when no
+     * classification is given.
      *
-     * @param map  The simulation map.
-     * @param dirs The list of valid direction indices to check.
-     * @param x    The current x-coordinate.
-     * @param y    The current y-coordinate.
-     * @param a    The array of x-axis offsets.
-     * @param b    The array of y-axis offsets.
-     * @return The index of the direction pointing to the cell with the best water quality.
+     * @return The chosen direction, or -1 if the animal stays.
      */
-    public static int getBestWaterDir(final SimulationMap map,
-                                      final List<Integer> dirs,
-                                      final int x,
-                                      final int y,
-                                      final int[] a,
-                                      final int[] b) {
-        int bestDir = -1;
-        double max = Double.MIN_VALUE;
-        for (int dir : dirs) {
-            Cell cell = map.getCell(x + a[dir], y + b[dir]);
-            double quality = cell.getWater().calculateQuality();
-            if (quality > max) {
-                max = quality;
-                bestDir = dir;
+    private static int select(final SimulationMap map,
+                              final int x,
+                              final int y,
+                              final Animal animal,
+                              final int[] categories,
+                              final double[] qualities,
+                              final int offset) {
+        boolean hasPlantAndWater = false;
+        int bestPlantAndWater = -1;
+        double maxPlantAndWater = Double.MIN_VALUE;
+        int firstPlant = -1;
+        boolean hasWater = false;
+        int bestWater = -1;
+        double maxWater = Double.MIN_VALUE;
+        int firstEmpty = -1;
+        for (int i = 0; i < NUM_DIRECTIONS; i++) {
+            if (!map.contains(x + DX[i], y + DY[i])) {
+                continue;
+            }
+            Cell cell = map.peekCell(x + DX[i], y + DY[i]);
+            if (cell != null && cell.getAnimal() != null && !animal.isCarnivoreOrParasite()) {
+                continue;
+            }
+            int category = categories == null
+                    ? categoryAt(map, x + DX[i], y + DY[i], cell) : categories[offset + i];
+            double quality = 0;
+            if (hasWater(category)) {
+                quality = categories == null
+                        ? cell.getWater().calculateQuality() : qualities[offset + i];
             }
+            if (category == PLANT_AND_WATER) {
+                hasPlantAndWater = true;
+                if (quality > maxPlantAndWater) {
+                    maxPlantAndWater = quality;
+                    bestPlantAndWater = i;
+                }
+            } else if (category == PLANT) {
+                if (firstPlant == -1) {
+                    firstPlant = i;
+                }
+            } else if (category == WATER) {
+                hasWater = true;
+                if (quality > maxWater) {
+                    maxWater = quality;
+                    bestWater = i;
+                }
+            } else if (firstEmpty == -1) {
+                firstEmpty = i;
+            }
+        }
+        int dir;
+        if (hasPlantAndWater) {
+            dir = bestPlantAndWater;
+        } else if (firstPlant != -1) {
+            dir = firstPlant;
+        } else if (hasWater) {
+            dir = bestWater;
+        } else {
+            dir = firstEmpty;
+        }
+        return dir;
+    }
+
+    private static void moveTo(final SimulationMap map,
+                               final int x,
+                               final int y,
+                               final Animal animal,
+                               final int dir) {
+        if (dir != -1) {
+            int newX = x + DX[dir];
+            int newY = y + DY[dir];
+            // Allocates the chunk of an empty neighbour; moves only run on one thread
+            map.getCell(newX, newY).setAnimal(animal);
+            map.getCell(x, y).setAnimal(null);
+            map.markActive(newX, newY);
+            // Its next turns read the neighbours with peekCell
+            map.restoreAround(newX, newY);
         }
-        return bestDir;
     }
 }
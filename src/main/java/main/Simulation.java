@@ -7,171 +7,159 @@ import fileio.AirInput;
 import fileio.PairInput;
 import fileio.TerritorySectionParamsInput;
 import fileio.SimulationInput;
-import main.entities.Air.Air;
-import main.entities.Water.Water;
-import main.entities.Soil.Soil;
-import main.entities.Plant.Plant;
-import main.entities.Animal.Animal;
-import main.entities.Soil.ForestSoil;
-import main.entities.Soil.GrasslandSoil;
-import main.entities.Soil.DesertSoil;
-import main.entities.Soil.SwampSoil;
-import main.entities.Soil.TundraSoil;
-import main.entities.Plant.FloweringPlants;
-import main.entities.Plant.GymnospermsPlants;
-import main.entities.Plant.Ferns;
-import main.entities.Plant.Mosses;
-import main.entities.Plant.Algae;
-import main.entities.Animal.Herbivores;
-import main.entities.Animal.Carnivores;
-import main.entities.Animal.Omnivores;
-import main.entities.Animal.Detritivores;
-import main.entities.Animal.Parasites;
-import main.entities.Air.TropicalAir;
-import main.entities.Air.MountainAir;
-import main.entities.Air.PolarAir;
-import main.entities.Air.TemperateAir;
-import main.entities.Air.DesertAir;
+import main.entities.EntityFactories;
+import main.entities.EntityPool;
+import main.entities.NameTable;
+import main.entities.Air.AirTemplate;
+import main.entities.Water.WaterTemplate;
+import main.entities.Soil.SoilTemplate;
+import main.entities.Plant.PlantTemplate;
+import main.entities.Animal.AnimalTemplate;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import java.util.HashSet;
-import java.util.Set;
 import lombok.Getter;
+import main.engine.FastForward;
+import main.engine.TickEngine;
+import main.engine.TimerWheel;
+import main.storage.GridFlags;
+import main.storage.MappedCellStorage;
+import main.storage.SlotInts;
+
+import java.util.function.Function;
 
 @Getter
 public final class Simulation {
-    private static final double HUMIDITY_UPDATE_VAL = 0.1;
-    private static final double WATER_RETENTION_UPDATE_VAL = 0.1;
-    private static final double PLANT_GROWTH_VAL = 0.2;
-
     private SimulationMap map;
     private TerraBot robot;
     private ObjectMapper mapper = new ObjectMapper();
     private int totalTime = 0;
     private int step = 0;
+    private final TickEngine engine;
+    private final FastForward fastForward;
+    /**
+     * Fires the end of the weather events, with the slot of the cell as payload. The moves
+     * of the animals are not timers: a scanned animal takes a turn on every step to feed,
+     * and the turn checks Animal.shouldMove, so scheduling them would save no visit.
+     */
+    private final TimerWheel timers;
+    /** The step at which the weather event of each slot ends, 0 if there is none. */
+    private final SlotInts weatherEnds;
+    private boolean quiescent = false;
+    /** The value of map.getWakeUps() when the map was found quiescent. */
+    private long quietWakeUps;
+    /** The steps deferred by defer and not applied to the map yet. */
+    private int pendingSteps = 0;
+    /** The two snapshot buffers, or null when the snapshots are disabled. */
+    private final MapSnapshot[] snapshots;
+    /** The buffer readers use; the other one is overwritten at the end of the next step. */
+    private volatile MapSnapshot published;
     public Simulation(final SimulationInput input) {
+        this(input, SimulationConfig.fromSystemProperties());
+    }
+
+    public Simulation(final SimulationInput input, final SimulationConfig config) {
+        this(input, config, null);
+    }
+
+    /**
+     * Creates a simulation that reuses the map of an ended one when the territory has the
+     * same size (see SimulationMap.reset), and takes its plants, water sources and animals
+     * from the pool of that map.
+     *
+     * @param input The input of the simulation.
+     * @param config The implementation strategies.
+     * @param recycled The map returned by recycle on the previous simulation, or null.
+     */
+    public Simulation(final SimulationInput input, final SimulationConfig config,
+                      final SimulationMap recycled) {
         this.robot = new TerraBot(input.getEnergyPoints());
         String[] dims = input.getTerritoryDim().split("x");
         int height = Integer.parseInt(dims[0]);
         int width = Integer.parseInt(dims[1]);
-        this.map = new SimulationMap(width, height);
+        if (recycled != null
+                && recycled.fits(width, height, config.getStorage(), config.getLayout())) {
+            recycled.reset();
+            this.map = recycled;
+        } else {
+            this.map = new SimulationMap(width, height,
+                    config.getStorage().create(width, height), config.getLayout());
+        }
         populateMap(input.getTerritorySectionParams());
+        this.engine = config.getEngine().create(map);
+        this.timers = new TimerWheel(this::endWeather);
+        this.weatherEnds = new SlotInts(width * height);
+        this.fastForward = new FastForward(map, timers);
+        if (config.isSnapshots()) {
+            this.snapshots = new MapSnapshot[] {
+                new MapSnapshot(width, height), new MapSnapshot(width, height)
+            };
+            publish();
+        } else {
+            this.snapshots = null;
+        }
     }
     /**
      * Populates the simulation map with entities based on the provided input parameters.
      * This method iterates through lists of input data and for each entity it instantiates
-     * the specific subclass.
+     * the specific subclass, through the factory of its kind, or reuses one from the pool
+     * of the map. The sections of an input share a single template; an input of unknown
+     * type leaves its sections empty.
      *
      * @param params The input object containing lists of parameters for all
      * territory sections.
      */
     private void populateMap(final TerritorySectionParamsInput params) {
+        NameTable names = new NameTable();
+        EntityPool pool = map.getPool();
         for (SoilInput input : params.getSoil()) {
+            SoilTemplate template = SoilTemplate.of(input, names);
             for (PairInput p : input.getSections()) {
-                Soil o = null;
-                switch (input.getType()) {
-                    case "ForestSoil":
-                        o = new ForestSoil(input);
-                        break;
-                    case "SwampSoil":
-                        o = new SwampSoil(input);
-                        break;
-                    case "DesertSoil":
-                        o = new DesertSoil(input);
-                        break;
-                    case "GrasslandSoil":
-                        o = new GrasslandSoil(input);
-                        break;
-                    case "TundraSoil":
-                        o = new TundraSoil(input);
-                        break;
-                    default:
-                        break;
-                }
-                map.getCell(p.getX(), p.getY()).setSoil(o);
+                map.getCell(p.getX(), p.getY()).setSoil(EntityFactories.createSoil(template));
             }
         }
         for (PlantInput input : params.getPlants()) {
+            PlantTemplate template = PlantTemplate.of(input, names);
             for (PairInput p : input.getSections()) {
-                Plant o = null;
-                switch (input.getType()) {
-                    case "FloweringPlants":
-                        o = new FloweringPlants(input);
-                        break;
-                    case "GymnospermsPlants":
-                        o = new GymnospermsPlants(input);
-                        break;
-                    case "Ferns":
-                        o = new Ferns(input);
-                        break;
-                    case "Mosses":
-                        o = new Mosses(input);
-                        break;
-                    case "Algae":
-                        o = new Algae(input);
-                        break;
-                    default:
-                        break;
-                }
-                map.getCell(p.getX(), p.getY()).setPlant(o);
+                map.getCell(p.getX(), p.getY()).setPlant(pool.createPlant(template));
             }
         }
         for (AnimalInput input : params.getAnimals()) {
+            AnimalTemplate template = AnimalTemplate.of(input, names);
             for (PairInput p : input.getSections()) {
-                Animal o = null;
-                switch (input.getType()) {
-                    case "Herbivores":
-                        o = new Herbivores(input);
-                        break;
-                    case "Carnivores":
-                        o = new Carnivores(input);
-                        break;
-                    case "Omnivores":
-                        o = new Omnivores(input);
-                        break;
-                    case "Detritivores":
-                        o = new Detritivores(input);
-                        break;
-                    case "Parasites":
-                        o = new Parasites(input);
-                        break;
-                    default:
-                        break;
-                }
-                map.getCell(p.getX(), p.getY()).setAnimal(o);
+                map.getCell(p.getX(), p.getY()).setAnimal(pool.createAnimal(template));
             }
         }
         for (WaterInput input : params.getWater()) {
+            WaterTemplate template = WaterTemplate.of(input, names);
             for (PairInput p : input.getSections()) {
-                Water o = new Water(input);
-                map.getCell(p.getX(), p.getY()).setWater(o);
+                map.getCell(p.getX(), p.getY()).setWater(pool.createWater(template));
             }
         }
         for (AirInput input : params.getAir()) {
+            AirTemplate template = AirTemplate.of(input, names);
             for (PairInput p : input.getSections()) {
-                Air o = null;
-                switch (input.getType()) {
-                    case "TropicalAir":
-                        o = new TropicalAir(input);
-                        break;
-                    case "PolarAir":
-                        o = new PolarAir(input);
-                        break;
-                    case "TemperateAir":
-                        o = new TemperateAir(input);
-                        break;
-                    case "DesertAir":
-                        o = new DesertAir(input);
-                        break;
-                    case "MountainAir":
-                        o = new MountainAir(input);
-                        break;
-                    default:
-                        break;
-                }
-                map.getCell(p.getX(), p.getY()).setAir(o);
+                map.getCell(p.getX(), p.getY()).setAir(EntityFactories.createAir(template));
             }
         }
     }
+    /**
+     * Returns the map, after applying the deferred steps.
+     *
+     * @return The simulation map.
+     */
+    public SimulationMap getMap() {
+        catchUp();
+        return map;
+    }
+    /**
+     * Ends the simulation and returns its map, to be reset by the next one. The deferred
+     * steps are dropped, and the simulation must not be used afterwards.
+     *
+     * @return The map.
+     */
+    public SimulationMap recycle() {
+        pendingSteps = 0;
+        return map;
+    }
     /**
      * Sets the timestamp until the robot is busy charging.
      *
@@ -189,91 +177,180 @@ public final class Simulation {
     public boolean isCharging(final int timestamp) {
         return timestamp < totalTime;
     }
+    /**
+     * Schedules the end of the weather event just set on a cell.
+     * The weather stays in effect during the next duration - 1 steps and is cleared at the
+     * start of the last one, before any animal checks the air. A newer event on the same
+     * cell replaces the pending end.
+     *
+     * @param x The x-coordinate of the cell.
+     * @param y The y-coordinate of the cell.
+     * @param duration The duration of the event, in steps.
+     */
+    public void scheduleWeatherEnd(final int x, final int y, final int duration) {
+        catchUp();
+        int slot = map.slotOf(x, y);
+        weatherEnds.set(slot, step + duration);
+        timers.schedule(slot, step + duration);
+    }
+
+    private void endWeather(final int slot, final int now) {
+        if (weatherEnds.get(slot) != now) {
+            return;
+        }
+        weatherEnds.set(slot, 0);
+        map.getCell(slot / map.getHeight(), slot % map.getHeight()).getAir().endWeather();
+    }
+
     /**
      * Updates the environment state for one simulation step.
      * Processes interactions between entities.
      */
     public void updateEnvironment() {
+        tick();
+        publish();
+        trimStorage();
+    }
+
+    private void tick() {
         step++;
-        Set<Animal> movedAnimals = new HashSet<>();
-        for (int x = 0; x < map.getWidth(); x++) {
-            for (int y = 0; y < map.getHeight(); y++) {
-                Cell cell = map.getCell(x, y);
-                Air air = cell.getAir();
-                Soil soil = cell.getSoil();
-                Animal animal = cell.getAnimal();
-                Plant plant = cell.getPlant();
-                Water water = cell.getWater();
-                // Decrease the duration of active weather events
-                if (air != null) {
-                    air.updateWeatherDuration();
-                }
-                // Delete dead/empty entities from the map
-                if (plant != null && plant.isDead()) {
-                    cell.setPlant(null);
-                }
-                if (water != null && water.getMass() <= 0) {
-                    cell.setWater(null);
-                }
-                if (animal != null && animal.isDead()) {
-                    cell.setAnimal(null);
-                }
-                // The influence of water on the environment
-                if (water != null && air != null && water.isScanned()) {
-                    if (step % 2 == 0) {
-                        air.updateHumidity(HUMIDITY_UPDATE_VAL);
-                    }
-                }
-                if (water != null && soil != null && water.isScanned()) {
-                    if (step % 2 == 0) {
-                        soil.updateWaterRetention(WATER_RETENTION_UPDATE_VAL);
+        timers.advanceTo(step);
+        if (!isQuiescent()) {
+            // A move wakes its destination up after the engine may have checked it
+            long wakeUps = map.getWakeUps();
+            quiescent = !engine.tick(step) && map.getWakeUps() == wakeUps;
+            quietWakeUps = map.getWakeUps();
+        }
+    }
+
+    /**
+     * Checks if the last step left the map quiescent and no command woke a cell up since.
+     * The steps of a quiescent map change nothing but the step counter.
+     *
+     * @return true if the map is quiescent.
+     */
+    public boolean isQuiescent() {
+        return quiescent && quietWakeUps == map.getWakeUps();
+    }
+    /**
+     * Advances the environment by several steps, with the same result as calling
+     * updateEnvironment that many times.
+     * Long gaps are fast-forwarded: only the cells around the scanned animals are stepped
+     * one by one, the others jump ahead (see FastForward). Once the map is quiescent the
+     * remaining steps are skipped.
+     *
+     * @param steps The number of steps.
+     */
+    public void advance(final int steps) {
+        int remaining = steps;
+        while (remaining > 0 && remaining < FastForward.CHUNK_STEPS && !isQuiescent()) {
+            tick();
+            remaining--;
+        }
+        if (remaining > 0 && !isQuiescent()) {
+            quiescent = !fastForward.advance(step, remaining);
+            quietWakeUps = map.getWakeUps();
+        } else {
+            timers.advanceTo(step + remaining);
+        }
+        // Skipped steps only move the counter, which keeps the parity of the humidity rule
+        step += remaining;
+        publish();
+        trimStorage();
+    }
+
+    /**
+     * Copies the map into the buffer readers are not using and hands it over to them.
+     * Called at the end of every step, and by the commands that change the map outside
+     * a step (scanObject, changeWeatherConditions, improveEnvironment).
+     */
+    public void publish() {
+        if (snapshots == null) {
+            return;
+        }
+        MapSnapshot back = published == snapshots[0] ? snapshots[1] : snapshots[0];
+        back.capture(map, step);
+        published = back;
+    }
+
+    /**
+     * Lets a mapped storage unmap the tiles it holds beyond its budget, except the tiles
+     * of the robot and of the scanned animals, which the next commands and steps touch.
+     * The quiescent chunks of the unmapped tiles are parked (see SimulationMap.park).
+     */
+    private void trimStorage() {
+        if (!(map.getStorage() instanceof MappedCellStorage mapped)) {
+            return;
+        }
+        mapped.keep(map.slotOf(robot.getX(), robot.getY()));
+        GridFlags flags = map.getFlags();
+        for (int slot = flags.next(GridFlags.Flag.SCANNED_ANIMAL, 0); slot >= 0;
+                slot = flags.next(GridFlags.Flag.SCANNED_ANIMAL, slot + 1)) {
+            mapped.keep(slot);
+        }
+        mapped.trim(map::park);
+    }
+
+    /**
+     * Reads the last published snapshot from any thread, without blocking the steps.
+     * The reader runs again if the step thread overwrote the snapshot meanwhile, so it
+     * must not have side effects and must tolerate inconsistent values, whose result
+     * is discarded. An exception thrown by the reader is likewise discarded when the
+     * snapshot was overwritten meanwhile, and only thrown on a consistent snapshot.
+     *
+     * @param reader Reads the snapshot.
+     * @param <T> The type of the result.
+     * @return The result of the reader on a consistent snapshot.
+     */
+    public <T> T readSnapshot(final Function<MapSnapshot, T> reader) {
+        if (snapshots == null) {
+            throw new IllegalStateException("The snapshots are disabled");
+        }
+        while (true) {
+            MapSnapshot snapshot = published;
+            int version = snapshot.beginRead();
+            if (version != -1) {
+                T result;
+                try {
+                    result = reader.apply(snapshot);
+                } catch (RuntimeException e) {
+                    // A reader racing a capture can meet a half-written entry
+                    if (snapshot.validate(version)) {
+                        throw e;
                     }
+                    Thread.onSpinWait();
+                    continue;
                 }
-                // The plant growth
-                if (soil != null && plant != null && plant.isScanned()) {
-                    plant.grow(PLANT_GROWTH_VAL);
-                }
-                if (water != null && plant != null && plant.isScanned()) {
-                    plant.grow(PLANT_GROWTH_VAL);
-                }
-                // Oxygen production
-                if (plant != null && air != null && plant.isScanned()) {
-                    air.updateOxygen(plant.getOxygenLevel());
-                }
-                // Animal logic
-                // isScannedRound prevents double logical processing in the same iteration
-                if (animal != null && animal.isScanned() && !animal.isScannedRound()) {
-                    animal.increaseAge();
-                    animal.setScannedRound(true);
-                    if (!movedAnimals.contains(animal)) {
-                        if (air != null) {
-                            if (air.checkToxicity()) {
-                                animal.setSick();
-                            }
-                        }
-                        animal.feedAlgorithm(cell);
-                        double fert = animal.getFertilizer();
-                        if (fert > 0 && soil != null) {
-                            soil.updateOrganicMatter(fert);
-                            animal.resetFertilizer();
-                        }
-                        if (animal.shouldMove() && !animal.isDead()) {
-                            MoveAnimal.execute(map, x, y, animal);
-                            movedAnimals.add(animal);
-                        }
-                    }
+                if (snapshot.validate(version)) {
+                    return result;
                 }
             }
+            Thread.onSpinWait();
         }
-        // Reset the 'scannedRound' flag for all animals on the map
-        for (int x = 0; x < map.getWidth(); x++) {
-            for (int y = 0; y < map.getHeight(); y++) {
-                Cell cell = map.getCell(x, y);
-                Animal animal = cell.getAnimal();
-                if (animal != null) {
-                    animal.setScannedRound(false);
-                }
-            }
+    }
+
+    /**
+     * Defers steps of the environment until something reads or changes the map.
+     * The commands that only use the robot never pay for them. With the snapshots on,
+     * the steps are applied at once: the readers cannot apply them themselves.
+     *
+     * @param steps The number of steps.
+     */
+    public void defer(final int steps) {
+        pendingSteps += steps;
+        if (snapshots != null) {
+            catchUp();
+        }
+    }
+
+    /**
+     * Applies the steps deferred so far (see advance).
+     */
+    public void catchUp() {
+        if (pendingSteps > 0) {
+            int steps = pendingSteps;
+            pendingSteps = 0;
+            advance(steps);
         }
     }
 }
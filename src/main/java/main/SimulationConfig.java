@@ -0,0 +1,49 @@
+package main;
+
+import lombok.Getter;
+import lombok.Setter;
+import main.engine.EngineType;
+import main.storage.StorageType;
+
+/**
+ * Selects the implementation strategies used by a Simulation.
+ * The defaults reproduce the original behaviour; every option can also be set
+ * through a system property so that whole runs can be switched from the command line.
+ */
+@Getter
+@Setter
+public final class SimulationConfig {
+    public static final String STORAGE_PROPERTY = "terrabot.storage";
+    public static final String ENGINE_PROPERTY = "terrabot.engine";
+    public static final String SNAPSHOTS_PROPERTY = "terrabot.snapshots";
+    public static final String LAYOUT_PROPERTY = "terrabot.layout";
+
+    private StorageType storage = StorageType.OBJECTS;
+    private EngineType engine = EngineType.DENSE;
+    /** Publishes a MapSnapshot at the end of every step, for readers on other threads. */
+    private boolean snapshots = false;
+    private GridLayout layout = GridLayout.COLUMNS;
+
+    /**
+     * Builds a configuration from the "terrabot.*" system properties.
+     *
+     * @return The configuration.
+     */
+    public static SimulationConfig fromSystemProperties() {
+        SimulationConfig config = new SimulationConfig();
+        String storageName = System.getProperty(STORAGE_PROPERTY);
+        if (storageName != null) {
+            config.setStorage(StorageType.valueOf(storageName.toUpperCase()));
+        }
+        String engineName = System.getProperty(ENGINE_PROPERTY);
+        if (engineName != null) {
+            config.setEngine(EngineType.valueOf(engineName.toUpperCase()));
+        }
+        String layoutName = System.getProperty(LAYOUT_PROPERTY);
+        if (layoutName != null) {
+            config.setLayout(GridLayout.valueOf(layoutName.toUpperCase()));
+        }
+        config.setSnapshots(Boolean.getBoolean(SNAPSHOTS_PROPERTY));
+        return config;
+    }
+}
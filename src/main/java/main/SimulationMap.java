@@ -1,36 +1,469 @@
 package main;
 
+import lombok.AccessLevel;
 import lombok.Getter;
+import main.engine.EnvironmentRules;
+import main.entities.Air.Air;
+import main.entities.Air.AirTemplate;
+import main.entities.Animal.Animal;
+import main.entities.Animal.AnimalTemplate;
+import main.entities.EntityFactories;
+import main.entities.EntityPool;
+import main.entities.Plant.Plant;
+import main.entities.Plant.PlantTemplate;
+import main.entities.Soil.Soil;
+import main.entities.Soil.SoilTemplate;
+import main.entities.Water.Water;
+import main.entities.Water.WaterTemplate;
+import main.storage.CellStorage;
+import main.storage.GridFlags;
+import main.storage.MappedCellStorage;
+import main.storage.ParkedField;
+import main.storage.StorageType;
 
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.function.Consumer;
+
+/**
+ * The grid of the territory, split into square chunks of CHUNK_SIZE x CHUNK_SIZE cells.
+ * A chunk and its cells are only allocated when one of its cells is first requested
+ * through getCell, which populateMap does for every section that holds an entity.
+ * The cells of a chunk that was never allocated are empty: the loops over the whole map
+ * check hasChunk and skip such chunks at once.
+ * Each chunk is a flat array, ordered by the GridLayout of the map. The loops whose
+ * order does not matter go through forEachCell, which follows that order.
+ * A map can be reset and reused by the next simulation of the same size (see reset):
+ * its chunks, cells and storage are kept, and the entities it held go to its pool.
+ * Besides the chunks, the map keeps about two bytes per cell of the whole territory on
+ * the heap: the flags (see GridFlags) and activeCells. The slots are ints, so a
+ * territory has fewer than 2^31 cells. The cells, the entities and the per-slot state of
+ * the engines (see SlotInts) only grow with the allocated chunks.
+ * With a MappedCellStorage, the cells and entities of a quiescent chunk are dropped when
+ * the storage unmaps its tile, and recreated from the records when the chunk is read
+ * again (see park), so that only the resident chunks take heap space.
+ */
 @Getter
 public final class SimulationMap {
+    public static final int CHUNK_BITS = 6;
+    public static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
     private final int width;
     private final int height;
-    private final Cell[][] cells;
+    /** The number of chunks along the y axis. */
+    private final int chunksY;
+    private final GridLayout layout;
+    /** The chunks, in x-then-y order, each with its cells in the order of the layout. */
+    private final Cell[][] chunks;
+    private int chunkCount;
+    /** The chunks whose cells were dropped by park, recreated by getCell. */
+    @Getter(AccessLevel.NONE)
+    private final BitSet parked = new BitSet();
+    /** The ids of the templates named by the records of the parked cells. */
+    @Getter(AccessLevel.NONE)
+    private final TemplateTable templates = new TemplateTable();
+    /** The value of changeCount when each chunk was last reached (see changedAt). */
+    @Getter(AccessLevel.NONE)
+    private final long[] changedAt;
+    /** Counts the calls that may change a chunk. */
+    private long changeCount;
+    private final CellStorage storage;
+    /** Which slots hold a plant, water or animal, and whether it is scanned. */
+    private final GridFlags flags;
+    private final BitSet activeCells;
+    /** The plants, water sources and animals removed from the map, ready to be reused. */
+    private final EntityPool pool = new EntityPool();
+    /** Counts the calls to markActive, so that a quiescent map can tell it was woken up. */
+    private long wakeUps;
 
     public SimulationMap(final int width, final int height) {
+        this(width, height, null);
+    }
+
+    public SimulationMap(final int width, final int height, final CellStorage storage) {
+        this(width, height, storage, GridLayout.COLUMNS);
+    }
+
+    public SimulationMap(final int width, final int height, final CellStorage storage,
+                         final GridLayout layout) {
         this.width = width;
         this.height = height;
-        this.cells = new Cell[width][height];
+        this.chunksY = (height + CHUNK_MASK) >> CHUNK_BITS;
+        this.layout = layout;
+        this.chunks = new Cell[((width + CHUNK_MASK) >> CHUNK_BITS) * chunksY][];
+        this.changedAt = new long[chunks.length];
+        this.storage = storage;
+        this.flags = new GridFlags(width * height);
+        // The cells of a chunk become active when the chunk is allocated
+        this.activeCells = new BitSet(width * height);
+    }
+
+    /**
+     * Checks if the map can be reset for a simulation with the given settings.
+     *
+     * @param otherWidth The width of the territory.
+     * @param otherHeight The height of the territory.
+     * @param storageType The storage backend of the simulation.
+     * @param otherLayout The layout of the chunks.
+     * @return true if the map has the same size, storage and layout.
+     */
+    public boolean fits(final int otherWidth, final int otherHeight,
+                        final StorageType storageType, final GridLayout otherLayout) {
+        return width == otherWidth && height == otherHeight && layout == otherLayout
+                && storageType.isTypeOf(storage);
+    }
+
+    /**
+     * Empties the map for the next simulation. The plants, water sources and animals go
+     * to the pool; the air and soil are dropped. The chunks stay allocated, the parked
+     * ones are brought back, and all their cells are active again.
+     */
+    public void reset() {
+        activeCells.clear();
+        forEachCell(cell -> {
+            Plant plant = cell.getPlant();
+            Water water = cell.getWater();
+            Animal animal = cell.getAnimal();
+            cell.setAir(null);
+            cell.setSoil(null);
+            cell.setPlant(null);
+            cell.setWater(null);
+            cell.setAnimal(null);
+            // Released once detached, with their state back in their own fields
+            pool.release(plant);
+            pool.release(water);
+            pool.release(animal);
+            activeCells.set(cell.getSlot());
+        });
+        templates.clear();
+        Arrays.fill(changedAt, ++changeCount);
+        wakeUps = 0;
+    }
+
+    private int chunkOf(final int x, final int y) {
+        return (x >> CHUNK_BITS) * chunksY + (y >> CHUNK_BITS);
+    }
+
+    /**
+     * Allocates a chunk, with all of its cells, in the order of the layout so that they
+     * also follow each other on the heap.
+     */
+    private Cell[] allocateChunk(final int chunk) {
+        Cell[] cells = new Cell[CHUNK_SIZE * CHUNK_SIZE];
+        int fromX = chunk / chunksY << CHUNK_BITS;
+        int fromY = chunk % chunksY << CHUNK_BITS;
+        for (int index = 0; index < cells.length; index++) {
+            int i = fromX + layout.xOf(index);
+            int j = fromY + layout.yOf(index);
+            if (i < width && j < height) {
+                cells[index] = new Cell(i, j, storage, slotOf(i, j), flags);
+                activeCells.set(slotOf(i, j));
+            }
+        }
+        chunks[chunk] = cells;
+        chunkCount++;
+        changedAt[chunk] = ++changeCount;
+        return cells;
+    }
+
+    /**
+     * Drops the cells and entities of a chunk from the heap, if the storage can give them
+     * back: their fields are already in its records, and the templates of the entities
+     * are written next to them. Only a quiescent chunk is parked, which the engines can
+     * skip like a chunk that was never allocated (see hasChunk), and only when no chunk
+     * next to it holds a scanned animal, which reads its neighbours with peekCell (an
+     * animal that moves or is scanned next to a parked chunk brings it back, see
+     * restoreAround).
+     * Called by a MappedCellStorage before it unmaps a tile, the tiles being the chunks.
+     *
+     * @param chunk The index of the chunk, in x-then-y order.
+     */
+    public void park(final int chunk) {
+        Cell[] cells = chunks[chunk];
+        if (cells == null || !(storage instanceof MappedCellStorage mapped)
+                || !canPark(chunk)) {
+            return;
+        }
+        for (Cell cell : cells) {
+            if (cell == null) {
+                continue;
+            }
+            int index = cell.getStorageIndex();
+            Air air = cell.getAir();
+            Soil soil = cell.getSoil();
+            Plant plant = cell.getPlant();
+            Water water = cell.getWater();
+            Animal animal = cell.getAnimal();
+            mapped.set(ParkedField.AIR_TEMPLATE, index,
+                    templates.idOf(air == null ? null : air.getTemplate()));
+            mapped.set(ParkedField.SOIL_TEMPLATE, index,
+                    templates.idOf(soil == null ? null : soil.getTemplate()));
+            mapped.set(ParkedField.PLANT_TEMPLATE, index,
+                    templates.idOf(plant == null ? null : plant.getTemplate()));
+            mapped.set(ParkedField.WATER_TEMPLATE, index,
+                    templates.idOf(water == null ? null : water.getTemplate()));
+            mapped.set(ParkedField.ANIMAL_TEMPLATE, index,
+                    templates.idOf(animal == null ? null : animal.getTemplate()));
+            activeCells.clear(cell.getSlot());
+        }
+        chunks[chunk] = null;
+        chunkCount--;
+        parked.set(chunk);
+    }
+
+    private boolean canPark(final int chunk) {
+        for (Cell cell : chunks[chunk]) {
+            if (cell != null && (EnvironmentRules.isActive(cell)
+                    || cell.getAir() != null && !cell.getAir().isRestorable())) {
+                return false;
+            }
+        }
+        int chunkX = chunk / chunksY;
+        int chunkY = chunk % chunksY;
+        // A scanned animal makes its own chunk active
+        return !hasScannedAnimal(chunkX - 1, chunkY) && !hasScannedAnimal(chunkX + 1, chunkY)
+                && !hasScannedAnimal(chunkX, chunkY - 1)
+                && !hasScannedAnimal(chunkX, chunkY + 1);
+    }
+
+    private boolean hasScannedAnimal(final int chunkX, final int chunkY) {
+        if (chunkX < 0 || chunkY < 0 || chunkX >= chunks.length / chunksY
+                || chunkY >= chunksY) {
+            return false;
+        }
+        // The chunks that were never allocated or are parked hold no scanned animal
+        Cell[] cells = chunks[chunkX * chunksY + chunkY];
+        if (cells != null) {
+            for (Cell cell : cells) {
+                if (cell != null && cell.getAnimal() != null && cell.getAnimal().isScanned()) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Recreates the cells and entities of a parked chunk from the records of the storage.
+     */
+    private Cell[] restore(final int chunk) {
+        MappedCellStorage mapped = (MappedCellStorage) storage;
+        parked.clear(chunk);
+        Cell[] cells = allocateChunk(chunk);
+        for (Cell cell : cells) {
+            if (cell == null) {
+                continue;
+            }
+            int index = cell.getStorageIndex();
+            Air air = EntityFactories.createAir(templates.get(
+                    mapped.get(ParkedField.AIR_TEMPLATE, index), AirTemplate.class));
+            Soil soil = EntityFactories.createSoil(templates.get(
+                    mapped.get(ParkedField.SOIL_TEMPLATE, index), SoilTemplate.class));
+            Plant plant = pool.createPlant(templates.get(
+                    mapped.get(ParkedField.PLANT_TEMPLATE, index), PlantTemplate.class));
+            WaterTemplate water = templates.get(
+                    mapped.get(ParkedField.WATER_TEMPLATE, index), WaterTemplate.class);
+            Animal animal = pool.createAnimal(templates.get(
+                    mapped.get(ParkedField.ANIMAL_TEMPLATE, index), AnimalTemplate.class));
+            // The entities take over the state left in the record
+            if (air != null) {
+                air.adopt(storage, index);
+                cell.setAir(air);
+            }
+            if (soil != null) {
+                soil.adopt(storage, index);
+                cell.setSoil(soil);
+            }
+            if (plant != null) {
+                plant.adopt(storage, index);
+                cell.setPlant(plant);
+            }
+            if (water != null) {
+                Water source = pool.createWater(water);
+                source.adopt(storage, index);
+                cell.setWater(source);
+            }
+            if (animal != null) {
+                animal.adopt(storage, index);
+                cell.setAnimal(animal);
+            }
+        }
+        return cells;
+    }
+
+    /**
+     * Brings back the parked chunks next to the chunk of a cell, which an animal that
+     * just entered it reads with peekCell on its next turns. Only called by one thread
+     * at a time, see getCell.
+     *
+     * @param x The x-coordinate of the cell.
+     * @param y The y-coordinate of the cell.
+     */
+    public void restoreAround(final int x, final int y) {
+        if (parked.isEmpty()) {
+            return;
+        }
+        int chunkX = x >> CHUNK_BITS;
+        int chunkY = y >> CHUNK_BITS;
+        restoreIfParked(chunkX - 1, chunkY);
+        restoreIfParked(chunkX + 1, chunkY);
+        restoreIfParked(chunkX, chunkY - 1);
+        restoreIfParked(chunkX, chunkY + 1);
+    }
 
-        for (int i = 0; i < width; i++) {
-            for (int j = 0; j < height; j++) {
-                cells[i][j] = new Cell(i, j);
+    private void restoreIfParked(final int chunkX, final int chunkY) {
+        if (chunkX >= 0 && chunkY >= 0 && chunkY < chunksY
+                && parked.get(chunkX * chunksY + chunkY)) {
+            restore(chunkX * chunksY + chunkY);
+        }
+    }
+
+    /**
+     * Checks if the chunk holding a cell is parked (see park).
+     *
+     * @param x The x-coordinate, inside the map.
+     * @param y The y-coordinate, inside the map.
+     * @return true if its cells are only in the records of the storage.
+     */
+    public boolean isParked(final int x, final int y) {
+        return parked.get(chunkOf(x, y));
+    }
+
+    /**
+     * Visits the cells of the allocated chunks, chunk by chunk, in the order in which the
+     * layout stores them, bringing back the parked ones. For the loops where the order of
+     * the cells does not matter.
+     *
+     * @param visitor Called with every cell.
+     */
+    public void forEachCell(final Consumer<Cell> visitor) {
+        for (int index = 0; index < chunks.length; index++) {
+            Cell[] chunk = chunks[index] == null && parked.get(index)
+                    ? restore(index) : chunks[index];
+            if (chunk == null) {
+                continue;
+            }
+            for (Cell cell : chunk) {
+                if (cell != null) {
+                    visitor.accept(cell);
+                }
             }
         }
     }
 
     /**
-     * Returns a cell at a specific coordinate.
+     * Checks if the chunk holding a cell was allocated and is not parked. The cells of
+     * the other chunks are empty or quiescent, so a step can skip the whole chunk; the
+     * loops that read every cell also visit the parked chunks (see isParked).
+     *
+     * @param x The x-coordinate, inside the map.
+     * @param y The y-coordinate, inside the map.
+     * @return true if the chunk exists.
+     */
+    public boolean hasChunk(final int x, final int y) {
+        return chunks[chunkOf(x, y)] != null;
+    }
+
+    /**
+     * Returns the first coordinate of the next chunk along an axis.
+     *
+     * @param coordinate A coordinate inside a chunk.
+     * @return The coordinate at which the following chunk starts.
+     */
+    public static int nextChunk(final int coordinate) {
+        return (coordinate | CHUNK_MASK) + 1;
+    }
+
+    /**
+     * Returns the storage slot of a cell. Slots follow the x-then-y order of the animal
+     * turns.
+     *
+     * @param x The x-coordinate.
+     * @param y The y-coordinate.
+     * @return The slot index.
+     */
+    public int slotOf(final int x, final int y) {
+        return x * height + y;
+    }
+
+    /**
+     * Marks a cell as active, meaning that the next simulation step may change it.
+     * Called by the commands and moves that wake up an idle cell.
+     *
+     * @param x The x-coordinate.
+     * @param y The y-coordinate.
+     */
+    public void markActive(final int x, final int y) {
+        activeCells.set(slotOf(x, y));
+        changedAt[chunkOf(x, y)] = ++changeCount;
+        wakeUps++;
+    }
+
+    /**
+     * Returns the value of getChangeCount when the chunk of a cell was last reached
+     * through getCell or markActive, or allocated: the commands, the timers and the animal
+     * turns reach the cells they change that way. The other rules of a step only change
+     * the cells that hold a scanned entity (see EnvironmentRules), so a chunk with no
+     * scanned entity keeps its content while this value stays the same.
+     *
+     * @param x The x-coordinate, inside the map.
+     * @param y The y-coordinate, inside the map.
+     * @return The change count of the chunk.
+     */
+    public long changedAt(final int x, final int y) {
+        return changedAt[chunkOf(x, y)];
+    }
+
+    /**
+     * Checks if a coordinate is inside the map.
+     *
+     * @param x The x-coordinate.
+     * @param y The y-coordinate.
+     * @return true if the map has a cell there.
+     */
+    public boolean contains(final int x, final int y) {
+        return x >= 0 && x < width && y >= 0 && y < height;
+    }
+
+    /**
+     * Returns a cell at a specific coordinate without allocating its chunk, for the
+     * readers that run on several threads: allocateChunk is not synchronized, and a
+     * cell of a chunk that was never allocated is empty anyway. A parked chunk is not
+     * brought back either: its cells are quiescent, and no scanned animal is next to it.
+     *
+     * @param x The x-coordinate.
+     * @param y The y-coordinate.
+     * @return The Cell object, or null if out of bounds or if its chunk was not allocated
+     *         or is parked.
+     */
+    public Cell peekCell(final int x, final int y) {
+        if (!contains(x, y)) {
+            return null;
+        }
+        Cell[] chunk = chunks[chunkOf(x, y)];
+        return chunk == null ? null : chunk[layout.index(x & CHUNK_MASK, y & CHUNK_MASK)];
+    }
+
+    /**
+     * Returns a cell at a specific coordinate, allocating its chunk or bringing it back
+     * if needed. The caller may change the cell, so its chunk counts as changed (see
+     * changedAt). Only called by one thread at a time, see peekCell.
      *
      * @param x The x-coordinate.
      * @param y The y-coordinate.
      * @return The Cell object at the specified coordinates, or null if out of bounds.
      */
     public Cell getCell(final int x, final int y) {
-        if (x < 0 || x >= width || y < 0 || y >= height) {
+        if (!contains(x, y)) {
             return null;
         }
-        return cells[x][y];
+        int index = chunkOf(x, y);
+        Cell[] chunk = chunks[index];
+        if (chunk == null) {
+            chunk = parked.get(index) ? restore(index) : allocateChunk(index);
+        }
+        changedAt[index] = ++changeCount;
+        return chunk[layout.index(x & CHUNK_MASK, y & CHUNK_MASK)];
     }
 }
@@ -0,0 +1,51 @@
+package main;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Numbers the templates of the entities of a map, so that the record of a parked cell
+ * can name them (see SimulationMap.park). The ids start at 1, 0 standing for no entity.
+ */
+final class TemplateTable {
+    private final Map<Object, Integer> ids = new IdentityHashMap<>();
+    private final List<Object> templates = new ArrayList<>();
+
+    /**
+     * Returns the id of a template, numbering it on its first use.
+     *
+     * @param template The template, or null.
+     * @return The id, or 0 for null.
+     */
+    int idOf(final Object template) {
+        if (template == null) {
+            return 0;
+        }
+        return ids.computeIfAbsent(template, key -> {
+            templates.add(key);
+            return templates.size();
+        });
+    }
+
+    /**
+     * Returns the template of an id.
+     *
+     * @param id The id returned by idOf.
+     * @param type The class of the template.
+     * @param <T> The type of the template.
+     * @return The template, or null for 0.
+     */
+    <T> T get(final int id, final Class<T> type) {
+        return id == 0 ? null : type.cast(templates.get(id - 1));
+    }
+
+    /**
+     * Forgets every template, once no record names them.
+     */
+    void clear() {
+        ids.clear();
+        templates.clear();
+    }
+}
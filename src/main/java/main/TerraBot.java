@@ -7,12 +7,18 @@ import java.util.Map;
 import java.util.LinkedHashMap;
 import lombok.Getter;
 
+/**
+ * The robot: its position, energy, inventory and knowledge base.
+ * The inventory only keeps the names of the scanned entities, which is all the commands
+ * look up, so a plant or animal that is eaten or dies can be reclaimed even if it was
+ * scanned.
+ */
 @Getter
 public final class TerraBot {
     private int x;
     private int y;
     private int energy;
-    private final List<Entity> inventory;
+    private final List<String> inventory;
     private final Map<String, List<String>> dataBase;
 
     public TerraBot(final int energy) {
@@ -55,10 +61,10 @@ public final class TerraBot {
     /**
      * Adds a scanned entity to the robot's physical inventory.
      *
-     * @param entity The entity object to store.
+     * @param entity The entity, whose name is stored.
      */
     public void addToInventory(final Entity entity) {
-        inventory.add(entity);
+        inventory.add(entity.getName());
     }
 
     /**
@@ -68,16 +74,7 @@ public final class TerraBot {
      * @param name The name of the entity to remove.
      */
     public void removeFromInventory(final String name) {
-        Entity removed = null;
-        for (Entity entity : inventory) {
-            if (entity.getName().equals(name)) {
-                removed = entity;
-                break;
-            }
-        }
-        if (removed != null) {
-            inventory.remove(removed);
-        }
+        inventory.remove(name);
     }
 
     /**
@@ -87,12 +84,7 @@ public final class TerraBot {
      * @return true if the entity is in the inventory, false otherwise.
      */
     public boolean hasEntity(final String name) {
-        for (Entity entity : inventory) {
-            if (entity.getName().equals(name)) {
-                return true;
-            }
-        }
-        return false;
+        return inventory.contains(name);
     }
 
     /**
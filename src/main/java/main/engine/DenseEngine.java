@@ -0,0 +1,76 @@
+package main.engine;
+
+import main.Cell;
+import main.SimulationMap;
+import main.entities.Animal.Animal;
+import main.entities.Water.Water;
+
+import java.util.BitSet;
+
+/**
+ * The original engine: visits every cell of the map on every step. The chunks of the
+ * map that were never allocated, or are parked, are skipped.
+ * The cell-local rules run first, chunk by chunk in the order of the layout, so that a
+ * step reads the map tile by tile. The cells whose animal takes a turn or whose dead
+ * entities are removed are noted on the way, and visited afterwards in the x-then-y order
+ * of the animal turns. The animals never look at what the local rules change, so the
+ * result is the same as visiting each cell once in x-then-y order (see PhasedEngine).
+ */
+public final class DenseEngine implements TickEngine {
+    private final SimulationMap map;
+    /** The slots of the cells visited by the animal pass of the current step. */
+    private final BitSet turns = new BitSet();
+    /** Whether the plant of each slot was dead at the start of the step. */
+    private final BitSet deadPlants = new BitSet();
+
+    public DenseEngine(final SimulationMap map) {
+        this.map = map;
+    }
+
+    @Override
+    public boolean tick(final int step) {
+        boolean active = false;
+        for (Cell[] chunk : map.getChunks()) {
+            if (chunk == null) {
+                continue;
+            }
+            for (Cell cell : chunk) {
+                if (cell == null) {
+                    continue;
+                }
+                boolean deadPlant = EnvironmentRules.updateLocal(cell, step);
+                if (deadPlant || hasTurn(cell, step)) {
+                    turns.set(cell.getSlot());
+                    deadPlants.set(cell.getSlot(), deadPlant);
+                } else {
+                    active |= EnvironmentRules.isActive(cell);
+                }
+            }
+        }
+        int height = map.getHeight();
+        for (int slot = turns.nextSetBit(0); slot >= 0; slot = turns.nextSetBit(slot + 1)) {
+            int x = slot / height;
+            int y = slot % height;
+            // An animal turn can allocate a chunk, but never parks one
+            Cell cell = map.getCell(x, y);
+            Animal animal = EnvironmentRules.removeDead(cell, deadPlants.get(slot),
+                    map.getPool());
+            EnvironmentRules.updateAnimal(map, x, y, animal, step);
+            active |= EnvironmentRules.isActive(cell);
+        }
+        turns.clear();
+        deadPlants.clear();
+        return active;
+    }
+
+    /**
+     * Checks if the animal pass has anything to do in a cell besides a dead plant: an
+     * empty water source or a dead animal to remove, or an animal to play.
+     */
+    private static boolean hasTurn(final Cell cell, final int step) {
+        Water water = cell.getWater();
+        Animal animal = cell.getAnimal();
+        return water != null && water.getMass() <= 0
+                || animal != null && (animal.isDead() || EnvironmentRules.isPending(animal, step));
+    }
+}
@@ -0,0 +1,32 @@
+package main.engine;
+
+import main.SimulationMap;
+
+/**
+ * The available strategies for advancing the simulation by one step.
+ */
+public enum EngineType {
+    /** Visits every cell on every step. */
+    DENSE,
+    /** Visits only the cells that can change. */
+    SPARSE,
+    /** Updates the map by tiles on several cores, then commits the animal moves in order. */
+    TILED,
+    /** Runs each rule as a pass over the map, the cell-local passes in parallel. */
+    PHASED;
+
+    /**
+     * Creates an engine of this type for the given map.
+     *
+     * @param map The simulation map.
+     * @return The engine.
+     */
+    public TickEngine create(final SimulationMap map) {
+        return switch (this) {
+            case SPARSE -> new SparseEngine(map);
+            case TILED -> new TiledEngine(map);
+            case PHASED -> new PhasedEngine(map);
+            default -> new DenseEngine(map);
+        };
+    }
+}
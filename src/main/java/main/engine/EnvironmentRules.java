@@ -0,0 +1,239 @@
+package main.engine;
+
+import main.Cell;
+import main.MoveAnimal;
+import main.SimulationMap;
+import main.entities.Air.Air;
+import main.entities.EntityPool;
+import main.entities.Animal.Animal;
+import main.entities.Plant.Plant;
+import main.entities.Soil.Soil;
+import main.entities.Water.Water;
+import main.storage.GridFlags;
+
+/**
+ * The rules applied to a single cell during one simulation step.
+ * Shared by all the tick engines so that they only differ in which cells they visit.
+ */
+public final class EnvironmentRules {
+    public static final double HUMIDITY_UPDATE_VAL = 0.1;
+    public static final double WATER_RETENTION_UPDATE_VAL = 0.1;
+    public static final double PLANT_GROWTH_VAL = 0.2;
+
+    private EnvironmentRules() {
+
+    }
+
+    /**
+     * Updates one cell for the given step.
+     * Processes interactions between the entities of the cell and moves its animal.
+     *
+     * @param map The simulation map.
+     * @param x The x-coordinate of the cell.
+     * @param y The y-coordinate of the cell.
+     * @param step The current simulation step.
+     */
+    public static void updateCell(final SimulationMap map,
+                                  final int x,
+                                  final int y,
+                                  final int step) {
+        Cell cell = map.getCell(x, y);
+        boolean deadPlant = updateLocal(cell, step);
+        Animal animal = removeDead(cell, deadPlant, map.getPool());
+        updateAnimal(map, x, y, animal, step);
+    }
+
+    /**
+     * Applies the rules that only involve the entities of one cell: the influence of
+     * water, plant growth and oxygen production. Weather events end through the timers
+     * of the Simulation instead of a countdown on every step.
+     * Dead entities are left in place, their removal is done by removeDead. None of
+     * these rules reads the state seen by the animals of other cells, so this part can
+     * run for all cells before (or in parallel with) the animal turns.
+     *
+     * @param cell The cell to update.
+     * @param step The current simulation step.
+     * @return true if the plant of the cell was dead before the update.
+     */
+    public static boolean updateLocal(final Cell cell, final int step) {
+        Plant plant = cell.getPlant();
+        boolean deadPlant = plant != null && plant.isDead();
+        updateWaterInfluence(cell, step);
+        growPlant(cell);
+        produceOxygen(cell);
+        return deadPlant;
+    }
+
+    /**
+     * The influence of water on the environment: on even steps a scanned water source
+     * raises the humidity of the air and the water retention of the soil.
+     *
+     * @param cell The cell to update.
+     * @param step The current simulation step.
+     */
+    public static void updateWaterInfluence(final Cell cell, final int step) {
+        Water water = cell.getWater();
+        if (water == null || !water.isScanned() || step % 2 != 0) {
+            return;
+        }
+        Air air = cell.getAir();
+        if (air != null) {
+            air.updateHumidity(HUMIDITY_UPDATE_VAL);
+        }
+        Soil soil = cell.getSoil();
+        if (soil != null) {
+            soil.updateWaterRetention(WATER_RETENTION_UPDATE_VAL);
+        }
+    }
+
+    /**
+     * The plant growth: a scanned plant grows once for the soil and once for the water
+     * of its cell.
+     *
+     * @param cell The cell to update.
+     */
+    public static void growPlant(final Cell cell) {
+        Plant plant = cell.getPlant();
+        if (plant == null || !plant.isScanned()) {
+            return;
+        }
+        if (cell.getSoil() != null) {
+            plant.grow(PLANT_GROWTH_VAL);
+        }
+        if (cell.getWater() != null) {
+            plant.grow(PLANT_GROWTH_VAL);
+        }
+    }
+
+    /**
+     * Oxygen production of a scanned plant.
+     *
+     * @param cell The cell to update.
+     */
+    public static void produceOxygen(final Cell cell) {
+        Plant plant = cell.getPlant();
+        Air air = cell.getAir();
+        if (plant != null && air != null && plant.isScanned()) {
+            air.updateOxygen(plant.getOxygenLevel());
+        }
+    }
+
+    /**
+     * Deletes the dead/empty entities of a cell.
+     * The animal is returned even when it is removed, since a dead animal still gets its
+     * turn in the step that removes it.
+     *
+     * @param cell The cell to clean.
+     * @param deadPlant Whether the plant was dead at the start of the step (see updateLocal).
+     * @param pool Receives the removed entities.
+     * @return The animal of the cell before the removal, or null.
+     */
+    public static Animal removeDead(final Cell cell, final boolean deadPlant,
+                                    final EntityPool pool) {
+        if (deadPlant) {
+            Plant plant = cell.getPlant();
+            cell.setPlant(null);
+            pool.release(plant);
+        }
+        Water water = cell.getWater();
+        if (water != null && water.getMass() <= 0) {
+            cell.setWater(null);
+            pool.release(water);
+        }
+        Animal animal = cell.getAnimal();
+        if (animal != null && animal.isDead()) {
+            cell.setAnimal(null);
+            pool.release(animal);
+        }
+        return animal;
+    }
+
+    /**
+     * Checks if an animal still has to take its turn in the current step.
+     * An animal that moved forward is met again in the same step (see Animal.markRound).
+     *
+     * @param animal The animal, or null.
+     * @param step The current simulation step.
+     * @return true if the animal is scanned and was not processed yet.
+     */
+    public static boolean isPending(final Animal animal, final int step) {
+        return animal != null && animal.isScanned() && !animal.hasPlayedRound(step);
+    }
+
+    /**
+     * Runs the turn of an animal and moves it, classifying the neighbours on the spot.
+     *
+     * @param map The simulation map.
+     * @param x The x-coordinate of the cell.
+     * @param y The y-coordinate of the cell.
+     * @param animal The animal returned by removeDead, or null.
+     * @param step The current simulation step.
+     */
+    public static void updateAnimal(final SimulationMap map,
+                                    final int x,
+                                    final int y,
+                                    final Animal animal,
+                                    final int step) {
+        if (!isPending(animal, step)) {
+            return;
+        }
+        Cell cell = map.getCell(x, y);
+        Air air = cell.getAir();
+        if (feedAnimal(cell, animal, air != null && air.checkToxicity(), step)) {
+            MoveAnimal.execute(map, x, y, animal);
+        }
+    }
+
+    /**
+     * Runs the part of an animal's turn that stays inside its cell: aging, sickness,
+     * feeding and fertilizing the soil.
+     *
+     * @param cell The cell of the animal.
+     * @param animal A pending animal (see isPending).
+     * @param toxic Whether the air of the cell is toxic.
+     * @param step The current simulation step.
+     * @return true if the animal has to move afterwards.
+     */
+    public static boolean feedAnimal(final Cell cell,
+                                     final Animal animal,
+                                     final boolean toxic,
+                                     final int step) {
+        animal.increaseAge();
+        animal.markRound(step);
+        if (toxic) {
+            animal.setSick();
+        }
+        animal.feedAlgorithm(cell);
+        Soil soil = cell.getSoil();
+        double fert = animal.getFertilizer();
+        if (fert > 0 && soil != null) {
+            soil.updateOrganicMatter(fert);
+            animal.resetFertilizer();
+        }
+        return animal.shouldMove() && !animal.isDead();
+    }
+
+    /**
+     * Checks if a cell can change during the next step.
+     * A cell is idle when it holds no scanned plant, water or animal and no dead entity
+     * waiting to be removed; visiting it changes nothing (the end of a weather event is
+     * a timer, see Simulation). The flags are read from the state word of the cell, so
+     * only the unscanned entities are loaded, to check if they are dead.
+     *
+     * @param cell The cell to check, on a map.
+     * @return true if the cell has to be visited by the next step.
+     */
+    public static boolean isActive(final Cell cell) {
+        int state = cell.getState();
+        if (GridFlags.hasScanned(state)) {
+            return true;
+        }
+        if (GridFlags.has(state, GridFlags.Flag.PLANT) && cell.getPlant().isDead()) {
+            return true;
+        }
+        if (GridFlags.has(state, GridFlags.Flag.WATER) && cell.getWater().isEmpty()) {
+            return true;
+        }
+        return GridFlags.has(state, GridFlags.Flag.ANIMAL) && cell.getAnimal().isDead();
+    }
+}
@@ -0,0 +1,218 @@
+package main.engine;
+
+import main.Cell;
+import main.SimulationMap;
+import main.entities.Air.Air;
+import main.entities.Animal.Animal;
+import main.entities.Plant.Plant;
+import main.entities.Soil.Soil;
+import main.entities.Water.Water;
+import main.storage.GridFlags;
+import main.storage.SlotInts;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Advances a map by many steps at once, with the same result as ticking it step by step.
+ * Animals are the only entities that reach outside their cell, and an animal moves at most
+ * once every MOVEMENT_INTERVAL steps. The steps are therefore run in chunks: the cells close
+ * enough to a scanned animal to be read or entered during the chunk form a zone that is
+ * stepped normally, while the other cells stay behind. A cell that stays behind is brought
+ * up to date only when a zone reaches it or at the end, by stepping it alone until nothing
+ * but the water influence changes it, and then adding that influence in closed form
+ * (Air.updateHumidity and Soil.updateWaterRetention with a number of times).
+ */
+public final class FastForward {
+    /** The number of steps of a chunk; the zone grows with it. */
+    public static final int CHUNK_STEPS = 32;
+
+    private final SimulationMap map;
+    private final TimerWheel timers;
+    /** The steps applied to each slot since the start of the current advance. */
+    private final SlotInts clock;
+    /** The cells within reach of a scanned animal during the current chunk. */
+    private final BitSet reach = new BitSet();
+    /** The cells of reach whose chunk is allocated, the only ones stepped. */
+    private final BitSet zone = new BitSet();
+    /** The chunk count of the map when zone was last filtered. */
+    private int zoneChunks;
+    private int[] animals = new int[0];
+    private int animalCount;
+    /** The last step applied to the map when the current advance started. */
+    private int start;
+
+    public FastForward(final SimulationMap map, final TimerWheel timers) {
+        this.map = map;
+        this.timers = timers;
+        this.clock = new SlotInts(map.getWidth() * map.getHeight());
+    }
+
+    /**
+     * Applies the steps from + 1 to from + steps.
+     *
+     * @param from The last step applied to the map.
+     * @param steps The number of steps to apply.
+     * @return false if the map is quiescent afterwards (see TickEngine.tick).
+     */
+    public boolean advance(final int from, final int steps) {
+        int end = from + steps;
+        start = from;
+        clock.clear();
+        findAnimals();
+        int done = from;
+        while (done < end && animalCount > 0) {
+            int chunk = Math.min(CHUNK_STEPS, end - done);
+            buildZone((chunk + 1) / 2 + 1);
+            for (int slot = zone.nextSetBit(0); slot >= 0; slot = zone.nextSetBit(slot + 1)) {
+                catchUp(slot, done);
+            }
+            for (int step = done + 1; step <= done + chunk; step++) {
+                timers.advanceTo(step);
+                tickZone(step);
+            }
+            done += chunk;
+            filterZone();
+            animalCount = 0;
+            for (int slot = zone.nextSetBit(0); slot >= 0; slot = zone.nextSetBit(slot + 1)) {
+                clock.set(slot, done - start);
+                addIfScanned(slot);
+            }
+        }
+        // The timers only touch the weather, which the cells left behind do not read
+        timers.advanceTo(end);
+        // The cells with no plant, water or animal, and the parked ones, which are
+        // quiescent, have nothing to catch up on
+        GridFlags flags = map.getFlags();
+        int height = map.getHeight();
+        boolean active = false;
+        for (int slot = flags.nextOccupied(0); slot >= 0; slot = flags.nextOccupied(slot + 1)) {
+            if (!map.isParked(slot / height, slot % height)) {
+                active |= catchUp(slot, end);
+            }
+        }
+        return active;
+    }
+
+    private void findAnimals() {
+        animalCount = 0;
+        GridFlags flags = map.getFlags();
+        for (int slot = flags.next(GridFlags.Flag.SCANNED_ANIMAL, 0); slot >= 0;
+                slot = flags.next(GridFlags.Flag.SCANNED_ANIMAL, slot + 1)) {
+            addIfScanned(slot);
+        }
+    }
+
+    private void addIfScanned(final int slot) {
+        int height = map.getHeight();
+        Cell cell = map.peekCell(slot / height, slot % height);
+        Animal animal = cell == null ? null : cell.getAnimal();
+        if (animal == null || !animal.isScanned()) {
+            return;
+        }
+        if (animalCount == animals.length) {
+            animals = Arrays.copyOf(animals, Math.max(1, animalCount * 2));
+        }
+        animals[animalCount++] = slot;
+    }
+
+    /**
+     * Marks every cell within the given Manhattan distance of a scanned animal.
+     */
+    private void buildZone(final int radius) {
+        int height = map.getHeight();
+        reach.clear();
+        for (int i = 0; i < animalCount; i++) {
+            int x = animals[i] / height;
+            int y = animals[i] % height;
+            int fromX = Math.max(0, x - radius);
+            int toX = Math.min(map.getWidth() - 1, x + radius);
+            for (int cellX = fromX; cellX <= toX; cellX++) {
+                int span = radius - Math.abs(cellX - x);
+                int fromY = Math.max(0, y - span);
+                int toY = Math.min(height - 1, y + span);
+                reach.set(map.slotOf(cellX, fromY), map.slotOf(cellX, toY) + 1);
+            }
+        }
+        filterZone();
+    }
+
+    /**
+     * Keeps the cells of reach whose chunk is allocated. The cells of the other chunks are
+     * empty, and stepping them would only allocate their chunk; the filter is run again
+     * when an animal moves into a new chunk.
+     */
+    private void filterZone() {
+        int height = map.getHeight();
+        zone.clear();
+        for (int slot = reach.nextSetBit(0); slot >= 0; slot = reach.nextSetBit(slot)) {
+            int x = slot / height;
+            int y = slot % height;
+            int to = Math.min(reach.nextClearBit(slot),
+                    map.slotOf(x, Math.min(SimulationMap.nextChunk(y), height)));
+            if (map.hasChunk(x, y)) {
+                zone.set(slot, to);
+            }
+            slot = to;
+        }
+        zoneChunks = map.getChunkCount();
+    }
+
+    private void tickZone(final int step) {
+        int height = map.getHeight();
+        if (map.getChunkCount() != zoneChunks) {
+            filterZone();
+        }
+        for (int slot = zone.nextSetBit(0); slot >= 0; slot = zone.nextSetBit(slot + 1)) {
+            EnvironmentRules.updateCell(map, slot / height, slot % height, step);
+        }
+    }
+
+    /**
+     * Brings a cell that no animal can reach from its clock up to the given step.
+     *
+     * @return true if the cell is still active (see EnvironmentRules.isActive).
+     */
+    private boolean catchUp(final int slot, final int to) {
+        int height = map.getHeight();
+        Cell cell = map.getCell(slot / height, slot % height);
+        int step = start + clock.get(slot);
+        while (step < to && !isSteady(cell)) {
+            step++;
+            EnvironmentRules.removeDead(cell, EnvironmentRules.updateLocal(cell, step),
+                    map.getPool());
+        }
+        Water water = cell.getWater();
+        if (step < to && water != null && water.isScanned()) {
+            // The number of even steps in step + 1 .. to
+            long evenSteps = to / 2 - step / 2;
+            Air air = cell.getAir();
+            if (air != null) {
+                air.updateHumidity(EnvironmentRules.HUMIDITY_UPDATE_VAL, evenSteps);
+            }
+            Soil soil = cell.getSoil();
+            if (soil != null) {
+                soil.updateWaterRetention(EnvironmentRules.WATER_RETENTION_UPDATE_VAL, evenSteps);
+            }
+        }
+        clock.set(slot, to - start);
+        return EnvironmentRules.isActive(cell);
+    }
+
+    /**
+     * Checks if the only rule that can still change a cell, without animals, is the
+     * influence of its water.
+     */
+    private static boolean isSteady(final Cell cell) {
+        Plant plant = cell.getPlant();
+        if (plant != null && (plant.isScanned() || plant.isDead())) {
+            return false;
+        }
+        Water water = cell.getWater();
+        if (water != null && water.isEmpty()) {
+            return false;
+        }
+        Animal animal = cell.getAnimal();
+        return animal == null || !animal.isDead() && !animal.isScanned();
+    }
+}
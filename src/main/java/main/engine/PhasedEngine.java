@@ -0,0 +1,86 @@
+package main.engine;
+
+import main.Cell;
+import main.SimulationMap;
+import main.entities.Animal.Animal;
+import main.entities.Plant.Plant;
+
+import java.util.stream.IntStream;
+
+/**
+ * Engine that runs a step as a sequence of phases, each one a pass over the whole map.
+ * The cell-local phases (water influence, plant growth, oxygen) only touch the
+ * cell they visit, so their passes run in parallel, one column per task. The animal phase
+ * (removal of the dead entities, feeding and movement) reaches into the neighbouring
+ * cells and stays sequential, in the x-then-y order of the dense engine.
+ * The animals never look at what the local phases change, so the result is identical.
+ * The parallel passes skip the chunks that were never allocated, as the dense engine
+ * does, and never allocate one themselves (see SimulationMap.peekCell).
+ */
+public final class PhasedEngine implements TickEngine {
+    private final SimulationMap map;
+    /**
+     * Whether the plant of each cell was dead at the start of the step, by column. A
+     * column is only allocated once it holds a dead plant, by the task of that column.
+     */
+    private final boolean[][] deadPlants;
+
+    public PhasedEngine(final SimulationMap map) {
+        this.map = map;
+        this.deadPlants = new boolean[map.getWidth()][];
+    }
+
+    @Override
+    public boolean tick(final int step) {
+        forEachCell((x, y, cell) -> {
+            Plant plant = cell.getPlant();
+            boolean dead = plant != null && plant.isDead();
+            if (dead && deadPlants[x] == null) {
+                deadPlants[x] = new boolean[map.getHeight()];
+            }
+            if (deadPlants[x] != null) {
+                deadPlants[x][y] = dead;
+            }
+        });
+        forEachCell((x, y, cell) -> EnvironmentRules.updateWaterInfluence(cell, step));
+        forEachCell((x, y, cell) -> EnvironmentRules.growPlant(cell));
+        forEachCell((x, y, cell) -> EnvironmentRules.produceOxygen(cell));
+        boolean active = false;
+        for (int x = 0; x < map.getWidth(); x++) {
+            for (int y = 0; y < map.getHeight(); y++) {
+                if (!map.hasChunk(x, y)) {
+                    // An animal turn can allocate it, and it is then visited from then on
+                    y = SimulationMap.nextChunk(y) - 1;
+                    continue;
+                }
+                Cell cell = map.getCell(x, y);
+                Animal animal = EnvironmentRules.removeDead(
+                        cell, deadPlants[x] != null && deadPlants[x][y], map.getPool());
+                EnvironmentRules.updateAnimal(map, x, y, animal, step);
+                active |= EnvironmentRules.isActive(cell);
+            }
+        }
+        return active;
+    }
+
+    private void forEachCell(final CellPhase phase) {
+        IntStream.range(0, map.getWidth()).parallel().forEach(x -> {
+            for (int y = 0; y < map.getHeight(); y++) {
+                Cell cell = map.peekCell(x, y);
+                if (cell == null) {
+                    y = SimulationMap.nextChunk(y) - 1;
+                    continue;
+                }
+                phase.apply(x, y, cell);
+            }
+        });
+    }
+
+    /**
+     * A pass of the step that only touches the visited cell.
+     */
+    @FunctionalInterface
+    private interface CellPhase {
+        void apply(int x, int y, Cell cell);
+    }
+}
@@ -0,0 +1,35 @@
+package main.engine;
+
+import main.SimulationMap;
+
+import java.util.BitSet;
+
+/**
+ * Engine that only visits the active cells of the map (see EnvironmentRules.isActive).
+ * The cells are visited in increasing slot order, which is the x-then-y order of the
+ * dense engine, so both produce the same result.
+ * Commands and animal moves mark the cells they affect through SimulationMap.markActive;
+ * a cell leaves the active set as soon as a visit finds it idle.
+ */
+public final class SparseEngine implements TickEngine {
+    private final SimulationMap map;
+
+    public SparseEngine(final SimulationMap map) {
+        this.map = map;
+    }
+
+    @Override
+    public boolean tick(final int step) {
+        BitSet active = map.getActiveCells();
+        int height = map.getHeight();
+        for (int slot = active.nextSetBit(0); slot >= 0; slot = active.nextSetBit(slot + 1)) {
+            int x = slot / height;
+            int y = slot % height;
+            EnvironmentRules.updateCell(map, x, y, step);
+            if (!EnvironmentRules.isActive(map.getCell(x, y))) {
+                active.clear(slot);
+            }
+        }
+        return !active.isEmpty();
+    }
+}
@@ -0,0 +1,17 @@
+package main.engine;
+
+/**
+ * Strategy that advances the simulation map by one step.
+ */
+public interface TickEngine {
+
+    /**
+     * Applies one simulation step to the map.
+     *
+     * @param step The number of the step being applied (starting from 1).
+     * @return false if the map is quiescent: no cell is active (see
+     *         EnvironmentRules.isActive), so later steps change nothing until a command
+     *         wakes a cell up.
+     */
+    boolean tick(int step);
+}
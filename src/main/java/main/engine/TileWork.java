@@ -0,0 +1,88 @@
+package main.engine;
+
+import main.MoveAnimal;
+
+import java.util.Arrays;
+
+/**
+ * The cells of one tile that still need a sequential turn after the parallel phase of
+ * the TiledEngine, in x-then-y order, together with the movement intent of their animal.
+ * The buffers are reused from one step to the next and only grow.
+ */
+final class TileWork {
+    private static final int INITIAL_CAPACITY = 16;
+
+    private int size;
+    private int[] slots = new int[INITIAL_CAPACITY];
+    private boolean[] deadPlants = new boolean[INITIAL_CAPACITY];
+    private boolean[] intents = new boolean[INITIAL_CAPACITY];
+    private boolean[] toxic = new boolean[INITIAL_CAPACITY];
+    private int[] categories = new int[INITIAL_CAPACITY * MoveAnimal.NUM_DIRECTIONS];
+    private double[] qualities = new double[INITIAL_CAPACITY * MoveAnimal.NUM_DIRECTIONS];
+
+    void clear() {
+        size = 0;
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Appends a cell without intent.
+     *
+     * @return The index of the new entry.
+     */
+    int add(final int slot, final boolean deadPlant) {
+        if (size == slots.length) {
+            int capacity = size * 2;
+            slots = Arrays.copyOf(slots, capacity);
+            deadPlants = Arrays.copyOf(deadPlants, capacity);
+            intents = Arrays.copyOf(intents, capacity);
+            toxic = Arrays.copyOf(toxic, capacity);
+            categories = Arrays.copyOf(categories, capacity * MoveAnimal.NUM_DIRECTIONS);
+            qualities = Arrays.copyOf(qualities, capacity * MoveAnimal.NUM_DIRECTIONS);
+        }
+        slots[size] = slot;
+        deadPlants[size] = deadPlant;
+        intents[size] = false;
+        return size++;
+    }
+
+    /**
+     * Records the intent of an entry; the neighbours are then written by
+     * MoveAnimal.classify at directionOffset(index).
+     */
+    void setIntent(final int index, final boolean toxicAir) {
+        intents[index] = true;
+        toxic[index] = toxicAir;
+    }
+
+    int slot(final int index) {
+        return slots[index];
+    }
+
+    boolean isDeadPlant(final int index) {
+        return deadPlants[index];
+    }
+
+    boolean hasIntent(final int index) {
+        return intents[index];
+    }
+
+    boolean isToxic(final int index) {
+        return toxic[index];
+    }
+
+    int directionOffset(final int index) {
+        return index * MoveAnimal.NUM_DIRECTIONS;
+    }
+
+    int[] categories() {
+        return categories;
+    }
+
+    double[] qualities() {
+        return qualities;
+    }
+}
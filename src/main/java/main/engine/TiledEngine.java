@@ -0,0 +1,193 @@
+package main.engine;
+
+import main.Cell;
+import main.MoveAnimal;
+import main.SimulationMap;
+import main.entities.Air.Air;
+import main.entities.Animal.Animal;
+import main.entities.Water.Water;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntConsumer;
+
+/**
+ * Engine that splits the map into square tiles and spreads each step over several cores.
+ * A step runs in two phases:
+ * 1. In parallel, every tile applies the cell-local rules (EnvironmentRules.updateLocal)
+ *    and records the cells that still need a turn: dead entities to remove and pending
+ *    animals. For a pending animal it also records its movement intent: whether the air
+ *    is toxic and what each neighbour offers (MoveAnimal.classify).
+ * 2. On one thread, the recorded cells are committed in x-then-y order: the dead entities
+ *    are removed and the animals feed and move, checking only which neighbours are
+ *    occupied at that moment.
+ * The cell-local rules never touch what the animals look at (presence of the entities,
+ * scan flags, water quality, air toxicity after the local update) and entities are only
+ * removed during the commit. The neighbours committed before an animal are classified
+ * again when the commit removed something from them, so the result is the same as the
+ * dense engine's.
+ */
+public final class TiledEngine implements TickEngine {
+    public static final int DEFAULT_TILE_SIZE = 64;
+
+    private final SimulationMap map;
+    private final ForkJoinPool pool;
+    private final int tileSize;
+    private final int tilesX;
+    private final int tilesY;
+    private final TileWork[] work;
+    private final int[] cursors;
+    private final boolean[] activeTiles;
+    /** The slots where the commit of the current step removed a plant or a water source. */
+    private final BitSet removals = new BitSet();
+
+    public TiledEngine(final SimulationMap map) {
+        this(map, DEFAULT_TILE_SIZE, ForkJoinPool.commonPool());
+    }
+
+    public TiledEngine(final SimulationMap map, final int tileSize, final ForkJoinPool pool) {
+        this.map = map;
+        this.pool = pool;
+        this.tileSize = tileSize;
+        this.tilesX = (map.getWidth() + tileSize - 1) / tileSize;
+        this.tilesY = (map.getHeight() + tileSize - 1) / tileSize;
+        this.work = new TileWork[tilesX * tilesY];
+        for (int i = 0; i < work.length; i++) {
+            work[i] = new TileWork();
+        }
+        this.cursors = new int[work.length];
+        this.activeTiles = new boolean[work.length];
+    }
+
+    @Override
+    public boolean tick(final int step) {
+        if (work.length == 0) {
+            return false;
+        }
+        pool.invoke(new TileTask(0, work.length, tile -> updateTile(tile, step)));
+        boolean active = commit(step);
+        for (boolean tileActive : activeTiles) {
+            active |= tileActive;
+        }
+        return active;
+    }
+
+    private void updateTile(final int tile, final int step) {
+        TileWork tileWork = work[tile];
+        tileWork.clear();
+        int fromX = tile / tilesY * tileSize;
+        int fromY = tile % tilesY * tileSize;
+        int toX = Math.min(fromX + tileSize, map.getWidth());
+        int toY = Math.min(fromY + tileSize, map.getHeight());
+        boolean active = false;
+        for (int x = fromX; x < toX; x++) {
+            for (int y = fromY; y < toY; y++) {
+                Cell cell = map.peekCell(x, y);
+                if (cell == null) {
+                    // Never allocated, so empty: the commit may allocate it by moving in
+                    y = Math.min(SimulationMap.nextChunk(y), toY) - 1;
+                    continue;
+                }
+                boolean deadPlant = EnvironmentRules.updateLocal(cell, step);
+                Water water = cell.getWater();
+                Animal animal = cell.getAnimal();
+                boolean pending = EnvironmentRules.isPending(animal, step);
+                if (!deadPlant && !pending && (water == null || !water.isEmpty())
+                        && (animal == null || !animal.isDead())) {
+                    // Only the commit of another cell can still change it, by moving in
+                    active |= EnvironmentRules.isActive(cell);
+                    continue;
+                }
+                int index = tileWork.add(map.slotOf(x, y), deadPlant);
+                if (pending) {
+                    Air air = cell.getAir();
+                    tileWork.setIntent(index, air != null && air.checkToxicity());
+                    MoveAnimal.classify(map, x, y, tileWork.categories(), tileWork.qualities(),
+                            tileWork.directionOffset(index));
+                }
+            }
+        }
+        activeTiles[tile] = active;
+    }
+
+    /**
+     * Merges the sorted lists of the tiles into the x-then-y order of the map.
+     *
+     * @return true if a committed cell is still active.
+     */
+    private boolean commit(final int step) {
+        boolean active = false;
+        int height = map.getHeight();
+        Arrays.fill(cursors, 0);
+        removals.clear();
+        for (int tileX = 0; tileX < tilesX; tileX++) {
+            int toX = Math.min((tileX + 1) * tileSize, map.getWidth());
+            for (int x = tileX * tileSize; x < toX; x++) {
+                for (int tileY = 0; tileY < tilesY; tileY++) {
+                    int tile = tileX * tilesY + tileY;
+                    TileWork tileWork = work[tile];
+                    while (cursors[tile] < tileWork.size()
+                            && tileWork.slot(cursors[tile]) / height == x) {
+                        active |= commitEntry(tileWork, cursors[tile], step);
+                        cursors[tile]++;
+                    }
+                }
+            }
+        }
+        return active;
+    }
+
+    private boolean commitEntry(final TileWork tileWork, final int index, final int step) {
+        int height = map.getHeight();
+        int x = tileWork.slot(index) / height;
+        int y = tileWork.slot(index) % height;
+        Cell cell = map.getCell(x, y);
+        Water water = cell.getWater();
+        if (tileWork.isDeadPlant(index) || water != null && water.isEmpty()) {
+            removals.set(tileWork.slot(index));
+        }
+        Animal animal = EnvironmentRules.removeDead(cell, tileWork.isDeadPlant(index),
+                map.getPool());
+        if (!tileWork.hasIntent(index)) {
+            // Only animals that already had their turn can arrive in a cell during the commit
+            EnvironmentRules.updateAnimal(map, x, y, animal, step);
+            return EnvironmentRules.isActive(cell);
+        }
+        if (EnvironmentRules.isPending(animal, step)
+                && EnvironmentRules.feedAnimal(cell, animal, tileWork.isToxic(index), step)) {
+            // The neighbours committed before this cell may have lost their plant or water
+            MoveAnimal.reclassify(map, x, y, removals, tileWork.categories(),
+                    tileWork.qualities(), tileWork.directionOffset(index));
+            MoveAnimal.move(map, x, y, animal, tileWork.categories(), tileWork.qualities(),
+                    tileWork.directionOffset(index));
+        }
+        return EnvironmentRules.isActive(cell);
+    }
+
+    /**
+     * Runs an action for every tile of a range, splitting the range in halves.
+     */
+    private static final class TileTask extends RecursiveAction {
+        private final int from;
+        private final int to;
+        private final transient IntConsumer action;
+
+        TileTask(final int from, final int to, final IntConsumer action) {
+            this.from = from;
+            this.to = to;
+            this.action = action;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from == 1) {
+                action.accept(from);
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new TileTask(from, middle, action), new TileTask(middle, to, action));
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package main.engine;
+
+import java.util.Arrays;
+
+/**
+ * Hierarchical timer wheel keyed by simulation step.
+ * Level k has SLOTS buckets, each covering SLOTS^k steps; a timer is kept on the lowest
+ * level whose current block contains its step and moves down ("cascades") when the wheel
+ * enters the bucket that holds it. Timers further than the top level wait in an overflow
+ * bucket. Advancing the wheel jumps over the blocks that hold no timer, so its cost
+ * depends on the timers that fire, not on the number of steps.
+ * A timer is an int payload (for instance a cell slot) handed to the listener when due.
+ */
+public final class TimerWheel {
+    private static final int BITS = 6;
+    private static final int SLOTS = 1 << BITS;
+    private static final int MASK = SLOTS - 1;
+    private static final int LEVELS = 4;
+    private static final int INITIAL_CAPACITY = 4;
+
+    /**
+     * Receives the timers as they fire.
+     */
+    @FunctionalInterface
+    public interface Listener {
+        /**
+         * Called once for every timer, at the step it was scheduled for.
+         *
+         * @param payload The payload given to schedule.
+         * @param step The current step.
+         */
+        void onTimer(int payload, int step);
+    }
+
+    private final Listener listener;
+    private final Bucket[][] levels = new Bucket[LEVELS][SLOTS];
+    private final int[] levelSizes = new int[LEVELS];
+    private final Bucket overflow = new Bucket();
+    private int now;
+
+    public TimerWheel(final Listener listener) {
+        this.listener = listener;
+        for (Bucket[] level : levels) {
+            for (int i = 0; i < SLOTS; i++) {
+                level[i] = new Bucket();
+            }
+        }
+    }
+
+    /**
+     * Returns the last step the wheel was advanced to.
+     *
+     * @return The current step of the wheel.
+     */
+    public int getNow() {
+        return now;
+    }
+
+    /**
+     * Returns the number of timers waiting to fire.
+     *
+     * @return The number of pending timers.
+     */
+    public int size() {
+        int size = overflow.size;
+        for (int levelSize : levelSizes) {
+            size += levelSize;
+        }
+        return size;
+    }
+
+    /**
+     * Schedules a timer.
+     *
+     * @param payload The value handed to the listener.
+     * @param step The step at which the timer fires; must be after the current step.
+     */
+    public void schedule(final int payload, final int step) {
+        if (step <= now) {
+            throw new IllegalArgumentException("Timer step " + step + " is not after " + now);
+        }
+        for (int level = 0; level < LEVELS; level++) {
+            int shift = BITS * (level + 1);
+            if (step >>> shift == now >>> shift) {
+                levels[level][(step >>> (BITS * level)) & MASK].add(payload, step);
+                levelSizes[level]++;
+                return;
+            }
+        }
+        overflow.add(payload, step);
+    }
+
+    /**
+     * Advances the wheel, firing in order every timer due up to the given step.
+     *
+     * @param step The step to advance to.
+     */
+    public void advanceTo(final int step) {
+        while (now < step) {
+            int level = lowestUsedLevel();
+            if (level == LEVELS && overflow.size == 0) {
+                now = step;
+                return;
+            }
+            if (level > 0) {
+                // Nothing can fire before the end of the current block of that level
+                int blockEnd = now | ((1 << (BITS * level)) - 1);
+                if (blockEnd >= step) {
+                    now = step;
+                    return;
+                }
+                now = blockEnd;
+            }
+            now++;
+            cascade();
+            Bucket due = levels[0][now & MASK];
+            levelSizes[0] -= due.size;
+            int count = due.size;
+            due.size = 0;
+            for (int i = 0; i < count; i++) {
+                listener.onTimer(due.payloads[i], now);
+            }
+        }
+    }
+
+    private int lowestUsedLevel() {
+        for (int level = 0; level < LEVELS; level++) {
+            if (levelSizes[level] > 0) {
+                return level;
+            }
+        }
+        return LEVELS;
+    }
+
+    /**
+     * Moves down the timers of the buckets the wheel just entered.
+     */
+    private void cascade() {
+        for (int level = 1; level < LEVELS; level++) {
+            if ((now & ((1 << (BITS * level)) - 1)) != 0) {
+                return;
+            }
+            Bucket bucket = levels[level][(now >>> (BITS * level)) & MASK];
+            levelSizes[level] -= bucket.size;
+            reinsert(bucket);
+        }
+        if ((now & ((1 << (BITS * LEVELS)) - 1)) == 0) {
+            reinsert(overflow);
+        }
+    }
+
+    private void reinsert(final Bucket bucket) {
+        int count = bucket.size;
+        bucket.size = 0;
+        for (int i = 0; i < count; i++) {
+            // A timer due now is placed on level 0 of the current block
+            if (bucket.steps[i] == now) {
+                levels[0][now & MASK].add(bucket.payloads[i], now);
+                levelSizes[0]++;
+            } else {
+                schedule(bucket.payloads[i], bucket.steps[i]);
+            }
+        }
+    }
+
+    /**
+     * The timers of one bucket, as two parallel growable arrays.
+     */
+    private static final class Bucket {
+        private int[] payloads = new int[INITIAL_CAPACITY];
+        private int[] steps = new int[INITIAL_CAPACITY];
+        private int size;
+
+        void add(final int payload, final int step) {
+            if (size == payloads.length) {
+                payloads = Arrays.copyOf(payloads, size * 2);
+                steps = Arrays.copyOf(steps, size * 2);
+            }
+            payloads[size] = payload;
+            steps[size] = step;
+            size++;
+        }
+    }
+}
@@ -1,36 +1,102 @@
 package main.entities.Air;
 
-import fileio.AirInput;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import fileio.CommandInput;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.Setter;
+import main.entities.QualityBatch;
+import main.entities.QualityTerms;
+import main.storage.CellStorage;
+import main.storage.CellView;
+import main.storage.DoubleField;
+import main.storage.IntField;
 
+/**
+ * Base class of the air of a section. The properties that never change are kept in an
+ * AirTemplate shared by all the airs of the same input.
+ * The quality score is computed on the first read and kept until a mutator changes one
+ * of its inputs (humidity, oxygen level or weather influence).
+ */
 @Getter
 @Setter
-public abstract class Air {
-    private static final double MIN_MODERATE_QUALITY = 40.0;
-    private static final double MIN_GOOD_QUALITY = 70.0;
+public abstract class Air extends CellView implements QualityTerms {
+    public static final double MIN_MODERATE_QUALITY = 40.0;
+    public static final double MIN_GOOD_QUALITY = 70.0;
     private static final double MAX_PERCENTAGE = 100.0;
     private static final double TOXICITY_THRESHOLD_RATIO = 0.8;
     private static final double ROUNDING_FACTOR = 100.0;
 
-    private String type;
-    private String name;
-    private double mass;
+    private final AirTemplate template;
     protected double humidity;
-    protected double temperature;
     protected double oxygenLevel;
     protected double weatherInfluence = 0.0;
-    protected int weatherDuration = 0;
+    /** Whether a weather event is in effect; the Simulation ends it on a timer. */
+    protected boolean weatherActive = false;
+    /** The last score of computeQuality, or NaN when it has to be computed again. */
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private double quality = Double.NaN;
 
-    public Air(final AirInput airInput) {
-        this.type = airInput.getType();
-        this.name = airInput.getName();
-        this.mass = airInput.getMass();
-        this.humidity = airInput.getHumidity();
-        this.temperature = airInput.getTemperature();
-        this.oxygenLevel = airInput.getOxygenLevel();
+    public Air(final AirTemplate template) {
+        this.template = template;
+        this.humidity = template.humidity();
+        this.oxygenLevel = template.oxygenLevel();
+    }
+
+    /**
+     * Returns the type of the air.
+     *
+     * @return The type.
+     */
+    public String getType() {
+        return template.kind().getTypeName();
+    }
+
+    /**
+     * Returns the kind of the air.
+     *
+     * @return The kind.
+     */
+    public AirKind getKind() {
+        return template.kind();
+    }
+
+    /**
+     * Returns the name of the air.
+     *
+     * @return The name.
+     */
+    public String getName() {
+        return template.name();
+    }
+
+    /**
+     * Returns the mass of the air.
+     *
+     * @return The mass.
+     */
+    public double getMass() {
+        return template.mass();
+    }
+
+    /**
+     * Returns the temperature of the air.
+     *
+     * @return The temperature.
+     */
+    public double getTemperature() {
+        return template.temperature();
+    }
+
+    /**
+     * Checks if the air can be recreated from its template and the fields of its storage
+     * slot, which hold the whole state of most airs (see SimulationMap.park).
+     *
+     * @return true if no other field changed since the air was created.
+     */
+    public boolean isRestorable() {
+        return true;
     }
     /**
      * Adds specific fields to the JSON output node.
@@ -40,13 +106,74 @@ public abstract class Air {
      */
     public abstract void addSpecificFields(ObjectNode node);
 
+    /**
+     * Adds the specific fields as they were when a MapSnapshot was taken.
+     * Unlike addSpecificFields, it never changes the air, so it can run on any thread.
+     *
+     * @param node The ObjectNode to populate.
+     * @param weatherActive Whether a weather event was in effect.
+     */
+    public void addSpecificFields(final ObjectNode node, final boolean weatherActive) {
+        addSpecificFields(node);
+    }
+
+    /**
+     * Returns the quality score of the air, computed again only if the air changed since
+     * the last call.
+     *
+     * @return The quality score.
+     */
+    @Override
+    public final double calculateQuality() {
+        if (Double.isNaN(quality)) {
+            quality = computeQuality();
+        }
+        return quality;
+    }
+
     /**
      * Calculates the quality score of the air.
      * Implemented by subclasses.
      *
      * @return The calculated quality score.
      */
-    public abstract double calculateQuality();
+    protected abstract double computeQuality();
+
+    /**
+     * Discards the cached quality score. Called whenever a value it depends on changes.
+     */
+    protected final void invalidateQuality() {
+        quality = Double.NaN;
+    }
+
+    @Override
+    public final boolean hasQuality() {
+        return !Double.isNaN(quality);
+    }
+
+    @Override
+    public final void cacheQuality(final double score) {
+        quality = score;
+    }
+
+    /**
+     * Adds the terms of computeQuality to a batch, followed by the weather influence.
+     *
+     * @param batch The batch.
+     */
+    @Override
+    public final void addQualityTerms(final QualityBatch batch) {
+        addScoreTerms(batch);
+        batch.term(getWeatherInfluence(), 1.0);
+    }
+
+    /**
+     * Adds the weighted terms that computeQuality sums, in the same order; a penalty is
+     * a term with a negative weight.
+     *
+     * @param batch The batch.
+     */
+    protected abstract void addScoreTerms(QualityBatch batch);
 
     /**
      * Returns the maximum score for this air type.
@@ -64,27 +191,22 @@ public abstract class Air {
     public abstract double calculateWeather(CommandInput command);
 
     /**
-     * Sets a temporary weather influence on the air.
+     * Starts a weather event on the air. It stays in effect until endWeather is called,
+     * by the timer scheduled with Simulation.scheduleWeatherEnd.
      *
      * @param influence The value to add to the quality score.
-     * @param duration  The duration in simulation steps.
      */
-    public void setWeather(final double influence, final int duration) {
-        this.weatherInfluence = influence;
-        this.weatherDuration = duration;
+    public void setWeather(final double influence) {
+        setWeatherInfluence(influence);
+        setWeatherActive(true);
     }
 
     /**
-     * Updates the duration of the current weather effect.
-     * Decrements the timer and resets influence if time runs out.
+     * Ends the weather event in effect, if any.
      */
-    public void updateWeatherDuration() {
-        if (weatherDuration > 0) {
-            weatherDuration--;
-            if (weatherDuration == 0) {
-                weatherInfluence = 0.0;
-            }
-        }
+    public void endWeather() {
+        setWeatherInfluence(0.0);
+        setWeatherActive(false);
     }
 
     /**
@@ -93,7 +215,16 @@ public abstract class Air {
      * @return "poor", "moderate", or "good".
      */
     public String interpretationQuality() {
-        double airQualityScore = calculateQuality();
+        return interpretationQuality(calculateQuality());
+    }
+
+    /**
+     * Interprets a quality score of the air into a one-word description.
+     *
+     * @param airQualityScore The score, as returned by calculateQuality.
+     * @return "poor", "moderate", or "good".
+     */
+    public static String interpretationQuality(final double airQualityScore) {
         if (airQualityScore < MIN_MODERATE_QUALITY) {
             return "poor";
         } else if (airQualityScore > MIN_GOOD_QUALITY) {
@@ -134,8 +265,30 @@ public abstract class Air {
      * @param value The amount to add to humidity.
      */
     public void updateHumidity(final double value) {
-        humidity += value;
-        humidity = round(humidity);
+        invalidateQuality();
+        if (isAttached()) {
+            addRounded(DoubleField.AIR_HUMIDITY, value);
+        } else {
+            setHumidity(round(getHumidity() + value));
+        }
+    }
+
+    /**
+     * Applies updateHumidity(value) the given number of times, in constant time.
+     * Once rounded, the humidity is a whole number of hundredths, so every further
+     * update adds the same number of hundredths.
+     *
+     * @param value The amount to add each time, a multiple of 0.01.
+     * @param times The number of updates.
+     */
+    public void updateHumidity(final double value, final long times) {
+        if (times == 0) {
+            return;
+        }
+        updateHumidity(value);
+        long hundredths = Math.round(getHumidity() * ROUNDING_FACTOR)
+                + Math.round(value * ROUNDING_FACTOR) * (times - 1);
+        setHumidity(hundredths / ROUNDING_FACTOR);
     }
 
     /**
@@ -145,8 +298,119 @@ public abstract class Air {
      * @param value The amount to add to oxygen level.
      */
     public void updateOxygen(final double value) {
-        oxygenLevel += value;
-        oxygenLevel = round(oxygenLevel);
+        invalidateQuality();
+        if (isAttached()) {
+            addRounded(DoubleField.AIR_OXYGEN_LEVEL, value);
+        } else {
+            setOxygenLevel(round(getOxygenLevel() + value));
+        }
+    }
+
+    /**
+     * Returns the humidity, read from the storage slot if the air is attached.
+     *
+     * @return The humidity.
+     */
+    public double getHumidity() {
+        return isAttached() ? read(DoubleField.AIR_HUMIDITY) : humidity;
+    }
+
+    /**
+     * Sets the humidity, in the storage slot if the air is attached.
+     *
+     * @param humidity The new humidity.
+     */
+    public void setHumidity(final double humidity) {
+        invalidateQuality();
+        if (isAttached()) {
+            write(DoubleField.AIR_HUMIDITY, humidity);
+        } else {
+            this.humidity = humidity;
+        }
+    }
+
+    /**
+     * Returns the oxygen level, read from the storage slot if the air is attached.
+     *
+     * @return The oxygen level.
+     */
+    public double getOxygenLevel() {
+        return isAttached() ? read(DoubleField.AIR_OXYGEN_LEVEL) : oxygenLevel;
+    }
+
+    /**
+     * Sets the oxygen level, in the storage slot if the air is attached.
+     *
+     * @param oxygenLevel The new oxygen level.
+     */
+    public void setOxygenLevel(final double oxygenLevel) {
+        invalidateQuality();
+        if (isAttached()) {
+            write(DoubleField.AIR_OXYGEN_LEVEL, oxygenLevel);
+        } else {
+            this.oxygenLevel = oxygenLevel;
+        }
+    }
+
+    /**
+     * Returns the active weather influence.
+     *
+     * @return The weather influence.
+     */
+    public double getWeatherInfluence() {
+        return isAttached() ? read(DoubleField.AIR_WEATHER_INFLUENCE) : weatherInfluence;
+    }
+
+    /**
+     * Sets the active weather influence.
+     *
+     * @param weatherInfluence The new weather influence.
+     */
+    public void setWeatherInfluence(final double weatherInfluence) {
+        invalidateQuality();
+        if (isAttached()) {
+            write(DoubleField.AIR_WEATHER_INFLUENCE, weatherInfluence);
+        } else {
+            this.weatherInfluence = weatherInfluence;
+        }
+    }
+
+    /**
+     * Checks if a weather event is in effect.
+     *
+     * @return true between setWeather and endWeather.
+     */
+    public boolean isWeatherActive() {
+        return isAttached() ? read(IntField.AIR_WEATHER_ACTIVE) != 0 : weatherActive;
+    }
+
+    /**
+     * Sets whether a weather event is in effect.
+     *
+     * @param weatherActive true if an event is in effect.
+     */
+    public void setWeatherActive(final boolean weatherActive) {
+        if (isAttached()) {
+            write(IntField.AIR_WEATHER_ACTIVE, weatherActive ? 1 : 0);
+        } else {
+            this.weatherActive = weatherActive;
+        }
+    }
+
+    @Override
+    protected final void writeState(final CellStorage target, final int targetSlot) {
+        target.set(DoubleField.AIR_HUMIDITY, targetSlot, getHumidity());
+        target.set(DoubleField.AIR_OXYGEN_LEVEL, targetSlot, getOxygenLevel());
+        target.set(DoubleField.AIR_WEATHER_INFLUENCE, targetSlot, getWeatherInfluence());
+        target.set(IntField.AIR_WEATHER_ACTIVE, targetSlot, isWeatherActive() ? 1 : 0);
+    }
+
+    @Override
+    protected final void readState() {
+        humidity = read(DoubleField.AIR_HUMIDITY);
+        oxygenLevel = read(DoubleField.AIR_OXYGEN_LEVEL);
+        weatherInfluence = read(DoubleField.AIR_WEATHER_INFLUENCE);
+        weatherActive = read(IntField.AIR_WEATHER_ACTIVE) != 0;
     }
 
     /**
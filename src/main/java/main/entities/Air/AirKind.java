@@ -0,0 +1,44 @@
+package main.entities.Air;
+
+/**
+ * The kinds of air, with the type name they have in the input and the output.
+ */
+public enum AirKind {
+    TROPICAL("TropicalAir"),
+    POLAR("PolarAir"),
+    TEMPERATE("TemperateAir"),
+    DESERT("DesertAir"),
+    MOUNTAIN("MountainAir");
+
+    private static final AirKind[] KINDS = values();
+
+    private final String typeName;
+
+    AirKind(final String typeName) {
+        this.typeName = typeName;
+    }
+
+    /**
+     * Returns the type name of the kind.
+     *
+     * @return The name used for the "type" of the input and the output.
+     */
+    public String getTypeName() {
+        return typeName;
+    }
+
+    /**
+     * Finds the kind of a type name.
+     *
+     * @param typeName The "type" of an input.
+     * @return The kind, or null if the type is unknown.
+     */
+    public static AirKind fromTypeName(final String typeName) {
+        for (AirKind kind : KINDS) {
+            if (kind.typeName.equals(typeName)) {
+                return kind;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,32 @@
+package main.entities.Air;
+
+import fileio.AirInput;
+import main.entities.NameTable;
+
+/**
+ * The values of an air input that no step changes, shared by the air of all its sections.
+ * The mutable values (humidity, oxygen level, co2 level) are only the starting values of
+ * each air.
+ */
+public record AirTemplate(AirKind kind, String name, double mass, double humidity,
+                          double temperature, double oxygenLevel, double co2Level,
+                          double dustParticles, double altitude,
+                          double iceCrystalConcentration, double pollenLevel) {
+    /**
+     * Creates the template of an input.
+     *
+     * @param input The air input.
+     * @param names The names of the simulation.
+     * @return The template, or null if the type of the input is unknown.
+     */
+    public static AirTemplate of(final AirInput input, final NameTable names) {
+        AirKind kind = AirKind.fromTypeName(input.getType());
+        if (kind == null) {
+            return null;
+        }
+        return new AirTemplate(kind, names.intern(input.getName()), input.getMass(),
+                input.getHumidity(), input.getTemperature(), input.getOxygenLevel(),
+                input.getCo2Level(), input.getDustParticles(), input.getAltitude(),
+                input.getIceCrystalConcentration(), input.getPollenLevel());
+    }
+}
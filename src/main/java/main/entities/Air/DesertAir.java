@@ -1,9 +1,9 @@
 package main.entities.Air;
 
 import com.fasterxml.jackson.databind.node.ObjectNode;
-import fileio.AirInput;
 import fileio.CommandInput;
 import lombok.Getter;
+import main.entities.QualityBatch;
 
 @Getter
 public final class DesertAir extends Air {
@@ -13,11 +13,17 @@ public final class DesertAir extends Air {
     private static final double STORM_PENALTY = -30.0;
     private static final double OXYGEN_WEIGHT = 2.0;
 
-    private final double dustParticles;
+    public DesertAir(final AirTemplate template) {
+        super(template);
+    }
 
-    public DesertAir(final AirInput airInput) {
-        super(airInput);
-        this.dustParticles = airInput.getDustParticles();
+    /**
+     * Returns the dust particles level of the air.
+     *
+     * @return The dust particles level.
+     */
+    public double getDustParticles() {
+        return getTemplate().dustParticles();
     }
 
     /**
@@ -27,7 +33,18 @@ public final class DesertAir extends Air {
      */
     @Override
     public void addSpecificFields(final ObjectNode node) {
-        if (this.weatherDuration > 0) {
+        addSpecificFields(node, isWeatherActive());
+    }
+
+    /**
+     * Adds the "desertStorm" status as it was when the snapshot was taken.
+     *
+     * @param node The ObjectNode to update.
+     * @param weatherActive Whether a storm was in effect.
+     */
+    @Override
+    public void addSpecificFields(final ObjectNode node, final boolean weatherActive) {
+        if (weatherActive) {
             node.put("desertStorm", true);
         } else {
             node.put("desertStorm", false);
@@ -40,11 +57,23 @@ public final class DesertAir extends Air {
      * @return The normalized and rounded quality score.
      */
     @Override
-    public double calculateQuality() {
-        double score = (oxygenLevel * OXYGEN_WEIGHT)
-                - (dustParticles * DUST_PENALTY_WEIGHT)
-                - (temperature * TEMP_PENALTY_WEIGHT);
-        return round(normalize(score + weatherInfluence));
+    protected double computeQuality() {
+        double score = (getOxygenLevel() * OXYGEN_WEIGHT)
+                - (getDustParticles() * DUST_PENALTY_WEIGHT)
+                - (getTemperature() * TEMP_PENALTY_WEIGHT);
+        return round(normalize(score + getWeatherInfluence()));
+    }
+
+    /**
+     * Adds the terms of the Desert Air score to a batch.
+     *
+     * @param batch The batch.
+     */
+    @Override
+    protected void addScoreTerms(final QualityBatch batch) {
+        batch.term(getOxygenLevel(), OXYGEN_WEIGHT)
+                .term(getDustParticles(), -DUST_PENALTY_WEIGHT)
+                .term(getTemperature(), -TEMP_PENALTY_WEIGHT);
     }
 
     /**
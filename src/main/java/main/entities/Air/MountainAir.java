@@ -1,9 +1,9 @@
 package main.entities.Air;
 
 import com.fasterxml.jackson.databind.node.ObjectNode;
-import fileio.AirInput;
 import fileio.CommandInput;
 import lombok.Getter;
+import main.entities.QualityBatch;
 
 @Getter
 public final class MountainAir extends Air {
@@ -15,11 +15,17 @@ public final class MountainAir extends Air {
     private static final double NEGATIVE_MULTIPLIER = -1.0;
     private static final double HIKER_PENALTY_WEIGHT = 0.1;
 
-    private final double altitude;
+    public MountainAir(final AirTemplate template) {
+        super(template);
+    }
 
-    public MountainAir(final AirInput airInput) {
-        super(airInput);
-        this.altitude = airInput.getAltitude();
+    /**
+     * Returns the altitude of the air.
+     *
+     * @return The altitude.
+     */
+    public double getAltitude() {
+        return getTemplate().altitude();
     }
 
     /**
@@ -29,7 +35,7 @@ public final class MountainAir extends Air {
      */
     @Override
     public void addSpecificFields(final ObjectNode node) {
-        node.put("altitude", altitude);
+        node.put("altitude", getAltitude());
     }
 
     /**
@@ -38,12 +44,25 @@ public final class MountainAir extends Air {
      * @return The normalized and rounded quality score.
      */
     @Override
-    public double calculateQuality() {
-        double oxygenFactor = oxygenLevel
-                - (altitude / ALTITUDE_DIVISOR * ALTITUDE_PENALTY_WEIGHT);
+    protected double computeQuality() {
+        double oxygenFactor = getOxygenLevel()
+                - (getAltitude() / ALTITUDE_DIVISOR * ALTITUDE_PENALTY_WEIGHT);
         double score = (oxygenFactor * OXYGEN_FACTOR_WEIGHT)
-                + (humidity * HUMIDITY_WEIGHT);
-        return round(normalize(score + weatherInfluence));
+                + (getHumidity() * HUMIDITY_WEIGHT);
+        return round(normalize(score + getWeatherInfluence()));
+    }
+
+    /**
+     * Adds the terms of the Mountain Air score to a batch; the oxygen factor is one term.
+     *
+     * @param batch The batch.
+     */
+    @Override
+    protected void addScoreTerms(final QualityBatch batch) {
+        double oxygenFactor = getOxygenLevel()
+                - (getAltitude() / ALTITUDE_DIVISOR * ALTITUDE_PENALTY_WEIGHT);
+        batch.term(oxygenFactor, OXYGEN_FACTOR_WEIGHT)
+                .term(getHumidity(), HUMIDITY_WEIGHT);
     }
 
     /**
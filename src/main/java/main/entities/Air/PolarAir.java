@@ -1,9 +1,9 @@
 package main.entities.Air;
 
 import com.fasterxml.jackson.databind.node.ObjectNode;
-import fileio.AirInput;
 import fileio.CommandInput;
 import lombok.Getter;
+import main.entities.QualityBatch;
 
 @Getter
 public final class PolarAir extends Air {
@@ -14,11 +14,17 @@ public final class PolarAir extends Air {
     private static final double OXYGEN_WEIGHT = 2.0;
     private static final double NEGATIVE_MULTIPLIER = -1.0;
 
-    private final double iceCrystalConcentration;
+    public PolarAir(final AirTemplate template) {
+        super(template);
+    }
 
-    public PolarAir(final AirInput airInput) {
-        super(airInput);
-        this.iceCrystalConcentration = airInput.getIceCrystalConcentration();
+    /**
+     * Returns the ice crystal concentration of the air.
+     *
+     * @return The ice crystal concentration.
+     */
+    public double getIceCrystalConcentration() {
+        return getTemplate().iceCrystalConcentration();
     }
 
     /**
@@ -28,7 +34,7 @@ public final class PolarAir extends Air {
      */
     @Override
     public void addSpecificFields(final ObjectNode node) {
-        node.put("iceCrystalConcentration", iceCrystalConcentration);
+        node.put("iceCrystalConcentration", getIceCrystalConcentration());
     }
 
     /**
@@ -37,11 +43,23 @@ public final class PolarAir extends Air {
      * @return The normalized and rounded quality score.
      */
     @Override
-    public double calculateQuality() {
-        double score = (oxygenLevel * OXYGEN_WEIGHT)
-                + (TEMP_BASE - Math.abs(temperature))
-                - (iceCrystalConcentration * ICE_PENALTY_WEIGHT);
-        return round(normalize(score + weatherInfluence));
+    protected double computeQuality() {
+        double score = (getOxygenLevel() * OXYGEN_WEIGHT)
+                + (TEMP_BASE - Math.abs(getTemperature()))
+                - (getIceCrystalConcentration() * ICE_PENALTY_WEIGHT);
+        return round(normalize(score + getWeatherInfluence()));
+    }
+
+    /**
+     * Adds the terms of the Polar Air score to a batch.
+     *
+     * @param batch The batch.
+     */
+    @Override
+    protected void addScoreTerms(final QualityBatch batch) {
+        batch.term(getOxygenLevel(), OXYGEN_WEIGHT)
+                .term(TEMP_BASE - Math.abs(getTemperature()), 1.0)
+                .term(getIceCrystalConcentration(), -ICE_PENALTY_WEIGHT);
     }
 
     /**
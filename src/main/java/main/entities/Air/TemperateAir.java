@@ -1,9 +1,9 @@
 package main.entities.Air;
 
 import com.fasterxml.jackson.databind.node.ObjectNode;
-import fileio.AirInput;
 import fileio.CommandInput;
 import lombok.Getter;
+import main.entities.QualityBatch;
 
 @Getter
 public final class TemperateAir extends Air {
@@ -13,11 +13,17 @@ public final class TemperateAir extends Air {
     private static final double MAX_TEMPERATE_SCORE = 84.0;
     private static final double SPRING_PENALTY = -15.0;
 
-    private final double pollenLevel;
+    public TemperateAir(final AirTemplate template) {
+        super(template);
+    }
 
-    public TemperateAir(final AirInput airInput) {
-        super(airInput);
-        this.pollenLevel = airInput.getPollenLevel();
+    /**
+     * Returns the pollen level of the air.
+     *
+     * @return The pollen level.
+     */
+    public double getPollenLevel() {
+        return getTemplate().pollenLevel();
     }
 
     /**
@@ -27,7 +33,7 @@ public final class TemperateAir extends Air {
      */
     @Override
     public void addSpecificFields(final ObjectNode node) {
-        node.put("pollenLevel", pollenLevel);
+        node.put("pollenLevel", getPollenLevel());
     }
 
     /**
@@ -36,11 +42,23 @@ public final class TemperateAir extends Air {
      * @return The normalized and rounded quality score.
      */
     @Override
-    public double calculateQuality() {
-        double score = (oxygenLevel * OXYGEN_WEIGHT)
-                + (humidity * HUMIDITY_WEIGHT)
-                - (pollenLevel * POLLEN_PENALTY_WEIGHT);
-        return round(normalize(score + weatherInfluence));
+    protected double computeQuality() {
+        double score = (getOxygenLevel() * OXYGEN_WEIGHT)
+                + (getHumidity() * HUMIDITY_WEIGHT)
+                - (getPollenLevel() * POLLEN_PENALTY_WEIGHT);
+        return round(normalize(score + getWeatherInfluence()));
+    }
+
+    /**
+     * Adds the terms of the Temperate Air score to a batch.
+     *
+     * @param batch The batch.
+     */
+    @Override
+    protected void addScoreTerms(final QualityBatch batch) {
+        batch.term(getOxygenLevel(), OXYGEN_WEIGHT)
+                .term(getHumidity(), HUMIDITY_WEIGHT)
+                .term(getPollenLevel(), -POLLEN_PENALTY_WEIGHT);
     }
 
     /**
@@ -1,10 +1,10 @@
 package main.entities.Air;
 
 import com.fasterxml.jackson.databind.node.ObjectNode;
-import fileio.AirInput;
 import fileio.CommandInput;
 import java.math.BigDecimal;
 import lombok.Getter;
+import main.entities.QualityBatch;
 
 @Getter
 public final class TropicalAir extends Air {
@@ -17,9 +17,20 @@ public final class TropicalAir extends Air {
 
     private double co2Level;
 
-    public TropicalAir(final AirInput airInput) {
-        super(airInput);
-        this.co2Level = airInput.getCo2Level();
+    public TropicalAir(final AirTemplate template) {
+        super(template);
+        this.co2Level = template.co2Level();
+    }
+
+    /**
+     * Checks if the co2Level is still the one of the template: printEnvConditions stores
+     * it back rounded.
+     *
+     * @return true if the co2Level was never rounded.
+     */
+    @Override
+    public boolean isRestorable() {
+        return co2Level == getTemplate().co2Level();
     }
 
     /**
@@ -30,10 +41,26 @@ public final class TropicalAir extends Air {
      */
     @Override
     public void addSpecificFields(final ObjectNode node) {
+        co2Level = roundedCo2Level();
+        invalidateQuality();
+        node.put("co2Level", co2Level);
+    }
+
+    /**
+     * Adds the rounded "co2Level" without storing it back.
+     *
+     * @param node The ObjectNode to update.
+     * @param weatherActive Unused, the co2Level does not depend on the weather.
+     */
+    @Override
+    public void addSpecificFields(final ObjectNode node, final boolean weatherActive) {
+        node.put("co2Level", roundedCo2Level());
+    }
+
+    private double roundedCo2Level() {
         BigDecimal bd = new BigDecimal(co2Level);
         bd = bd.setScale(ROUNDING_SCALE, BigDecimal.ROUND_HALF_UP);
-        co2Level = bd.doubleValue();
-        node.put("co2Level", co2Level);
+        return bd.doubleValue();
     }
 
     /**
@@ -42,11 +69,23 @@ public final class TropicalAir extends Air {
      * @return The normalized and rounded quality score.
      */
     @Override
-    public double calculateQuality() {
-        double score = (oxygenLevel * OXYGEN_WEIGHT)
-                + (humidity * HUMIDITY_WEIGHT)
+    protected double computeQuality() {
+        double score = (getOxygenLevel() * OXYGEN_WEIGHT)
+                + (getHumidity() * HUMIDITY_WEIGHT)
                 - (co2Level * CO2_PENALTY_WEIGHT);
-        return round(normalize(score + weatherInfluence));
+        return round(normalize(score + getWeatherInfluence()));
+    }
+
+    /**
+     * Adds the terms of the Tropical Air score to a batch.
+     *
+     * @param batch The batch.
+     */
+    @Override
+    protected void addScoreTerms(final QualityBatch batch) {
+        batch.term(getOxygenLevel(), OXYGEN_WEIGHT)
+                .term(getHumidity(), HUMIDITY_WEIGHT)
+                .term(co2Level, -CO2_PENALTY_WEIGHT);
     }
 
     /**
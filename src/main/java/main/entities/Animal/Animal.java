@@ -1,6 +1,5 @@
 package main.entities.Animal;
 
-import fileio.AnimalInput;
 import main.Cell;
 import lombok.Getter;
 import lombok.Setter;
@@ -8,6 +7,11 @@ import main.entities.Entity;
 import main.entities.Plant.MaturityLevel;
 import main.entities.Plant.Plant;
 import main.entities.Water.Water;
+import main.storage.CellStorage;
+import main.storage.CellView;
+import main.storage.GridFlags;
+import main.storage.DoubleField;
+import main.storage.IntField;
 
 /**
  * Abstract class representing an Animal entity in the simulation.
@@ -15,37 +19,98 @@ import main.entities.Water.Water;
  */
 @Getter
 @Setter
-public abstract class Animal implements Entity {
+public abstract class Animal extends CellView implements Entity {
     private static final double WATER_INTAKE_RATE = 0.08;
     private static final double FERTILIZER_HIGH = 0.8;
     private static final double FERTILIZER_MEDIUM = 0.5;
     private static final int MOVEMENT_INTERVAL = 2;
+    private static final AnimalState[] STATES = AnimalState.values();
 
-    private String type;
-    protected String name;
+    private AnimalTemplate template;
     protected double mass;
     protected AnimalState state;
     protected boolean isScanned;
     protected double fertilizer;
     protected int roundsSinceScanned;
-    private boolean scannedRound;
+    /** The last step in which the animal took its turn, 0 before the first one. */
+    private int lastRound;
 
-    public Animal(final AnimalInput animalInput) {
-        this.type = animalInput.getType();
-        this.name = animalInput.getName();
-        this.mass = animalInput.getMass();
+    public Animal(final AnimalTemplate template) {
+        reset(template);
+    }
+
+    /**
+     * Brings the animal back to the state of a new animal of a template, so that a dead
+     * animal can be reused (see EntityPool). The template must be of the same kind.
+     * The animal must not be placed on a map.
+     *
+     * @param source The template.
+     */
+    public final void reset(final AnimalTemplate source) {
+        this.template = source;
+        this.mass = source.mass();
         this.state = AnimalState.HUNGRY;
         this.isScanned = false;
         this.fertilizer = 0;
         this.roundsSinceScanned = 0;
-        this.scannedRound = false;
+        this.lastRound = 0;
     }
+    /**
+     * Returns the type of the animal.
+     *
+     * @return The type.
+     */
+    public String getType() {
+        return template.kind().getTypeName();
+    }
+
+    /**
+     * Returns the kind of the animal.
+     *
+     * @return The kind.
+     */
+    public AnimalKind getKind() {
+        return template.kind();
+    }
+
+    /**
+     * Returns the name of the animal.
+     *
+     * @return The name.
+     */
+    @Override
+    public String getName() {
+        return template.name();
+    }
+
+    /**
+     * Records that the animal took its turn in the given step.
+     * Stamping the step replaces a flag that had to be cleared on every animal after
+     * each step.
+     *
+     * @param step The current simulation step.
+     */
+    public void markRound(final int step) {
+        lastRound = step;
+    }
+
+    /**
+     * Checks if the animal already took its turn in the given step.
+     * Prevents double logical processing when an animal that moved forward is met again.
+     *
+     * @param step The current simulation step.
+     * @return true if markRound was called with this step.
+     */
+    public boolean hasPlayedRound(final int step) {
+        return lastRound == step;
+    }
+
     /**
      * Resets the fertilizer amount to 0.
      * Used after the fertilizer has been applied to the soil.
      */
     public void resetFertilizer() {
-        fertilizer = 0;
+        setFertilizer(0);
     }
     /**
      * Calculates the probability of this animal for attack.
@@ -67,13 +132,14 @@ public abstract class Animal implements Entity {
      */
     public void scan() {
         isScanned = true;
+        setFlag(GridFlags.Flag.SCANNED_ANIMAL);
     }
 
     /**
      * Sets the animal as eaten.
      */
     public void beEaten() {
-        mass = 0;
+        setMass(0);
     }
 
     /**
@@ -82,14 +148,14 @@ public abstract class Animal implements Entity {
      * @return true if dead.
      */
     public boolean isDead() {
-        return mass <= 0;
+        return getMass() <= 0;
     }
 
     /**
      * Sets the animal state to SICK ,usually because of toxic air.
      */
     public void setSick() {
-        state = AnimalState.SICK;
+        setState(AnimalState.SICK);
     }
 
     /**
@@ -98,17 +164,20 @@ public abstract class Animal implements Entity {
      */
     public void increaseAge() {
         if (isScanned) {
-            this.roundsSinceScanned++;
+            setRoundsSinceScanned(getRoundsSinceScanned() + 1);
         }
     }
 
     /**
      * Determines if the animal should move in the current step.
+     * Checked during the turn the animal takes on every step anyway, so unlike the end of
+     * a weather event it is not a timer of the Simulation.
      *
      * @return true if it is time to move (every 2 rounds).
      */
     public boolean shouldMove() {
-        return roundsSinceScanned > 0 && roundsSinceScanned % MOVEMENT_INTERVAL == 0;
+        int rounds = getRoundsSinceScanned();
+        return rounds > 0 && rounds % MOVEMENT_INTERVAL == 0;
     }
 
     /**
@@ -123,12 +192,15 @@ public abstract class Animal implements Entity {
         Water water = cell.getWater();
         Animal prey = cell.getAnimal();
         boolean alimentation = false;
+        double newMass = getMass();
+        double newFertilizer = getFertilizer();
+        AnimalState newState = getState();
 
         if (isCarnivoreOrParasite()) {
             if (prey != null && prey != this) {
-                mass += prey.getMass();
+                newMass += prey.getMass();
                 prey.beEaten();
-                fertilizer = FERTILIZER_MEDIUM;
+                newFertilizer = FERTILIZER_MEDIUM;
                 alimentation = true;
             }
         }
@@ -140,38 +212,145 @@ public abstract class Animal implements Entity {
             boolean waterCondition = water != null && !water.isEmpty() && water.isScanned();
 
             if (plantCondition && waterCondition) {
-                mass = mass + plant.getMass();
+                newMass = newMass + plant.getMass();
                 plant.beEaten();
-                double waterToDrink = Math.min(mass * WATER_INTAKE_RATE, water.getMass());
-                mass += waterToDrink;
+                double waterToDrink = Math.min(newMass * WATER_INTAKE_RATE, water.getMass());
+                newMass += waterToDrink;
                 water.decreaseMass(waterToDrink);
-                fertilizer = FERTILIZER_HIGH;
+                newFertilizer = FERTILIZER_HIGH;
                 alimentation = true;
             } else if (plantCondition) {
-                mass += plant.getMass();
+                newMass += plant.getMass();
                 plant.beEaten();
-                fertilizer = FERTILIZER_MEDIUM;
+                newFertilizer = FERTILIZER_MEDIUM;
                 alimentation = true;
             } else if (waterCondition) {
-                double waterToDrink = Math.min(mass * WATER_INTAKE_RATE, water.getMass());
-                mass += waterToDrink;
+                double waterToDrink = Math.min(newMass * WATER_INTAKE_RATE, water.getMass());
+                newMass += waterToDrink;
                 water.decreaseMass(waterToDrink);
-                fertilizer = FERTILIZER_MEDIUM;
+                newFertilizer = FERTILIZER_MEDIUM;
                 alimentation = true;
             }
         }
 
         if (alimentation) {
-            if (state != AnimalState.SICK) {
-                state = AnimalState.WELL_FED;
+            if (newState != AnimalState.SICK) {
+                newState = AnimalState.WELL_FED;
             }
         } else {
-            state = AnimalState.HUNGRY;
-            fertilizer = 0;
+            newState = AnimalState.HUNGRY;
+            newFertilizer = 0;
+        }
+
+        if (newState == AnimalState.SICK) {
+            newFertilizer = 0;
+        }
+        setMass(newMass);
+        setFertilizer(newFertilizer);
+        setState(newState);
+    }
+
+    /**
+     * Returns the mass, read from the storage slot if the animal is attached.
+     *
+     * @return The mass of the animal.
+     */
+    public double getMass() {
+        return isAttached() ? read(DoubleField.ANIMAL_MASS) : mass;
+    }
+
+    /**
+     * Sets the mass, in the storage slot if the animal is attached.
+     *
+     * @param mass The new mass.
+     */
+    public void setMass(final double mass) {
+        if (isAttached()) {
+            write(DoubleField.ANIMAL_MASS, mass);
+        } else {
+            this.mass = mass;
         }
+    }
 
-        if (state == AnimalState.SICK) {
-            fertilizer = 0;
+    /**
+     * Returns the fertilizer produced by the last meal.
+     *
+     * @return The fertilizer amount.
+     */
+    public double getFertilizer() {
+        return isAttached() ? read(DoubleField.ANIMAL_FERTILIZER) : fertilizer;
+    }
+
+    /**
+     * Sets the fertilizer produced by the last meal.
+     *
+     * @param fertilizer The fertilizer amount.
+     */
+    public void setFertilizer(final double fertilizer) {
+        if (isAttached()) {
+            write(DoubleField.ANIMAL_FERTILIZER, fertilizer);
+        } else {
+            this.fertilizer = fertilizer;
         }
     }
+
+    /**
+     * Returns the number of rounds since the animal was scanned.
+     *
+     * @return The number of rounds.
+     */
+    public int getRoundsSinceScanned() {
+        return isAttached() ? read(IntField.ANIMAL_ROUNDS_SINCE_SCANNED) : roundsSinceScanned;
+    }
+
+    /**
+     * Sets the number of rounds since the animal was scanned.
+     *
+     * @param roundsSinceScanned The number of rounds.
+     */
+    public void setRoundsSinceScanned(final int roundsSinceScanned) {
+        if (isAttached()) {
+            write(IntField.ANIMAL_ROUNDS_SINCE_SCANNED, roundsSinceScanned);
+        } else {
+            this.roundsSinceScanned = roundsSinceScanned;
+        }
+    }
+
+    /**
+     * Returns the state of the animal.
+     *
+     * @return The state.
+     */
+    public AnimalState getState() {
+        return isAttached() ? STATES[read(IntField.ANIMAL_STATE)] : state;
+    }
+
+    /**
+     * Sets the state of the animal.
+     *
+     * @param state The new state.
+     */
+    public void setState(final AnimalState state) {
+        if (isAttached()) {
+            write(IntField.ANIMAL_STATE, state.ordinal());
+        } else {
+            this.state = state;
+        }
+    }
+
+    @Override
+    protected final void writeState(final CellStorage target, final int targetSlot) {
+        target.set(DoubleField.ANIMAL_MASS, targetSlot, getMass());
+        target.set(DoubleField.ANIMAL_FERTILIZER, targetSlot, getFertilizer());
+        target.set(IntField.ANIMAL_ROUNDS_SINCE_SCANNED, targetSlot, getRoundsSinceScanned());
+        target.set(IntField.ANIMAL_STATE, targetSlot, getState().ordinal());
+    }
+
+    @Override
+    protected final void readState() {
+        mass = read(DoubleField.ANIMAL_MASS);
+        fertilizer = read(DoubleField.ANIMAL_FERTILIZER);
+        roundsSinceScanned = read(IntField.ANIMAL_ROUNDS_SINCE_SCANNED);
+        state = STATES[read(IntField.ANIMAL_STATE)];
+    }
 }
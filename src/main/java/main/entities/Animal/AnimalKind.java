@@ -0,0 +1,44 @@
+package main.entities.Animal;
+
+/**
+ * The kinds of animal, with the type name they have in the input and the output.
+ */
+public enum AnimalKind {
+    HERBIVORES("Herbivores"),
+    CARNIVORES("Carnivores"),
+    OMNIVORES("Omnivores"),
+    DETRITIVORES("Detritivores"),
+    PARASITES("Parasites");
+
+    private static final AnimalKind[] KINDS = values();
+
+    private final String typeName;
+
+    AnimalKind(final String typeName) {
+        this.typeName = typeName;
+    }
+
+    /**
+     * Returns the type name of the kind.
+     *
+     * @return The name used for the "type" of the input and the output.
+     */
+    public String getTypeName() {
+        return typeName;
+    }
+
+    /**
+     * Finds the kind of a type name.
+     *
+     * @param typeName The "type" of an input.
+     * @return The kind, or null if the type is unknown.
+     */
+    public static AnimalKind fromTypeName(final String typeName) {
+        for (AnimalKind kind : KINDS) {
+            if (kind.typeName.equals(typeName)) {
+                return kind;
+            }
+        }
+        return null;
+    }
+}
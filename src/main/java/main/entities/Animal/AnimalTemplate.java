@@ -0,0 +1,25 @@
+package main.entities.Animal;
+
+import fileio.AnimalInput;
+import main.entities.NameTable;
+
+/**
+ * The descriptors of an animal input, shared by the animals of all its sections.
+ * The mass is only the starting mass of each animal.
+ */
+public record AnimalTemplate(AnimalKind kind, String name, double mass) {
+    /**
+     * Creates the template of an input.
+     *
+     * @param input The animal input.
+     * @param names The names of the simulation.
+     * @return The template, or null if the type of the input is unknown.
+     */
+    public static AnimalTemplate of(final AnimalInput input, final NameTable names) {
+        AnimalKind kind = AnimalKind.fromTypeName(input.getType());
+        if (kind == null) {
+            return null;
+        }
+        return new AnimalTemplate(kind, names.intern(input.getName()), input.getMass());
+    }
+}
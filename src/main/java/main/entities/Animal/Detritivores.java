@@ -1,14 +1,12 @@
 package main.entities.Animal;
 
-import fileio.AnimalInput;
-
 public final class Detritivores extends Animal {
     private static final double MAX_PERCENTAGE = 100.0;
     private static final double ATTACK_POSSIBILITY = 90.0;
     private static final double DIVISOR = 10.0;
 
-    public Detritivores(final AnimalInput animalInput) {
-        super(animalInput);
+    public Detritivores(final AnimalTemplate template) {
+        super(template);
     }
 
     /**
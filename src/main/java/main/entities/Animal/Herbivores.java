@@ -1,14 +1,12 @@
 package main.entities.Animal;
 
-import fileio.AnimalInput;
-
 public final class Herbivores extends Animal {
     private static final double MAX_PERCENTAGE = 100.0;
     private static final double ATTACK_POSSIBILITY = 85.0;
     private static final double DIVISOR = 10.0;
 
-    public Herbivores(final AnimalInput animalInput) {
-        super(animalInput);
+    public Herbivores(final AnimalTemplate template) {
+        super(template);
     }
 
     /**
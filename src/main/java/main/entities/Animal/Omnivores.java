@@ -1,14 +1,12 @@
 package main.entities.Animal;
 
-import fileio.AnimalInput;
-
 public final class Omnivores extends Animal {
     private static final double MAX_PERCENTAGE = 100.0;
     private static final double ATTACK_POSSIBILITY = 60.0;
     private static final double DIVISOR = 10.0;
 
-    public Omnivores(final AnimalInput animalInput) {
-        super(animalInput);
+    public Omnivores(final AnimalTemplate template) {
+        super(template);
     }
 
     /**
@@ -1,14 +1,12 @@
 package main.entities.Animal;
 
-import fileio.AnimalInput;
-
 public final class Parasites extends Animal {
     private static final double MAX_PERCENTAGE = 100.0;
     private static final double ATTACK_POSSIBILITY = 10.0;
     private static final double DIVISOR = 10.0;
 
-    public Parasites(final AnimalInput animalInput) {
-        super(animalInput);
+    public Parasites(final AnimalTemplate template) {
+        super(template);
     }
 
     /**
@@ -0,0 +1,119 @@
+package main.entities;
+
+import main.entities.Air.Air;
+import main.entities.Air.AirKind;
+import main.entities.Air.AirTemplate;
+import main.entities.Air.DesertAir;
+import main.entities.Air.MountainAir;
+import main.entities.Air.PolarAir;
+import main.entities.Air.TemperateAir;
+import main.entities.Air.TropicalAir;
+import main.entities.Animal.Animal;
+import main.entities.Animal.AnimalKind;
+import main.entities.Animal.AnimalTemplate;
+import main.entities.Animal.Carnivores;
+import main.entities.Animal.Detritivores;
+import main.entities.Animal.Herbivores;
+import main.entities.Animal.Omnivores;
+import main.entities.Animal.Parasites;
+import main.entities.Plant.Algae;
+import main.entities.Plant.Ferns;
+import main.entities.Plant.FloweringPlants;
+import main.entities.Plant.GymnospermsPlants;
+import main.entities.Plant.Mosses;
+import main.entities.Plant.Plant;
+import main.entities.Plant.PlantKind;
+import main.entities.Plant.PlantTemplate;
+import main.entities.Soil.DesertSoil;
+import main.entities.Soil.ForestSoil;
+import main.entities.Soil.GrasslandSoil;
+import main.entities.Soil.Soil;
+import main.entities.Soil.SoilKind;
+import main.entities.Soil.SoilTemplate;
+import main.entities.Soil.SwampSoil;
+import main.entities.Soil.TundraSoil;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Creates the entity of a template, through a factory per kind.
+ */
+public final class EntityFactories {
+    private static final Map<AirKind, Function<AirTemplate, Air>> AIRS =
+            new EnumMap<>(AirKind.class);
+    private static final Map<SoilKind, Function<SoilTemplate, Soil>> SOILS =
+            new EnumMap<>(SoilKind.class);
+    private static final Map<PlantKind, Function<PlantTemplate, Plant>> PLANTS =
+            new EnumMap<>(PlantKind.class);
+    private static final Map<AnimalKind, Function<AnimalTemplate, Animal>> ANIMALS =
+            new EnumMap<>(AnimalKind.class);
+
+    static {
+        AIRS.put(AirKind.TROPICAL, TropicalAir::new);
+        AIRS.put(AirKind.POLAR, PolarAir::new);
+        AIRS.put(AirKind.TEMPERATE, TemperateAir::new);
+        AIRS.put(AirKind.DESERT, DesertAir::new);
+        AIRS.put(AirKind.MOUNTAIN, MountainAir::new);
+        SOILS.put(SoilKind.FOREST, ForestSoil::new);
+        SOILS.put(SoilKind.SWAMP, SwampSoil::new);
+        SOILS.put(SoilKind.DESERT, DesertSoil::new);
+        SOILS.put(SoilKind.GRASSLAND, GrasslandSoil::new);
+        SOILS.put(SoilKind.TUNDRA, TundraSoil::new);
+        PLANTS.put(PlantKind.FLOWERING, FloweringPlants::new);
+        PLANTS.put(PlantKind.GYMNOSPERMS, GymnospermsPlants::new);
+        PLANTS.put(PlantKind.FERNS, Ferns::new);
+        PLANTS.put(PlantKind.MOSSES, Mosses::new);
+        PLANTS.put(PlantKind.ALGAE, Algae::new);
+        ANIMALS.put(AnimalKind.HERBIVORES, Herbivores::new);
+        ANIMALS.put(AnimalKind.CARNIVORES, Carnivores::new);
+        ANIMALS.put(AnimalKind.OMNIVORES, Omnivores::new);
+        ANIMALS.put(AnimalKind.DETRITIVORES, Detritivores::new);
+        ANIMALS.put(AnimalKind.PARASITES, Parasites::new);
+    }
+
+    private EntityFactories() {
+
+    }
+
+    /**
+     * Creates the air of a template.
+     *
+     * @param template The template, or null for an input of unknown type.
+     * @return A new air, or null.
+     */
+    public static Air createAir(final AirTemplate template) {
+        return template == null ? null : AIRS.get(template.kind()).apply(template);
+    }
+
+    /**
+     * Creates the soil of a template.
+     *
+     * @param template The template, or null for an input of unknown type.
+     * @return A new soil, or null.
+     */
+    public static Soil createSoil(final SoilTemplate template) {
+        return template == null ? null : SOILS.get(template.kind()).apply(template);
+    }
+
+    /**
+     * Creates the plant of a template.
+     *
+     * @param template The template, or null for an input of unknown type.
+     * @return A new plant, or null.
+     */
+    public static Plant createPlant(final PlantTemplate template) {
+        return template == null ? null : PLANTS.get(template.kind()).apply(template);
+    }
+
+    /**
+     * Creates the animal of a template.
+     *
+     * @param template The template, or null for an input of unknown type.
+     * @return A new animal, or null.
+     */
+    public static Animal createAnimal(final AnimalTemplate template) {
+        return template == null ? null : ANIMALS.get(template.kind()).apply(template);
+    }
+}
@@ -0,0 +1,146 @@
+package main.entities;
+
+import main.entities.Animal.Animal;
+import main.entities.Animal.AnimalKind;
+import main.entities.Animal.AnimalTemplate;
+import main.entities.Plant.Plant;
+import main.entities.Plant.PlantKind;
+import main.entities.Plant.PlantTemplate;
+import main.entities.Water.Water;
+import main.entities.Water.WaterTemplate;
+
+import java.util.ArrayDeque;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Keeps the plants, water sources and animals removed from a map, by kind, and hands
+ * them out again instead of allocating new entities. Entities are only taken back when
+ * a map is populated, never during the steps: a dead animal is released in the step
+ * that removes it, but still takes its turn in that step.
+ * The pool keeps at most MAX_FREE entities of each kind, and lets the GC reclaim the
+ * entities released beyond that, so that a long simulation with many deaths does not
+ * keep all of them alive as long as its map is recycled.
+ * Not thread-safe; the entities are removed in the sequential part of every engine.
+ */
+public final class EntityPool {
+    /** The number of released entities kept per kind (and for the water sources). */
+    public static final int MAX_FREE = 4096;
+
+    private final Map<PlantKind, ArrayDeque<Plant>> plants = new EnumMap<>(PlantKind.class);
+    private final Map<AnimalKind, ArrayDeque<Animal>> animals =
+            new EnumMap<>(AnimalKind.class);
+    private final ArrayDeque<Water> waters = new ArrayDeque<>();
+
+    /**
+     * Keeps a plant that was removed from its cell, unless MAX_FREE plants of its kind
+     * are already kept.
+     *
+     * @param plant The plant, or null.
+     */
+    public void release(final Plant plant) {
+        if (plant != null) {
+            keep(plants.computeIfAbsent(plant.getKind(), kind -> new ArrayDeque<>()), plant);
+        }
+    }
+
+    /**
+     * Keeps a water source that was removed from its cell, unless MAX_FREE are already
+     * kept.
+     *
+     * @param water The water source, or null.
+     */
+    public void release(final Water water) {
+        if (water != null) {
+            keep(waters, water);
+        }
+    }
+
+    /**
+     * Keeps an animal that was removed from the map, unless MAX_FREE animals of its kind
+     * are already kept.
+     *
+     * @param animal The animal, or null.
+     */
+    public void release(final Animal animal) {
+        if (animal != null) {
+            keep(animals.computeIfAbsent(animal.getKind(), kind -> new ArrayDeque<>()),
+                    animal);
+        }
+    }
+
+    private static <T> void keep(final ArrayDeque<T> free, final T entity) {
+        if (free.size() < MAX_FREE) {
+            free.push(entity);
+        }
+    }
+
+    /**
+     * Returns a plant of a template, reusing a released plant of the same kind if any.
+     *
+     * @param template The template, or null for an input of unknown type.
+     * @return The plant, or null.
+     */
+    public Plant createPlant(final PlantTemplate template) {
+        if (template == null) {
+            return null;
+        }
+        ArrayDeque<Plant> free = plants.get(template.kind());
+        if (free == null || free.isEmpty()) {
+            return EntityFactories.createPlant(template);
+        }
+        Plant plant = free.pop();
+        plant.reset(template);
+        return plant;
+    }
+
+    /**
+     * Returns a water source of a template, reusing a released one if any.
+     *
+     * @param template The template.
+     * @return The water source.
+     */
+    public Water createWater(final WaterTemplate template) {
+        if (waters.isEmpty()) {
+            return new Water(template);
+        }
+        Water water = waters.pop();
+        water.reset(template);
+        return water;
+    }
+
+    /**
+     * Returns an animal of a template, reusing a released animal of the same kind if any.
+     *
+     * @param template The template, or null for an input of unknown type.
+     * @return The animal, or null.
+     */
+    public Animal createAnimal(final AnimalTemplate template) {
+        if (template == null) {
+            return null;
+        }
+        ArrayDeque<Animal> free = animals.get(template.kind());
+        if (free == null || free.isEmpty()) {
+            return EntityFactories.createAnimal(template);
+        }
+        Animal animal = free.pop();
+        animal.reset(template);
+        return animal;
+    }
+
+    /**
+     * Returns the number of entities waiting to be reused.
+     *
+     * @return The number of released entities.
+     */
+    public int size() {
+        int size = waters.size();
+        for (ArrayDeque<Plant> free : plants.values()) {
+            size += free.size();
+        }
+        for (ArrayDeque<Animal> free : animals.values()) {
+            size += free.size();
+        }
+        return size;
+    }
+}
@@ -0,0 +1,34 @@
+package main.entities;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Interns the names read from an input, so that the inputs that repeat a name share a
+ * single String, and the later comparisons of equal names start with a reference check.
+ */
+public final class NameTable {
+    private final Map<String, String> names = new HashMap<>();
+
+    /**
+     * Returns the shared instance of a name.
+     *
+     * @param name The name, as read from the input.
+     * @return The first instance of an equal name, or null for null.
+     */
+    public String intern(final String name) {
+        if (name == null) {
+            return null;
+        }
+        return names.computeIfAbsent(name, key -> key);
+    }
+
+    /**
+     * Returns the number of distinct names.
+     *
+     * @return The size of the table.
+     */
+    public int size() {
+        return names.size();
+    }
+}
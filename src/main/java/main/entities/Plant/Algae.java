@@ -1,14 +1,12 @@
 package main.entities.Plant;
 
-import fileio.PlantInput;
-
 public final class Algae extends Plant {
     private static final double BASE_OXYGEN = 0.5;
     private static final double PROBABILITY_VALUE = 20.0;
     private static final double MAX_PERCENTAGE = 100.0;
 
-    public Algae(final PlantInput plantInput) {
-        super(plantInput);
+    public Algae(final PlantTemplate template) {
+        super(template);
     }
 
     /**
@@ -1,14 +1,12 @@
 package main.entities.Plant;
 
-import fileio.PlantInput;
-
 public final class FloweringPlants extends Plant {
     private static final double BASE_OXYGEN = 6.0;
     private static final double PROBABILITY_VALUE = 90.0;
     private static final double MAX_PERCENTAGE = 100.0;
 
-    public FloweringPlants(final PlantInput plantInput) {
-        super(plantInput);
+    public FloweringPlants(final PlantTemplate template) {
+        super(template);
     }
 
     /**
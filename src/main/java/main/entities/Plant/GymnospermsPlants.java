@@ -1,14 +1,12 @@
 package main.entities.Plant;
 
-import fileio.PlantInput;
-
 public final class GymnospermsPlants extends Plant {
     private static final double BASE_OXYGEN = 0.0;
     private static final double PROBABILITY_VALUE = 60.0;
     private static final double MAX_PERCENTAGE = 100.0;
 
-    public GymnospermsPlants(final PlantInput plantInput) {
-        super(plantInput);
+    public GymnospermsPlants(final PlantTemplate template) {
+        super(template);
     }
 
     /**
@@ -1,14 +1,12 @@
 package main.entities.Plant;
 
-import fileio.PlantInput;
-
 public final class Mosses extends Plant {
     private static final double BASE_OXYGEN = 0.8;
     private static final double PROBABILITY_VALUE = 40.0;
     private static final double MAX_PERCENTAGE = 100.0;
 
-    public Mosses(final PlantInput plantInput) {
-        super(plantInput);
+    public Mosses(final PlantTemplate template) {
+        super(template);
     }
 
     /**
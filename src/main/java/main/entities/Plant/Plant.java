@@ -1,11 +1,15 @@
 package main.entities.Plant;
 
-import fileio.PlantInput;
 import lombok.Getter;
 import main.entities.Entity;
+import main.storage.CellStorage;
+import main.storage.CellView;
+import main.storage.GridFlags;
+import main.storage.DoubleField;
+import main.storage.IntField;
 
 @Getter
-public abstract class Plant implements Entity {
+public abstract class Plant extends CellView implements Entity {
     private static final double OXYGEN_BONUS_YOUNG = 0.2;
     private static final double OXYGEN_BONUS_MATURE = 0.7;
     private static final double OXYGEN_BONUS_OLD = 0.4;
@@ -13,35 +17,74 @@ public abstract class Plant implements Entity {
     private static final double GROWTH_THRESHOLD = 1.0;
     private static final double ROUNDING_FACTOR = 100.0;
     private static final double MAX_PERCENTAGE = 100.0;
+    private static final MaturityLevel[] LEVELS = MaturityLevel.values();
 
-    private final String type;
-    private final String name;
+    private PlantTemplate template;
     private double mass;
     private MaturityLevel level;
     private double growthRate;
     private boolean isScanned;
 
-    public Plant(final PlantInput plantInput) {
-        this.type = plantInput.getType();
-        this.name = plantInput.getName();
-        this.mass = plantInput.getMass();
+    public Plant(final PlantTemplate template) {
+        reset(template);
+    }
+
+    /**
+     * Brings the plant back to the state of a new plant of a template, so that a plant
+     * removed from a map can be reused (see EntityPool). The template must be of the
+     * same kind. The plant must not be placed on a map.
+     *
+     * @param source The template.
+     */
+    public final void reset(final PlantTemplate source) {
+        this.template = source;
+        this.mass = source.mass();
         this.level = MaturityLevel.YOUNG;
         this.growthRate = 0.0;
         this.isScanned = false;
     }
 
+    /**
+     * Returns the type of the plant.
+     *
+     * @return The type.
+     */
+    public String getType() {
+        return template.kind().getTypeName();
+    }
+
+    /**
+     * Returns the kind of the plant.
+     *
+     * @return The kind.
+     */
+    public PlantKind getKind() {
+        return template.kind();
+    }
+
+    /**
+     * Returns the name of the plant.
+     *
+     * @return The name.
+     */
+    @Override
+    public String getName() {
+        return template.name();
+    }
+
     /**
      * Marks the plant as scanned by the robot.
      */
     public void scan() {
         isScanned = true;
+        setFlag(GridFlags.Flag.SCANNED_PLANT);
     }
 
     /**
      * Indicates the plant has been eaten.
      */
     public void beEaten() {
-        mass = 0;
+        setMass(0);
     }
 
     /**
@@ -66,7 +109,7 @@ public abstract class Plant implements Entity {
      * @return The oxygen bonus amount.
      */
     public double getMaturityOxygenRate() {
-        return switch (level) {
+        return switch (getLevel()) {
             case YOUNG -> OXYGEN_BONUS_YOUNG;
             case MATURE -> OXYGEN_BONUS_MATURE;
             case OLD -> OXYGEN_BONUS_OLD;
@@ -81,7 +124,7 @@ public abstract class Plant implements Entity {
      * @return The total oxygen production.
      */
     public double getOxygenLevel() {
-        if (level == MaturityLevel.DEAD) {
+        if (getLevel() == MaturityLevel.DEAD) {
             return OXYGEN_BONUS_NONE;
         }
         return getMaturityOxygenRate() + getOxygen();
@@ -94,11 +137,12 @@ public abstract class Plant implements Entity {
      * @param value The amount to grow.
      */
     public void grow(final double value) {
-        if (level == MaturityLevel.DEAD) {
+        if (getLevel() == MaturityLevel.DEAD) {
             return;
         }
-        growthRate += value;
-        if (growthRate >= GROWTH_THRESHOLD) {
+        double rate = getGrowthRate() + value;
+        setGrowthRate(rate);
+        if (rate >= GROWTH_THRESHOLD) {
             nextMaturityLevel();
         }
     }
@@ -107,22 +151,22 @@ public abstract class Plant implements Entity {
      * Advances the plant to the next maturity level and resets growth rate.
      */
     public void nextMaturityLevel() {
-        switch (level) {
+        switch (getLevel()) {
             case YOUNG:
-                level = MaturityLevel.MATURE;
+                setLevel(MaturityLevel.MATURE);
                 break;
             case MATURE:
-                level = MaturityLevel.OLD;
+                setLevel(MaturityLevel.OLD);
                 break;
             case OLD:
-                level = MaturityLevel.DEAD;
+                setLevel(MaturityLevel.DEAD);
                 break;
             case DEAD:
                 break;
             default:
                 break;
         }
-        growthRate = 0;
+        setGrowthRate(0);
     }
 
     /**
@@ -131,7 +175,72 @@ public abstract class Plant implements Entity {
      * @return true if the plant is dead.
      */
     public boolean isDead() {
-        return level == MaturityLevel.DEAD || mass <= 0;
+        return getLevel() == MaturityLevel.DEAD || getMass() <= 0;
+    }
+
+    /**
+     * Returns the mass, read from the storage slot if the plant is attached.
+     *
+     * @return The mass of the plant.
+     */
+    public double getMass() {
+        return isAttached() ? read(DoubleField.PLANT_MASS) : mass;
+    }
+
+    private void setMass(final double mass) {
+        if (isAttached()) {
+            write(DoubleField.PLANT_MASS, mass);
+        } else {
+            this.mass = mass;
+        }
+    }
+
+    /**
+     * Returns the maturity level, read from the storage slot if the plant is attached.
+     *
+     * @return The maturity level.
+     */
+    public MaturityLevel getLevel() {
+        return isAttached() ? LEVELS[read(IntField.PLANT_LEVEL)] : level;
+    }
+
+    private void setLevel(final MaturityLevel level) {
+        if (isAttached()) {
+            write(IntField.PLANT_LEVEL, level.ordinal());
+        } else {
+            this.level = level;
+        }
+    }
+
+    /**
+     * Returns the growth accumulated towards the next maturity level.
+     *
+     * @return The growth rate.
+     */
+    public double getGrowthRate() {
+        return isAttached() ? read(DoubleField.PLANT_GROWTH_RATE) : growthRate;
+    }
+
+    private void setGrowthRate(final double growthRate) {
+        if (isAttached()) {
+            write(DoubleField.PLANT_GROWTH_RATE, growthRate);
+        } else {
+            this.growthRate = growthRate;
+        }
+    }
+
+    @Override
+    protected final void writeState(final CellStorage target, final int targetSlot) {
+        target.set(DoubleField.PLANT_MASS, targetSlot, getMass());
+        target.set(DoubleField.PLANT_GROWTH_RATE, targetSlot, getGrowthRate());
+        target.set(IntField.PLANT_LEVEL, targetSlot, getLevel().ordinal());
+    }
+
+    @Override
+    protected final void readState() {
+        mass = read(DoubleField.PLANT_MASS);
+        growthRate = read(DoubleField.PLANT_GROWTH_RATE);
+        level = LEVELS[read(IntField.PLANT_LEVEL)];
     }
 
     /**
@@ -0,0 +1,44 @@
+package main.entities.Plant;
+
+/**
+ * The kinds of plant, with the type name they have in the input and the output.
+ */
+public enum PlantKind {
+    FLOWERING("FloweringPlants"),
+    GYMNOSPERMS("GymnospermsPlants"),
+    FERNS("Ferns"),
+    MOSSES("Mosses"),
+    ALGAE("Algae");
+
+    private static final PlantKind[] KINDS = values();
+
+    private final String typeName;
+
+    PlantKind(final String typeName) {
+        this.typeName = typeName;
+    }
+
+    /**
+     * Returns the type name of the kind.
+     *
+     * @return The name used for the "type" of the input and the output.
+     */
+    public String getTypeName() {
+        return typeName;
+    }
+
+    /**
+     * Finds the kind of a type name.
+     *
+     * @param typeName The "type" of an input.
+     * @return The kind, or null if the type is unknown.
+     */
+    public static PlantKind fromTypeName(final String typeName) {
+        for (PlantKind kind : KINDS) {
+            if (kind.typeName.equals(typeName)) {
+                return kind;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,25 @@
+package main.entities.Plant;
+
+import fileio.PlantInput;
+import main.entities.NameTable;
+
+/**
+ * The descriptors of a plant input, shared by the plants of all its sections.
+ * The mass is only the starting mass of each plant.
+ */
+public record PlantTemplate(PlantKind kind, String name, double mass) {
+    /**
+     * Creates the template of an input.
+     *
+     * @param input The plant input.
+     * @param names The names of the simulation.
+     * @return The template, or null if the type of the input is unknown.
+     */
+    public static PlantTemplate of(final PlantInput input, final NameTable names) {
+        PlantKind kind = PlantKind.fromTypeName(input.getType());
+        if (kind == null) {
+            return null;
+        }
+        return new PlantTemplate(kind, names.intern(input.getName()), input.getMass());
+    }
+}
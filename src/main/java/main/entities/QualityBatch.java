@@ -0,0 +1,255 @@
+package main.entities;
+
+import main.entities.Air.Air;
+import main.entities.Soil.Soil;
+
+import java.util.Arrays;
+
+/**
+ * Computes the quality scores of many airs or soils at once, for the loops over the
+ * whole map (printMap, the snapshots). The entities are added as rows: each one writes
+ * the terms of its score into the columns of the batch, and compute then runs the
+ * arithmetic of all the rows through a QualityKernel, at the width of the SIMD vectors
+ * when the build includes the vector kernel (mvn -Pvector) and the jdk.incubator.vector
+ * module is available (--add-modules), and one row at a time otherwise. The entities
+ * whose score is still cached are not computed again, and the others keep the score
+ * computed by the batch.
+ */
+public final class QualityBatch {
+    /** The most terms in the score of an entity, the weather influence included. */
+    public static final int TERMS = 4;
+    private static final String VECTOR_MODULE = "jdk.incubator.vector";
+    private static final String VECTOR_KERNEL = "main.entities.VectorQualityKernel";
+    private static final QualityKernel KERNEL = selectKernel();
+
+    private final QualityKernel kernel;
+    private final boolean toxicity;
+    private final double moderateFrom;
+    private final double goodAbove;
+    private final QualityTerms[] entities;
+    private final double[][] values;
+    private final double[][] weights;
+    private final double[] maxScores;
+    private final double[] qualities;
+    private final double[] toxicities;
+    private final boolean[] toxic;
+    private final boolean[] notPoor;
+    private final boolean[] good;
+    private int count;
+    private int term;
+
+    private QualityBatch(final int capacity, final boolean toxicity, final double moderateFrom,
+                         final double goodAbove, final QualityKernel kernel) {
+        this.kernel = kernel;
+        this.toxicity = toxicity;
+        this.moderateFrom = moderateFrom;
+        this.goodAbove = goodAbove;
+        this.entities = new QualityTerms[capacity];
+        this.values = new double[TERMS][capacity];
+        this.weights = new double[TERMS][capacity];
+        this.maxScores = new double[capacity];
+        this.qualities = new double[capacity];
+        this.toxicities = new double[capacity];
+        this.toxic = new boolean[capacity];
+        this.notPoor = new boolean[capacity];
+        this.good = new boolean[capacity];
+    }
+
+    /**
+     * Creates a batch of airs, which also computes their toxicity.
+     *
+     * @param capacity The largest number of airs.
+     * @return The batch.
+     */
+    public static QualityBatch forAir(final int capacity) {
+        return forAir(capacity, KERNEL);
+    }
+
+    /**
+     * Creates a batch of airs that uses the given kernel.
+     *
+     * @param capacity The largest number of airs.
+     * @param kernel The kernel.
+     * @return The batch.
+     */
+    public static QualityBatch forAir(final int capacity, final QualityKernel kernel) {
+        return new QualityBatch(capacity, true, Air.MIN_MODERATE_QUALITY,
+                Air.MIN_GOOD_QUALITY, kernel);
+    }
+
+    /**
+     * Creates a batch of soils.
+     *
+     * @param capacity The largest number of soils.
+     * @return The batch.
+     */
+    public static QualityBatch forSoil(final int capacity) {
+        return forSoil(capacity, KERNEL);
+    }
+
+    /**
+     * Creates a batch of soils that uses the given kernel.
+     *
+     * @param capacity The largest number of soils.
+     * @param kernel The kernel.
+     * @return The batch.
+     */
+    public static QualityBatch forSoil(final int capacity, final QualityKernel kernel) {
+        return new QualityBatch(capacity, false, Soil.MIN_MODERATE_QUALITY,
+                Soil.MIN_GOOD_QUALITY, kernel);
+    }
+
+    /**
+     * Returns the kernel of the batches created without one.
+     *
+     * @return The vector kernel if it was built and its module is present, else the scalar.
+     */
+    public static QualityKernel getDefaultKernel() {
+        return KERNEL;
+    }
+
+    /**
+     * Loads the vector kernel by name: it is only compiled by the vector profile of the
+     * build (src/vector/java), so that the default build never touches the incubator
+     * module.
+     */
+    private static QualityKernel selectKernel() {
+        if (ModuleLayer.boot().findModule(VECTOR_MODULE).isEmpty()) {
+            return new ScalarQualityKernel();
+        }
+        try {
+            return (QualityKernel) Class.forName(VECTOR_KERNEL)
+                    .getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return new ScalarQualityKernel();
+        }
+    }
+
+    /**
+     * Empties the batch.
+     */
+    public void clear() {
+        Arrays.fill(entities, 0, count, null);
+        count = 0;
+    }
+
+    /**
+     * Adds an air as the next row.
+     *
+     * @param air The air.
+     * @return The index of the row.
+     */
+    public int add(final Air air) {
+        maxScores[count] = air.maxScore();
+        return addRow(air);
+    }
+
+    /**
+     * Adds a soil as the next row.
+     *
+     * @param soil The soil.
+     * @return The index of the row.
+     */
+    public int add(final Soil soil) {
+        return addRow(soil);
+    }
+
+    private int addRow(final QualityTerms entity) {
+        entities[count] = entity;
+        term = 0;
+        if (entity.hasQuality()) {
+            // The kernel computes the row anyway; compute puts the cached score back
+            term(0, 0);
+        } else {
+            entity.addQualityTerms(this);
+        }
+        while (term < TERMS) {
+            term(0, 0);
+        }
+        return count++;
+    }
+
+    /**
+     * Adds a term to the score of the row being added. Called by addQualityTerms.
+     *
+     * @param value The value.
+     * @param weight Its weight, negative for a penalty.
+     * @return This batch.
+     */
+    public QualityBatch term(final double value, final double weight) {
+        values[term][count] = value;
+        weights[term][count] = weight;
+        term++;
+        return this;
+    }
+
+    /**
+     * Computes the scores of all the rows, and the toxicity of the airs.
+     */
+    public void compute() {
+        kernel.qualities(values, weights, qualities, count);
+        for (int i = 0; i < count; i++) {
+            if (entities[i].hasQuality()) {
+                qualities[i] = entities[i].calculateQuality();
+            } else {
+                entities[i].cacheQuality(qualities[i]);
+            }
+        }
+        if (toxicity) {
+            kernel.toxicities(qualities, maxScores, toxicities, toxic, count);
+        }
+        kernel.levels(qualities, moderateFrom, goodAbove, notPoor, good, count);
+    }
+
+    /**
+     * Returns the number of rows.
+     *
+     * @return The number of rows.
+     */
+    public int size() {
+        return count;
+    }
+
+    /**
+     * Returns the score of a row, once computed.
+     *
+     * @param row The index of the row.
+     * @return The quality score.
+     */
+    public double getQuality(final int row) {
+        return qualities[row];
+    }
+
+    /**
+     * Returns the toxicity of the air of a row, once computed.
+     *
+     * @param row The index of the row.
+     * @return The toxicity, as Air.calculateToxicity.
+     */
+    public double getToxicity(final int row) {
+        return toxicities[row];
+    }
+
+    /**
+     * Checks if the air of a row is toxic, once computed.
+     *
+     * @param row The index of the row.
+     * @return The result of Air.checkToxicity.
+     */
+    public boolean isToxic(final int row) {
+        return toxic[row];
+    }
+
+    /**
+     * Returns the description of the score of a row, once computed.
+     *
+     * @param row The index of the row.
+     * @return "poor", "moderate", or "good".
+     */
+    public String getInterpretation(final int row) {
+        if (good[row]) {
+            return "good";
+        }
+        return notPoor[row] ? "moderate" : "poor";
+    }
+}
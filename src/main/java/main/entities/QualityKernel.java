@@ -0,0 +1,51 @@
+package main.entities;
+
+/**
+ * The arithmetic of a QualityBatch, over columns of primitive values.
+ * Every implementation gives exactly the results of the scalar code of the entities:
+ * the same operations, in the same order, on the same doubles.
+ */
+public interface QualityKernel {
+    /** The upper bound of the normalized scores. */
+    double MAX_PERCENTAGE = 100.0;
+    /** The scores are kept to two decimals, as Math.round(v * 100) / 100. */
+    double ROUNDING_FACTOR = 100.0;
+    /** The share of the maximum score above which the air is toxic. */
+    double TOXICITY_THRESHOLD_RATIO = 0.8;
+
+    /**
+     * Sums the weighted terms of every row, then normalizes and rounds the sums.
+     *
+     * @param values The values of the terms, one column per term.
+     * @param weights The weights of the terms, in the same layout.
+     * @param qualities Receives the scores.
+     * @param count The number of rows.
+     */
+    void qualities(double[][] values, double[][] weights, double[] qualities, int count);
+
+    /**
+     * Computes the toxicity of the air of every row (see Air.calculateToxicity) and
+     * whether it is toxic (see Air.checkToxicity).
+     *
+     * @param qualities The quality scores.
+     * @param maxScores The maximum score of the type of each air.
+     * @param toxicities Receives the toxicities.
+     * @param toxic Receives whether each air is toxic.
+     * @param count The number of rows.
+     */
+    void toxicities(double[] qualities, double[] maxScores, double[] toxicities,
+                    boolean[] toxic, int count);
+
+    /**
+     * Sorts the scores into the buckets of interpretationQuality.
+     *
+     * @param qualities The quality scores.
+     * @param moderateFrom The lowest score that is not "poor".
+     * @param goodAbove The score above which the quality is "good".
+     * @param notPoor Receives whether each score is at least moderate.
+     * @param good Receives whether each score is good.
+     * @param count The number of rows.
+     */
+    void levels(double[] qualities, double moderateFrom, double goodAbove,
+                boolean[] notPoor, boolean[] good, int count);
+}
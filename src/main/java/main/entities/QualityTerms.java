@@ -0,0 +1,36 @@
+package main.entities;
+
+/**
+ * An entity whose quality score is a sum of weighted terms, normalized to [0, 100] and
+ * rounded to two decimals, so that a QualityBatch can compute it for many cells at once.
+ */
+public interface QualityTerms {
+    /**
+     * Checks if the entity still holds the score of its last calculation.
+     *
+     * @return true if calculateQuality would not compute anything.
+     */
+    boolean hasQuality();
+
+    /**
+     * Returns the quality score, computed one entity at a time.
+     *
+     * @return The quality score.
+     */
+    double calculateQuality();
+
+    /**
+     * Adds the terms of the score to the current row of a batch, in the order in which
+     * calculateQuality sums them, so that both give exactly the same score.
+     *
+     * @param batch The batch.
+     */
+    void addQualityTerms(QualityBatch batch);
+
+    /**
+     * Keeps a score computed by a batch, until the entity changes.
+     *
+     * @param quality The score.
+     */
+    void cacheQuality(double quality);
+}
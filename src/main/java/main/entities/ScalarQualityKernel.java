@@ -0,0 +1,66 @@
+package main.entities;
+
+/**
+ * The QualityKernel of the JVMs without the jdk.incubator.vector module: one row at
+ * a time, as the entities compute their own scores. Also finishes the rows left over
+ * by the vector kernel.
+ */
+public final class ScalarQualityKernel implements QualityKernel {
+    @Override
+    public void qualities(final double[][] values, final double[][] weights,
+                          final double[] qualities, final int count) {
+        qualities(values, weights, qualities, 0, count);
+    }
+
+    @Override
+    public void toxicities(final double[] qualities, final double[] maxScores,
+                           final double[] toxicities, final boolean[] toxic, final int count) {
+        toxicities(qualities, maxScores, toxicities, toxic, 0, count);
+    }
+
+    @Override
+    public void levels(final double[] qualities, final double moderateFrom,
+                       final double goodAbove, final boolean[] notPoor, final boolean[] good,
+                       final int count) {
+        levels(qualities, moderateFrom, goodAbove, notPoor, good, 0, count);
+    }
+
+    static void qualities(final double[][] values, final double[][] weights,
+                          final double[] qualities, final int from, final int to) {
+        for (int i = from; i < to; i++) {
+            double score = values[0][i] * weights[0][i];
+            for (int term = 1; term < values.length; term++) {
+                score += values[term][i] * weights[term][i];
+            }
+            qualities[i] = round(Math.max(0, Math.min(MAX_PERCENTAGE, score)));
+        }
+    }
+
+    static void toxicities(final double[] qualities, final double[] maxScores,
+                           final double[] toxicities, final boolean[] toxic,
+                           final int from, final int to) {
+        for (int i = from; i < to; i++) {
+            double maxScore = maxScores[i];
+            double toxicity = 0;
+            if (maxScore != 0) {
+                double toxicityAQ = MAX_PERCENTAGE * (1.0 - (qualities[i] / maxScore));
+                toxicity = round(Math.max(0, Math.min(MAX_PERCENTAGE, toxicityAQ)));
+            }
+            toxicities[i] = toxicity;
+            toxic[i] = toxicity > TOXICITY_THRESHOLD_RATIO * maxScore;
+        }
+    }
+
+    static void levels(final double[] qualities, final double moderateFrom,
+                       final double goodAbove, final boolean[] notPoor, final boolean[] good,
+                       final int from, final int to) {
+        for (int i = from; i < to; i++) {
+            notPoor[i] = !(qualities[i] < moderateFrom);
+            good[i] = qualities[i] > goodAbove;
+        }
+    }
+
+    private static double round(final double value) {
+        return Math.round(value * ROUNDING_FACTOR) / ROUNDING_FACTOR;
+    }
+}
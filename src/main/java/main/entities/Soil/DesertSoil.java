@@ -1,8 +1,8 @@
 package main.entities.Soil;
 
 import com.fasterxml.jackson.databind.node.ObjectNode;
-import fileio.SoilInput;
 import lombok.Getter;
+import main.entities.QualityBatch;
 
 @Getter
 public final class DesertSoil extends Soil {
@@ -11,11 +11,17 @@ public final class DesertSoil extends Soil {
     private static final double SALINITY_PENALTY_WEIGHT = 2.0;
     private static final double BASE_PROBABILITY = 100.0;
 
-    private final double salinity;
+    public DesertSoil(final SoilTemplate template) {
+        super(template);
+    }
 
-    public DesertSoil(final SoilInput soilInput) {
-        super(soilInput);
-        this.salinity = soilInput.getSalinity();
+    /**
+     * Returns the salinity of the soil.
+     *
+     * @return The salinity.
+     */
+    public double getSalinity() {
+        return getTemplate().salinity();
     }
 
     /**
@@ -25,7 +31,7 @@ public final class DesertSoil extends Soil {
      */
     @Override
     public void addSpecificFields(final ObjectNode node) {
-        node.put("salinity", salinity);
+        node.put("salinity", getSalinity());
     }
 
     /**
@@ -34,13 +40,25 @@ public final class DesertSoil extends Soil {
      * @return The normalized and rounded quality score.
      */
     @Override
-    public double calculateQuality() {
-        double score = (nitrogen * NITROGEN_WEIGHT)
-                + (waterRetention * RETENTION_QUALITY_WEIGHT)
-                - (salinity * SALINITY_PENALTY_WEIGHT);
+    protected double computeQuality() {
+        double score = (getNitrogen() * NITROGEN_WEIGHT)
+                + (getWaterRetention() * RETENTION_QUALITY_WEIGHT)
+                - (getSalinity() * SALINITY_PENALTY_WEIGHT);
         return round(normalize(score));
     }
 
+    /**
+     * Adds the terms of the Desert Soil score to a batch.
+     *
+     * @param batch The batch.
+     */
+    @Override
+    protected void addScoreTerms(final QualityBatch batch) {
+        batch.term(getNitrogen(), NITROGEN_WEIGHT)
+                .term(getWaterRetention(), RETENTION_QUALITY_WEIGHT)
+                .term(getSalinity(), -SALINITY_PENALTY_WEIGHT);
+    }
+
     /**
      * Calculates the probability of the robot getting stuck in Desert Soil.
      *
@@ -48,7 +66,7 @@ public final class DesertSoil extends Soil {
      */
     @Override
     public double calculateProbability() {
-        double probability = (BASE_PROBABILITY - waterRetention + salinity);
+        double probability = (BASE_PROBABILITY - getWaterRetention() + getSalinity());
         return round(probability);
     }
 }
@@ -1,8 +1,8 @@
 package main.entities.Soil;
 
 import com.fasterxml.jackson.databind.node.ObjectNode;
-import fileio.SoilInput;
 import lombok.Getter;
+import main.entities.QualityBatch;
 
 @Getter
 public final class ForestSoil extends Soil {
@@ -15,11 +15,17 @@ public final class ForestSoil extends Soil {
     private static final double PROBABILITY_DIVISOR = 80.0;
     private static final double MAX_PERCENTAGE = 100.0;
 
-    private final double leafLitter;
+    public ForestSoil(final SoilTemplate template) {
+        super(template);
+    }
 
-    public ForestSoil(final SoilInput soilInput) {
-        super(soilInput);
-        this.leafLitter = soilInput.getLeafLitter();
+    /**
+     * Returns the leaf litter of the soil.
+     *
+     * @return The leaf litter.
+     */
+    public double getLeafLitter() {
+        return getTemplate().leafLitter();
     }
 
     /**
@@ -29,7 +35,7 @@ public final class ForestSoil extends Soil {
      */
     @Override
     public void addSpecificFields(final ObjectNode node) {
-        node.put("leafLitter", leafLitter);
+        node.put("leafLitter", getLeafLitter());
     }
 
     /**
@@ -38,14 +44,27 @@ public final class ForestSoil extends Soil {
      * @return The normalized and rounded quality score.
      */
     @Override
-    public double calculateQuality() {
-        double score = (nitrogen * NITROGEN_WEIGHT)
-                + (organicMatter * ORGANIC_MATTER_WEIGHT)
-                + (waterRetention * RETENTION_QUALITY_WEIGHT)
-                + (leafLitter * LEAF_LITTER_QUALITY_WEIGHT);
+    protected double computeQuality() {
+        double score = (getNitrogen() * NITROGEN_WEIGHT)
+                + (getOrganicMatter() * ORGANIC_MATTER_WEIGHT)
+                + (getWaterRetention() * RETENTION_QUALITY_WEIGHT)
+                + (getLeafLitter() * LEAF_LITTER_QUALITY_WEIGHT);
         return round(normalize(score));
     }
 
+    /**
+     * Adds the terms of the Forest Soil score to a batch.
+     *
+     * @param batch The batch.
+     */
+    @Override
+    protected void addScoreTerms(final QualityBatch batch) {
+        batch.term(getNitrogen(), NITROGEN_WEIGHT)
+                .term(getOrganicMatter(), ORGANIC_MATTER_WEIGHT)
+                .term(getWaterRetention(), RETENTION_QUALITY_WEIGHT)
+                .term(getLeafLitter(), LEAF_LITTER_QUALITY_WEIGHT);
+    }
+
     /**
      * Calculates the probability of the robot getting stuck in Forest Soil.
      *
@@ -53,8 +72,8 @@ public final class ForestSoil extends Soil {
      */
     @Override
     public double calculateProbability() {
-        double probability = ((waterRetention * RETENTION_PROB_WEIGHT)
-                + (leafLitter * LEAF_LITTER_PROB_WEIGHT))
+        double probability = ((getWaterRetention() * RETENTION_PROB_WEIGHT)
+                + (getLeafLitter() * LEAF_LITTER_PROB_WEIGHT))
                 / PROBABILITY_DIVISOR * MAX_PERCENTAGE;
         return round(probability);
     }
@@ -1,8 +1,8 @@
 package main.entities.Soil;
 
 import com.fasterxml.jackson.databind.node.ObjectNode;
-import fileio.SoilInput;
 import lombok.Getter;
+import main.entities.QualityBatch;
 
 @Getter
 public final class GrasslandSoil extends Soil {
@@ -14,11 +14,17 @@ public final class GrasslandSoil extends Soil {
     private static final double PROBABILITY_DIVISOR = 75.0;
     private static final double MAX_PERCENTAGE = 100.0;
 
-    private final double rootDensity;
+    public GrasslandSoil(final SoilTemplate template) {
+        super(template);
+    }
 
-    public GrasslandSoil(final SoilInput soilInput) {
-        super(soilInput);
-        this.rootDensity = soilInput.getRootDensity();
+    /**
+     * Returns the root density of the soil.
+     *
+     * @return The root density.
+     */
+    public double getRootDensity() {
+        return getTemplate().rootDensity();
     }
 
     /**
@@ -28,7 +34,7 @@ public final class GrasslandSoil extends Soil {
      */
     @Override
     public void addSpecificFields(final ObjectNode node) {
-        node.put("rootDensity", rootDensity);
+        node.put("rootDensity", getRootDensity());
     }
 
     /**
@@ -37,13 +43,25 @@ public final class GrasslandSoil extends Soil {
      * @return The normalized and rounded quality score.
      */
     @Override
-    public double calculateQuality() {
-        double score = (nitrogen * NITROGEN_WEIGHT)
-                + (organicMatter * ORGANIC_MATTER_WEIGHT)
-                + (rootDensity * ROOT_DENSITY_QUALITY_WEIGHT);
+    protected double computeQuality() {
+        double score = (getNitrogen() * NITROGEN_WEIGHT)
+                + (getOrganicMatter() * ORGANIC_MATTER_WEIGHT)
+                + (getRootDensity() * ROOT_DENSITY_QUALITY_WEIGHT);
         return round(normalize(score));
     }
 
+    /**
+     * Adds the terms of the Grassland Soil score to a batch.
+     *
+     * @param batch The batch.
+     */
+    @Override
+    protected void addScoreTerms(final QualityBatch batch) {
+        batch.term(getNitrogen(), NITROGEN_WEIGHT)
+                .term(getOrganicMatter(), ORGANIC_MATTER_WEIGHT)
+                .term(getRootDensity(), ROOT_DENSITY_QUALITY_WEIGHT);
+    }
+
     /**
      * Calculates the probability of the robot getting stuck in Grassland Soil.
      *
@@ -51,7 +69,8 @@ public final class GrasslandSoil extends Soil {
      */
     @Override
     public double calculateProbability() {
-        double probability = ((BASE_CONST - rootDensity) + (waterRetention * RETENTION_WEIGHT))
+        double probability = ((BASE_CONST - getRootDensity())
+                + (getWaterRetention() * RETENTION_WEIGHT))
                 / PROBABILITY_DIVISOR * MAX_PERCENTAGE;
         return round(probability);
     }
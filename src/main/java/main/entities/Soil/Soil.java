@@ -1,33 +1,106 @@
 package main.entities.Soil;
 
 import com.fasterxml.jackson.databind.node.ObjectNode;
-import fileio.SoilInput;
+import lombok.AccessLevel;
 import lombok.Getter;
 import main.entities.Entity;
+import main.entities.QualityBatch;
+import main.entities.QualityTerms;
+import main.storage.CellStorage;
+import main.storage.CellView;
+import main.storage.DoubleField;
 
+/**
+ * Base class of the soil of a section. The quality score is computed on the first read
+ * and kept until the water retention or the organic matter changes.
+ */
 @Getter
-public abstract class Soil implements Entity {
-    private static final double MIN_MODERATE_QUALITY = 40.0;
-    private static final double MIN_GOOD_QUALITY = 70.0;
+public abstract class Soil extends CellView implements Entity, QualityTerms {
+    public static final double MIN_MODERATE_QUALITY = 40.0;
+    public static final double MIN_GOOD_QUALITY = 70.0;
     private static final double MAX_PERCENTAGE = 100.0;
     private static final double ROUNDING_FACTOR = 100.0;
 
-    private final String type;
-    private final String name;
-    private final double mass;
-    protected double nitrogen;
+    private final SoilTemplate template;
     protected double waterRetention;
-    protected double soilpH;
     protected double organicMatter;
+    /** The last score of computeQuality, or NaN when it has to be computed again. */
+    @Getter(AccessLevel.NONE)
+    private double quality = Double.NaN;
 
-    public Soil(final SoilInput soilInput) {
-        this.type = soilInput.getType();
-        this.name = soilInput.getName();
-        this.mass = soilInput.getMass();
-        this.nitrogen = soilInput.getNitrogen();
-        this.waterRetention = soilInput.getWaterRetention();
-        this.soilpH = soilInput.getSoilpH();
-        this.organicMatter = soilInput.getOrganicMatter();
+    public Soil(final SoilTemplate template) {
+        this.template = template;
+        this.waterRetention = template.waterRetention();
+        this.organicMatter = template.organicMatter();
+    }
+
+    /**
+     * Returns the type of the soil.
+     *
+     * @return The type.
+     */
+    public String getType() {
+        return template.kind().getTypeName();
+    }
+
+    /**
+     * Returns the kind of the soil.
+     *
+     * @return The kind.
+     */
+    public SoilKind getKind() {
+        return template.kind();
+    }
+
+    /**
+     * Returns the name of the soil.
+     *
+     * @return The name.
+     */
+    @Override
+    public String getName() {
+        return template.name();
+    }
+
+    /**
+     * Returns the mass of the soil.
+     *
+     * @return The mass.
+     */
+    public double getMass() {
+        return template.mass();
+    }
+
+    /**
+     * Returns the nitrogen level of the soil.
+     *
+     * @return The nitrogen level.
+     */
+    public double getNitrogen() {
+        return template.nitrogen();
+    }
+
+    /**
+     * Returns the pH of the soil.
+     *
+     * @return The pH.
+     */
+    public double getSoilpH() {
+        return template.soilpH();
+    }
+
+    /**
+     * Returns the quality score of the soil, computed again only if the soil changed
+     * since the last call.
+     *
+     * @return The quality score.
+     */
+    @Override
+    public final double calculateQuality() {
+        if (Double.isNaN(quality)) {
+            quality = computeQuality();
+        }
+        return quality;
     }
 
     /**
@@ -36,7 +109,42 @@ public abstract class Soil implements Entity {
      *
      * @return The calculated quality score.
      */
-    public abstract double calculateQuality();
+    protected abstract double computeQuality();
+
+    /**
+     * Discards the cached quality score. Called whenever a value it depends on changes.
+     */
+    protected final void invalidateQuality() {
+        quality = Double.NaN;
+    }
+
+    @Override
+    public final boolean hasQuality() {
+        return !Double.isNaN(quality);
+    }
+
+    @Override
+    public final void cacheQuality(final double score) {
+        quality = score;
+    }
+
+    /**
+     * Adds the terms of computeQuality to a batch.
+     *
+     * @param batch The batch.
+     */
+    @Override
+    public final void addQualityTerms(final QualityBatch batch) {
+        addScoreTerms(batch);
+    }
+
+    /**
+     * Adds the weighted terms that computeQuality sums, in the same order; a penalty is
+     * a term with a negative weight.
+     *
+     * @param batch The batch.
+     */
+    protected abstract void addScoreTerms(QualityBatch batch);
 
     /**
      * Interprets the numeric quality score into a one-word description.
@@ -44,7 +152,16 @@ public abstract class Soil implements Entity {
      * @return "poor", "moderate", or "good".
      */
     public String interpretationQuality() {
-        double soilQualityScore = calculateQuality();
+        return interpretationQuality(calculateQuality());
+    }
+
+    /**
+     * Interprets a quality score of the soil into a one-word description.
+     *
+     * @param soilQualityScore The score, as returned by calculateQuality.
+     * @return "poor", "moderate", or "good".
+     */
+    public static String interpretationQuality(final double soilQualityScore) {
         if (soilQualityScore < MIN_MODERATE_QUALITY) {
             return "poor";
         } else if (soilQualityScore > MIN_GOOD_QUALITY) {
@@ -77,8 +194,30 @@ public abstract class Soil implements Entity {
      * @param value The amount to add to water retention.
      */
     public void updateWaterRetention(final double value) {
-        waterRetention += value;
-        waterRetention = round(waterRetention);
+        invalidateQuality();
+        if (isAttached()) {
+            addRounded(DoubleField.SOIL_WATER_RETENTION, value);
+        } else {
+            setWaterRetention(round(getWaterRetention() + value));
+        }
+    }
+
+    /**
+     * Applies updateWaterRetention(value) the given number of times, in constant time.
+     * Once rounded, the water retention is a whole number of hundredths, so every further
+     * update adds the same number of hundredths.
+     *
+     * @param value The amount to add each time, a multiple of 0.01.
+     * @param times The number of updates.
+     */
+    public void updateWaterRetention(final double value, final long times) {
+        if (times == 0) {
+            return;
+        }
+        updateWaterRetention(value);
+        long hundredths = Math.round(getWaterRetention() * ROUNDING_FACTOR)
+                + Math.round(value * ROUNDING_FACTOR) * (times - 1);
+        setWaterRetention(hundredths / ROUNDING_FACTOR);
     }
 
     /**
@@ -88,8 +227,70 @@ public abstract class Soil implements Entity {
      * @param value The amount to add to organic matter.
      */
     public void updateOrganicMatter(final double value) {
-        organicMatter += value;
-        organicMatter = round(organicMatter);
+        invalidateQuality();
+        if (isAttached()) {
+            addRounded(DoubleField.SOIL_ORGANIC_MATTER, value);
+        } else {
+            setOrganicMatter(round(getOrganicMatter() + value));
+        }
+    }
+
+    /**
+     * Returns the water retention, read from the storage slot if the soil is attached.
+     *
+     * @return The water retention.
+     */
+    public double getWaterRetention() {
+        return isAttached() ? read(DoubleField.SOIL_WATER_RETENTION) : waterRetention;
+    }
+
+    /**
+     * Sets the water retention, in the storage slot if the soil is attached.
+     *
+     * @param waterRetention The new water retention.
+     */
+    protected void setWaterRetention(final double waterRetention) {
+        invalidateQuality();
+        if (isAttached()) {
+            write(DoubleField.SOIL_WATER_RETENTION, waterRetention);
+        } else {
+            this.waterRetention = waterRetention;
+        }
+    }
+
+    /**
+     * Returns the organic matter, read from the storage slot if the soil is attached.
+     *
+     * @return The organic matter.
+     */
+    public double getOrganicMatter() {
+        return isAttached() ? read(DoubleField.SOIL_ORGANIC_MATTER) : organicMatter;
+    }
+
+    /**
+     * Sets the organic matter, in the storage slot if the soil is attached.
+     *
+     * @param organicMatter The new organic matter.
+     */
+    protected void setOrganicMatter(final double organicMatter) {
+        invalidateQuality();
+        if (isAttached()) {
+            write(DoubleField.SOIL_ORGANIC_MATTER, organicMatter);
+        } else {
+            this.organicMatter = organicMatter;
+        }
+    }
+
+    @Override
+    protected final void writeState(final CellStorage target, final int targetSlot) {
+        target.set(DoubleField.SOIL_WATER_RETENTION, targetSlot, getWaterRetention());
+        target.set(DoubleField.SOIL_ORGANIC_MATTER, targetSlot, getOrganicMatter());
+    }
+
+    @Override
+    protected final void readState() {
+        waterRetention = read(DoubleField.SOIL_WATER_RETENTION);
+        organicMatter = read(DoubleField.SOIL_ORGANIC_MATTER);
     }
 
     /**
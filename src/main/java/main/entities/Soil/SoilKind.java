@@ -0,0 +1,44 @@
+package main.entities.Soil;
+
+/**
+ * The kinds of soil, with the type name they have in the input and the output.
+ */
+public enum SoilKind {
+    FOREST("ForestSoil"),
+    SWAMP("SwampSoil"),
+    DESERT("DesertSoil"),
+    GRASSLAND("GrasslandSoil"),
+    TUNDRA("TundraSoil");
+
+    private static final SoilKind[] KINDS = values();
+
+    private final String typeName;
+
+    SoilKind(final String typeName) {
+        this.typeName = typeName;
+    }
+
+    /**
+     * Returns the type name of the kind.
+     *
+     * @return The name used for the "type" of the input and the output.
+     */
+    public String getTypeName() {
+        return typeName;
+    }
+
+    /**
+     * Finds the kind of a type name.
+     *
+     * @param typeName The "type" of an input.
+     * @return The kind, or null if the type is unknown.
+     */
+    public static SoilKind fromTypeName(final String typeName) {
+        for (SoilKind kind : KINDS) {
+            if (kind.typeName.equals(typeName)) {
+                return kind;
+            }
+        }
+        return null;
+    }
+}
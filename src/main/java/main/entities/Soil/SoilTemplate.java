@@ -0,0 +1,31 @@
+package main.entities.Soil;
+
+import fileio.SoilInput;
+import main.entities.NameTable;
+
+/**
+ * The values of a soil input that no step changes, shared by the soil of all its sections.
+ * The water retention and the organic matter are only the starting values of each soil.
+ */
+public record SoilTemplate(SoilKind kind, String name, double mass, double nitrogen,
+                           double waterRetention, double soilpH, double organicMatter,
+                           double salinity, double leafLitter, double rootDensity,
+                           double waterLogging, double permafrostDepth) {
+    /**
+     * Creates the template of an input.
+     *
+     * @param input The soil input.
+     * @param names The names of the simulation.
+     * @return The template, or null if the type of the input is unknown.
+     */
+    public static SoilTemplate of(final SoilInput input, final NameTable names) {
+        SoilKind kind = SoilKind.fromTypeName(input.getType());
+        if (kind == null) {
+            return null;
+        }
+        return new SoilTemplate(kind, names.intern(input.getName()), input.getMass(),
+                input.getNitrogen(), input.getWaterRetention(), input.getSoilpH(),
+                input.getOrganicMatter(), input.getSalinity(), input.getLeafLitter(),
+                input.getRootDensity(), input.getWaterLogging(), input.getPermafrostDepth());
+    }
+}
@@ -1,8 +1,8 @@
 package main.entities.Soil;
 
 import com.fasterxml.jackson.databind.node.ObjectNode;
-import fileio.SoilInput;
 import lombok.Getter;
+import main.entities.QualityBatch;
 
 @Getter
 public final class SwampSoil extends Soil {
@@ -11,11 +11,17 @@ public final class SwampSoil extends Soil {
     private static final double WATER_LOGGING_PENALTY = 5.0;
     private static final double PROBABILITY_MULTIPLIER = 10.0;
 
-    private final double waterLogging;
+    public SwampSoil(final SoilTemplate template) {
+        super(template);
+    }
 
-    public SwampSoil(final SoilInput soilInput) {
-        super(soilInput);
-        this.waterLogging = soilInput.getWaterLogging();
+    /**
+     * Returns the water logging of the soil.
+     *
+     * @return The water logging.
+     */
+    public double getWaterLogging() {
+        return getTemplate().waterLogging();
     }
 
     /**
@@ -25,7 +31,7 @@ public final class SwampSoil extends Soil {
      */
     @Override
     public void addSpecificFields(final ObjectNode node) {
-        node.put("waterLogging", waterLogging);
+        node.put("waterLogging", getWaterLogging());
     }
 
     /**
@@ -34,13 +40,25 @@ public final class SwampSoil extends Soil {
      * @return The normalized and rounded quality score.
      */
     @Override
-    public double calculateQuality() {
-        double score = (nitrogen * NITROGEN_WEIGHT)
-                + (organicMatter * ORGANIC_MATTER_WEIGHT)
-                - (waterLogging * WATER_LOGGING_PENALTY);
+    protected double computeQuality() {
+        double score = (getNitrogen() * NITROGEN_WEIGHT)
+                + (getOrganicMatter() * ORGANIC_MATTER_WEIGHT)
+                - (getWaterLogging() * WATER_LOGGING_PENALTY);
         return round(normalize(score));
     }
 
+    /**
+     * Adds the terms of the Swamp Soil score to a batch.
+     *
+     * @param batch The batch.
+     */
+    @Override
+    protected void addScoreTerms(final QualityBatch batch) {
+        batch.term(getNitrogen(), NITROGEN_WEIGHT)
+                .term(getOrganicMatter(), ORGANIC_MATTER_WEIGHT)
+                .term(getWaterLogging(), -WATER_LOGGING_PENALTY);
+    }
+
     /**
      * Calculates the probability of the robot getting stuck in Swamp Soil.
      *
@@ -48,7 +66,7 @@ public final class SwampSoil extends Soil {
      */
     @Override
     public double calculateProbability() {
-        double probability = (waterLogging * PROBABILITY_MULTIPLIER);
+        double probability = (getWaterLogging() * PROBABILITY_MULTIPLIER);
         return round(probability);
     }
 }
@@ -1,8 +1,8 @@
 package main.entities.Soil;
 
 import com.fasterxml.jackson.databind.node.ObjectNode;
-import fileio.SoilInput;
 import lombok.Getter;
+import main.entities.QualityBatch;
 
 @Getter
 public final class TundraSoil extends Soil {
@@ -12,11 +12,17 @@ public final class TundraSoil extends Soil {
     private static final double BASE_CONST = 50.0;
     private static final double MAX_PERCENTAGE = 100.0;
 
-    private final double permafrostDepth;
+    public TundraSoil(final SoilTemplate template) {
+        super(template);
+    }
 
-    public TundraSoil(final SoilInput soilInput) {
-        super(soilInput);
-        this.permafrostDepth = soilInput.getPermafrostDepth();
+    /**
+     * Returns the permafrost depth of the soil.
+     *
+     * @return The permafrost depth.
+     */
+    public double getPermafrostDepth() {
+        return getTemplate().permafrostDepth();
     }
 
     /**
@@ -26,7 +32,7 @@ public final class TundraSoil extends Soil {
      */
     @Override
     public void addSpecificFields(final ObjectNode node) {
-        node.put("permafrostDepth", permafrostDepth);
+        node.put("permafrostDepth", getPermafrostDepth());
     }
 
     /**
@@ -35,13 +41,25 @@ public final class TundraSoil extends Soil {
      * @return The calculated and rounded quality score.
      */
     @Override
-    public double calculateQuality() {
-        double score = (nitrogen * NITROGEN_WEIGHT)
-                + (organicMatter * ORGANIC_MATTER_WEIGHT)
-                - (permafrostDepth * PERMAFROST_QUALITY_PENALTY);
+    protected double computeQuality() {
+        double score = (getNitrogen() * NITROGEN_WEIGHT)
+                + (getOrganicMatter() * ORGANIC_MATTER_WEIGHT)
+                - (getPermafrostDepth() * PERMAFROST_QUALITY_PENALTY);
         return round(normalize(score));
     }
 
+    /**
+     * Adds the terms of the Tundra Soil score to a batch.
+     *
+     * @param batch The batch.
+     */
+    @Override
+    protected void addScoreTerms(final QualityBatch batch) {
+        batch.term(getNitrogen(), NITROGEN_WEIGHT)
+                .term(getOrganicMatter(), ORGANIC_MATTER_WEIGHT)
+                .term(getPermafrostDepth(), -PERMAFROST_QUALITY_PENALTY);
+    }
+
     /**
      * Calculates the probability of the robot getting stuck in Tundra Soil.
      *
@@ -49,7 +67,7 @@ public final class TundraSoil extends Soil {
      */
     @Override
     public double calculateProbability() {
-        double probability = (BASE_CONST - permafrostDepth) / BASE_CONST * MAX_PERCENTAGE;
+        double probability = (BASE_CONST - getPermafrostDepth()) / BASE_CONST * MAX_PERCENTAGE;
         return round(probability);
     }
 }
@@ -1,15 +1,22 @@
 package main.entities.Water;
 
-import fileio.WaterInput;
+import lombok.AccessLevel;
 import lombok.Getter;
 import main.entities.Entity;
+import main.storage.CellStorage;
+import main.storage.CellView;
+import main.storage.GridFlags;
+import main.storage.DoubleField;
 
 /**
  * Represents a Water entity in the simulation.
  * Handles water properties and quality calculation.
+ * The properties that never change are kept in a WaterTemplate shared by all the sources
+ * of the same input; the source itself only holds its mass and scan status. The quality
+ * only depends on the template, so it is computed once per source.
  */
 @Getter
-public final class Water implements Entity {
+public final class Water extends CellView implements Entity {
     private static final double MAX_PERCENTAGE = 100.0;
     private static final double NEUTRAL_PH = 7.5;
     private static final double MAX_SALINITY = 350.0;
@@ -23,28 +30,45 @@ public final class Water implements Entity {
     private static final double FROZEN_WEIGHT = 0.2;
     private static final double ROUNDING_FACTOR = 100.0;
 
-    private final String type;
-    private final String name;
+    private WaterTemplate template;
     private double mass;
-    private final double salinity;
-    private final double pH;
-    private final double purity;
-    private final double turbidity;
-    private final double contaminantIndex;
-    private final boolean isFrozen;
     private boolean isScanned;
+    /** The quality score, or NaN until it is first read. */
+    @Getter(AccessLevel.NONE)
+    private double quality;
 
-    public Water(final WaterInput waterInput) {
-        this.type = waterInput.getType();
-        this.name = waterInput.getName();
-        this.mass = waterInput.getMass();
-        this.salinity = waterInput.getSalinity();
-        this.pH = waterInput.getPH();
-        this.purity = waterInput.getPurity();
-        this.turbidity = waterInput.getTurbidity();
-        this.contaminantIndex = waterInput.getContaminantIndex();
-        this.isFrozen = waterInput.isFrozen();
+    public Water(final WaterTemplate template) {
+        reset(template);
+    }
+
+    /**
+     * Brings the water source back to the state of a new one of a template, so that an
+     * emptied source can be reused (see EntityPool). It must not be placed on a map.
+     *
+     * @param source The template.
+     */
+    public final void reset(final WaterTemplate source) {
+        this.template = source;
+        this.mass = source.mass();
         this.isScanned = false;
+        this.quality = Double.NaN;
+    }
+
+    /**
+     * Returns the type of the water source.
+     * @return the type.
+     */
+    public String getType() {
+        return template.type();
+    }
+
+    /**
+     * Returns the name of the water source.
+     * @return the name.
+     */
+    @Override
+    public String getName() {
+        return template.name();
     }
 
     /**
@@ -52,7 +76,7 @@ public final class Water implements Entity {
      * @return true if mass is 0 or less.
      */
     public boolean isEmpty() {
-        return mass <= 0;
+        return getMass() <= 0;
     }
 
     /**
@@ -60,21 +84,33 @@ public final class Water implements Entity {
      */
     public void scan() {
         isScanned = true;
+        setFlag(GridFlags.Flag.SCANNED_WATER);
+    }
+
+    /**
+     * Returns the quality score of the water, computed on the first call.
+     * @return the quality score.
+     */
+    public double calculateQuality() {
+        if (Double.isNaN(quality)) {
+            quality = computeQuality();
+        }
+        return quality;
     }
 
     /**
      * Calculates the quality score of the water based on its properties.
      * @return the calculated quality score.
      */
-    public double calculateQuality() {
-        double purityScore = purity / MAX_PERCENTAGE;
-        double pHScore = 1 - Math.abs(pH - NEUTRAL_PH) / NEUTRAL_PH;
-        double salinityScore = 1 - (salinity / MAX_SALINITY);
-        double turbidityScore = 1 - (turbidity / MAX_TURBIDITY);
-        double contaminantScore = 1 - (contaminantIndex / MAX_CONTAMINANT);
+    private double computeQuality() {
+        double purityScore = template.purity() / MAX_PERCENTAGE;
+        double pHScore = 1 - Math.abs(template.pH() - NEUTRAL_PH) / NEUTRAL_PH;
+        double salinityScore = 1 - (template.salinity() / MAX_SALINITY);
+        double turbidityScore = 1 - (template.turbidity() / MAX_TURBIDITY);
+        double contaminantScore = 1 - (template.contaminantIndex() / MAX_CONTAMINANT);
 
         int frozenScore = 1;
-        if (isFrozen) {
+        if (template.frozen()) {
             frozenScore = 0;
         }
 
@@ -93,10 +129,37 @@ public final class Water implements Entity {
      * @param value The amount to decrease.
      */
     public void decreaseMass(final double value) {
-        mass -= value;
-        if (mass < 0) {
-            mass = 0;
+        double remaining = getMass() - value;
+        if (remaining < 0) {
+            remaining = 0;
         }
+        setMass(remaining);
+    }
+
+    /**
+     * Returns the mass, read from the storage slot if the water is attached.
+     * @return the mass of the water source.
+     */
+    public double getMass() {
+        return isAttached() ? read(DoubleField.WATER_MASS) : mass;
+    }
+
+    private void setMass(final double mass) {
+        if (isAttached()) {
+            write(DoubleField.WATER_MASS, mass);
+        } else {
+            this.mass = mass;
+        }
+    }
+
+    @Override
+    protected void writeState(final CellStorage target, final int targetSlot) {
+        target.set(DoubleField.WATER_MASS, targetSlot, getMass());
+    }
+
+    @Override
+    protected void readState() {
+        mass = read(DoubleField.WATER_MASS);
     }
 
     /**
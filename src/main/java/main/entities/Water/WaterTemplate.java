@@ -0,0 +1,26 @@
+package main.entities.Water;
+
+import fileio.WaterInput;
+import main.entities.NameTable;
+
+/**
+ * The values of a water input that no step changes, shared by the water sources of all
+ * its sections. The mass is only the starting mass of each source. The type of a water
+ * source is free text ("lake", "pond", ...), so it is kept as an interned name.
+ */
+public record WaterTemplate(String type, String name, double mass, double salinity,
+                            double pH, double purity, double turbidity,
+                            double contaminantIndex, boolean frozen) {
+    /**
+     * Creates the template of an input.
+     *
+     * @param input The water input.
+     * @param names The names of the simulation.
+     * @return The template.
+     */
+    public static WaterTemplate of(final WaterInput input, final NameTable names) {
+        return new WaterTemplate(names.intern(input.getType()), names.intern(input.getName()),
+                input.getMass(), input.getSalinity(), input.getPH(), input.getPurity(),
+                input.getTurbidity(), input.getContaminantIndex(), input.isFrozen());
+    }
+}
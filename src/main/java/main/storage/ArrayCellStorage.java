@@ -0,0 +1,43 @@
+package main.storage;
+
+/**
+ * Structure-of-arrays storage: every field has its own primitive array indexed by slot.
+ * The entities stay views over it (see CellView), and the steps reach the fields through
+ * the entity of each cell rather than by streaming over a column.
+ */
+public final class ArrayCellStorage implements CellStorage {
+    private final int size;
+    private final double[][] doubles;
+    private final int[][] ints;
+
+    public ArrayCellStorage(final int size) {
+        this.size = size;
+        this.doubles = new double[DoubleField.values().length][size];
+        this.ints = new int[IntField.values().length][size];
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public double get(final DoubleField field, final int slot) {
+        return doubles[field.ordinal()][slot];
+    }
+
+    @Override
+    public void set(final DoubleField field, final int slot, final double value) {
+        doubles[field.ordinal()][slot] = value;
+    }
+
+    @Override
+    public int get(final IntField field, final int slot) {
+        return ints[field.ordinal()][slot];
+    }
+
+    @Override
+    public void set(final IntField field, final int slot, final int value) {
+        ints[field.ordinal()][slot] = value;
+    }
+}
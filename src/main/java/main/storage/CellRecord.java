@@ -0,0 +1,63 @@
+package main.storage;
+
+import java.lang.foreign.ValueLayout;
+
+/**
+ * The binary record of a cell in MappedCellStorage: STRIDE bytes holding the floating
+ * point fields first, in the order of DoubleField, then the integer fields in the order
+ * of IntField, then the fields of a parked cell in the order of ParkedField.
+ */
+public final class CellRecord {
+    private static final long DOUBLES_OFFSET = 0;
+    private static final long INTS_OFFSET =
+            DOUBLES_OFFSET + ValueLayout.JAVA_DOUBLE.byteSize() * DoubleField.values().length;
+    private static final long PARKED_OFFSET =
+            INTS_OFFSET + ValueLayout.JAVA_INT.byteSize() * IntField.values().length;
+    /** The size of a record, rounded up to keep the doubles aligned. */
+    public static final long STRIDE = align(
+            PARKED_OFFSET + ValueLayout.JAVA_INT.byteSize() * ParkedField.values().length,
+            ValueLayout.JAVA_DOUBLE.byteSize());
+
+    private CellRecord() {
+
+    }
+
+    private static long align(final long offset, final long alignment) {
+        return (offset + alignment - 1) / alignment * alignment;
+    }
+
+    /**
+     * Returns the offset of a floating point field in the records.
+     *
+     * @param field The field.
+     * @param record The index of the record.
+     * @return The offset in bytes from the first record.
+     */
+    public static long offsetOf(final DoubleField field, final int record) {
+        return record * STRIDE + DOUBLES_OFFSET
+                + field.ordinal() * ValueLayout.JAVA_DOUBLE.byteSize();
+    }
+
+    /**
+     * Returns the offset of an integer field in the records.
+     *
+     * @param field The field.
+     * @param record The index of the record.
+     * @return The offset in bytes from the first record.
+     */
+    public static long offsetOf(final IntField field, final int record) {
+        return record * STRIDE + INTS_OFFSET + field.ordinal() * ValueLayout.JAVA_INT.byteSize();
+    }
+
+    /**
+     * Returns the offset of a field of a parked cell in the records.
+     *
+     * @param field The field.
+     * @param record The index of the record.
+     * @return The offset in bytes from the first record.
+     */
+    public static long offsetOf(final ParkedField field, final int record) {
+        return record * STRIDE + PARKED_OFFSET
+                + field.ordinal() * ValueLayout.JAVA_INT.byteSize();
+    }
+}
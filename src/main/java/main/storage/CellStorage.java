@@ -0,0 +1,78 @@
+package main.storage;
+
+/**
+ * Backing store for the mutable numeric state of the entities placed on the map.
+ * Every value is addressed by a field and by the slot of the cell holding the entity,
+ * as translated once per cell by indexOf.
+ */
+public interface CellStorage {
+    /** The rounded fields are kept to two decimals, as Math.round(v * 100) / 100. */
+    double ROUNDING_FACTOR = 100.0;
+
+    /**
+     * Returns the number of slots (cells) in the storage.
+     *
+     * @return The number of slots.
+     */
+    int size();
+
+    /**
+     * Returns the index under which the storage keeps the fields of a map slot, which the
+     * accessors take as their slot. The cells compute it once (see Cell), so a storage
+     * whose layout does not follow the slots translates them outside of the accessors.
+     *
+     * @param slot The slot of the cell in the map.
+     * @return The index, the slot itself by default.
+     */
+    default int indexOf(final int slot) {
+        return slot;
+    }
+
+    /**
+     * Reads a floating point field.
+     *
+     * @param field The field to read.
+     * @param slot The slot of the cell.
+     * @return The stored value.
+     */
+    double get(DoubleField field, int slot);
+
+    /**
+     * Writes a floating point field.
+     *
+     * @param field The field to write.
+     * @param slot The slot of the cell.
+     * @param value The new value.
+     */
+    void set(DoubleField field, int slot, double value);
+
+    /**
+     * Adds a value to a rounded field and rounds the result to two decimals.
+     *
+     * @param field The field to update.
+     * @param slot The slot of the cell.
+     * @param value The amount to add.
+     */
+    default void addRounded(final DoubleField field, final int slot, final double value) {
+        set(field, slot, Math.round((get(field, slot) + value) * ROUNDING_FACTOR)
+                / ROUNDING_FACTOR);
+    }
+
+    /**
+     * Reads an integer field.
+     *
+     * @param field The field to read.
+     * @param slot The slot of the cell.
+     * @return The stored value.
+     */
+    int get(IntField field, int slot);
+
+    /**
+     * Writes an integer field.
+     *
+     * @param field The field to write.
+     * @param slot The slot of the cell.
+     * @param value The new value.
+     */
+    void set(IntField field, int slot, int value);
+}
@@ -0,0 +1,168 @@
+package main.storage;
+
+/**
+ * Base class for the entities whose mutable state can live either in their own fields
+ * or in a slot of a CellStorage. While attached, the entity is only a view over the slot:
+ * its own fields still take their space, but are stale until detach reads the slot back.
+ * Independently of the storage, an entity placed on a map knows the slot of its cell in
+ * the GridFlags of the map, to keep its flags there up to date.
+ */
+public abstract class CellView {
+    private CellStorage storage;
+    private int slot = -1;
+    private GridFlags flags;
+    private int flagSlot = -1;
+
+    /**
+     * Checks if the state of the entity is kept in a storage slot.
+     *
+     * @return true if the entity is attached to a storage.
+     */
+    public final boolean isAttached() {
+        return storage != null;
+    }
+
+    /**
+     * Moves the state of the entity into a storage slot.
+     * If the entity is attached somewhere else, its state is copied from there.
+     *
+     * @param target The storage.
+     * @param targetSlot The slot of the cell that now holds the entity.
+     */
+    public final void attach(final CellStorage target, final int targetSlot) {
+        if (storage == target && slot == targetSlot) {
+            return;
+        }
+        writeState(target, targetSlot);
+        storage = target;
+        slot = targetSlot;
+    }
+
+    /**
+     * Makes the entity a view over a storage slot that already holds its state, such as
+     * the record of a cell whose chunk is brought back (see SimulationMap.park). Unlike
+     * attach, nothing is written into the slot.
+     *
+     * @param source The storage.
+     * @param sourceSlot The slot of the cell that holds the entity.
+     */
+    public final void adopt(final CellStorage source, final int sourceSlot) {
+        storage = source;
+        slot = sourceSlot;
+    }
+
+    /**
+     * Copies the state of the entity back into its own fields, if it is attached to
+     * the given slot. Used when the entity leaves the cell.
+     *
+     * @param source The storage.
+     * @param sourceSlot The slot of the cell the entity leaves.
+     */
+    public final void detach(final CellStorage source, final int sourceSlot) {
+        if (storage != source || slot != sourceSlot) {
+            return;
+        }
+        readState();
+        storage = null;
+        slot = -1;
+    }
+
+    /**
+     * Records the cell that now holds the entity.
+     *
+     * @param grid The flags of the map.
+     * @param gridSlot The slot of the cell.
+     */
+    public final void place(final GridFlags grid, final int gridSlot) {
+        flags = grid;
+        flagSlot = gridSlot;
+    }
+
+    /**
+     * Forgets the cell of the entity, if it is still the given one. Used when the entity
+     * leaves the cell, possibly after it was placed in another one.
+     *
+     * @param grid The flags of the map.
+     * @param gridSlot The slot of the cell the entity leaves.
+     */
+    public final void leave(final GridFlags grid, final int gridSlot) {
+        if (flags == grid && flagSlot == gridSlot) {
+            flags = null;
+            flagSlot = -1;
+        }
+    }
+
+    /**
+     * Sets a flag of the cell that holds the entity, if it is placed on a map.
+     *
+     * @param flag The flag.
+     */
+    protected final void setFlag(final GridFlags.Flag flag) {
+        if (flags != null) {
+            flags.set(flag, flagSlot, true);
+        }
+    }
+
+    /**
+     * Reads a field of the attached slot.
+     *
+     * @param field The field.
+     * @return The stored value.
+     */
+    protected final double read(final DoubleField field) {
+        return storage.get(field, slot);
+    }
+
+    /**
+     * Writes a field of the attached slot.
+     *
+     * @param field The field.
+     * @param value The new value.
+     */
+    protected final void write(final DoubleField field, final double value) {
+        storage.set(field, slot, value);
+    }
+
+    /**
+     * Adds a value to a rounded field of the attached slot (see CellStorage.addRounded).
+     *
+     * @param field The field.
+     * @param value The amount to add.
+     */
+    protected final void addRounded(final DoubleField field, final double value) {
+        storage.addRounded(field, slot, value);
+    }
+
+    /**
+     * Reads a field of the attached slot.
+     *
+     * @param field The field.
+     * @return The stored value.
+     */
+    protected final int read(final IntField field) {
+        return storage.get(field, slot);
+    }
+
+    /**
+     * Writes a field of the attached slot.
+     *
+     * @param field The field.
+     * @param value The new value.
+     */
+    protected final void write(final IntField field, final int value) {
+        storage.set(field, slot, value);
+    }
+
+    /**
+     * Writes the current state of the entity into a storage slot.
+     *
+     * @param target The storage.
+     * @param targetSlot The slot.
+     */
+    protected abstract void writeState(CellStorage target, int targetSlot);
+
+    /**
+     * Copies the state from the attached slot into the fields of the entity.
+     */
+    protected abstract void readState();
+}
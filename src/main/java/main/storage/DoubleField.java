@@ -0,0 +1,33 @@
+package main.storage;
+
+/**
+ * The floating point fields of the entities that can be kept in a CellStorage.
+ * The rounded fields are only ever updated through CellStorage.addRounded.
+ */
+public enum DoubleField {
+    AIR_HUMIDITY(true),
+    AIR_OXYGEN_LEVEL(true),
+    AIR_WEATHER_INFLUENCE(false),
+    SOIL_WATER_RETENTION(true),
+    SOIL_ORGANIC_MATTER(true),
+    PLANT_MASS(false),
+    PLANT_GROWTH_RATE(false),
+    WATER_MASS(false),
+    ANIMAL_MASS(false),
+    ANIMAL_FERTILIZER(false);
+
+    private final boolean rounded;
+
+    DoubleField(final boolean rounded) {
+        this.rounded = rounded;
+    }
+
+    /**
+     * Checks if the field is rounded to two decimals after every update.
+     *
+     * @return true for the fields updated through CellStorage.addRounded.
+     */
+    public boolean isRounded() {
+        return rounded;
+    }
+}
@@ -0,0 +1,140 @@
+package main.storage;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Structure-of-arrays storage that keeps the rounded fields as whole hundredths in a long
+ * array, and the other fields as doubles. Adding a whole number of hundredths to such a
+ * field is a single long addition instead of a multiplication, a rounding and a division,
+ * and a sequence of additions gives the same result in any order.
+ *
+ * The result is bit-identical to the double arithmetic: (k + d) / 100.0 is exactly what
+ * Math.round((k / 100.0 + d / 100.0) * 100) / 100.0 gives, as long as the error of the
+ * double sum stays far below half a hundredth, which holds below MAX_EXACT hundredths.
+ * A rounded value that is not a whole number of hundredths (an input value before its
+ * first update) or is huge is kept aside in offGrid, and its updates take the double path.
+ */
+public final class FixedPointCellStorage implements CellStorage {
+    /** Marks a rounded field whose value is kept in offGrid. */
+    private static final long OFF_GRID = Long.MIN_VALUE;
+    private static final long MAX_EXACT = 1L << 40;
+
+    private final int size;
+    /** The non-rounded fields, null for the rounded ones. */
+    private final double[][] doubles;
+    /** The hundredths of the rounded fields, null for the other fields. */
+    private final long[][] hundredths;
+    /** The rounded values that are not on the grid, by field and slot (see keyOf). */
+    private final Map<Long, Double> offGrid = new ConcurrentHashMap<>();
+    /** The last delta added to each rounded field, with its hundredths, or null. */
+    private final Delta[] deltas = new Delta[DoubleField.values().length];
+    private final int[][] ints;
+
+    /**
+     * An amount added by addRounded and its conversion, which the callers repeat with
+     * the same constant. Immutable, so that the engines updating the cells in parallel
+     * never read a value with the hundredths of another.
+     */
+    private record Delta(double value, long hundredths) {
+    }
+
+    public FixedPointCellStorage(final int size) {
+        this.size = size;
+        this.doubles = new double[DoubleField.values().length][];
+        this.hundredths = new long[DoubleField.values().length][];
+        for (DoubleField field : DoubleField.values()) {
+            if (field.isRounded()) {
+                hundredths[field.ordinal()] = new long[size];
+            } else {
+                doubles[field.ordinal()] = new double[size];
+            }
+        }
+        this.ints = new int[IntField.values().length][size];
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public double get(final DoubleField field, final int slot) {
+        long[] column = hundredths[field.ordinal()];
+        if (column == null) {
+            return doubles[field.ordinal()][slot];
+        }
+        long value = column[slot];
+        return value == OFF_GRID ? offGrid.get(keyOf(field, slot)) : value / ROUNDING_FACTOR;
+    }
+
+    @Override
+    public void set(final DoubleField field, final int slot, final double value) {
+        long[] column = hundredths[field.ordinal()];
+        if (column == null) {
+            doubles[field.ordinal()][slot] = value;
+            return;
+        }
+        long converted = toHundredths(value);
+        if (converted == OFF_GRID) {
+            offGrid.put(keyOf(field, slot), value);
+        } else if (column[slot] == OFF_GRID) {
+            offGrid.remove(keyOf(field, slot));
+        }
+        column[slot] = converted;
+    }
+
+    @Override
+    public void addRounded(final DoubleField field, final int slot, final double value) {
+        long[] column = hundredths[field.ordinal()];
+        if (column == null) {
+            CellStorage.super.addRounded(field, slot, value);
+            return;
+        }
+        Delta delta = deltas[field.ordinal()];
+        if (delta == null || delta.value() != value) {
+            delta = new Delta(value, toHundredths(value));
+            deltas[field.ordinal()] = delta;
+        }
+        if (column[slot] == OFF_GRID || delta.hundredths() == OFF_GRID) {
+            CellStorage.super.addRounded(field, slot, value);
+            return;
+        }
+        long sum = column[slot] + delta.hundredths();
+        if (Math.abs(sum) >= MAX_EXACT) {
+            CellStorage.super.addRounded(field, slot, value);
+            return;
+        }
+        column[slot] = sum;
+    }
+
+    @Override
+    public int get(final IntField field, final int slot) {
+        return ints[field.ordinal()][slot];
+    }
+
+    @Override
+    public void set(final IntField field, final int slot, final int value) {
+        ints[field.ordinal()][slot] = value;
+    }
+
+    private long keyOf(final DoubleField field, final int slot) {
+        return (long) field.ordinal() * size + slot;
+    }
+
+    /**
+     * Converts a value to hundredths, if it is exactly a whole number of them. The bits
+     * are compared, so that -0.0 stays off the grid and reads back as -0.0.
+     *
+     * @param value The value.
+     * @return The hundredths, or OFF_GRID if it is not or is too large.
+     */
+    private static long toHundredths(final double value) {
+        long rounded = Math.round(value * ROUNDING_FACTOR);
+        if (Double.doubleToRawLongBits(rounded / ROUNDING_FACTOR)
+                != Double.doubleToRawLongBits(value) || Math.abs(rounded) >= MAX_EXACT) {
+            return OFF_GRID;
+        }
+        return rounded;
+    }
+}
@@ -0,0 +1,160 @@
+package main.storage;
+
+/**
+ * Grid-wide bitsets of the entities a cell holds, one bit per slot and per flag.
+ * They mirror what the cells and entities hold: Cell keeps the occupancy flags and the
+ * scanned flags up to date when an entity is placed or removed, and an entity sets its
+ * scanned flag when it is scanned in place. The loops that only care about some cells
+ * (the scanned animals, the non-empty cells) jump between them a word at a time.
+ * Each slot also has a state word, which packs all of its flags, so that a loop over
+ * the cells checks them with a single load.
+ */
+public final class GridFlags {
+    /** The flags kept for every slot. */
+    public enum Flag {
+        PLANT,
+        WATER,
+        ANIMAL,
+        SCANNED_PLANT,
+        SCANNED_WATER,
+        SCANNED_ANIMAL
+    }
+
+    private static final int WORD_BITS = 6;
+    /** The bits of a state word, in the order of Flag. */
+    private static final int OBJECTS_MASK = 1 << Flag.PLANT.ordinal() | 1 << Flag.WATER.ordinal()
+            | 1 << Flag.ANIMAL.ordinal();
+    private static final int SCANNED_MASK = 1 << Flag.SCANNED_PLANT.ordinal()
+            | 1 << Flag.SCANNED_WATER.ordinal() | 1 << Flag.SCANNED_ANIMAL.ordinal();
+
+    private final int size;
+    private final long[][] words;
+    private final byte[] states;
+
+    public GridFlags(final int size) {
+        this.size = size;
+        this.words = new long[Flag.values().length][(size + Long.SIZE - 1) >>> WORD_BITS];
+        this.states = new byte[size];
+    }
+
+    /**
+     * Sets or clears a flag of a slot.
+     *
+     * @param flag The flag.
+     * @param slot The slot.
+     * @param value The new value.
+     */
+    public void set(final Flag flag, final int slot, final boolean value) {
+        long[] bits = words[flag.ordinal()];
+        int bit = 1 << flag.ordinal();
+        if (value) {
+            bits[slot >>> WORD_BITS] |= 1L << slot;
+            states[slot] |= (byte) bit;
+        } else {
+            bits[slot >>> WORD_BITS] &= ~(1L << slot);
+            states[slot] &= (byte) ~bit;
+        }
+    }
+
+    /**
+     * Returns the state word of a slot: all of its flags, to be read with the static
+     * accessors.
+     *
+     * @param slot The slot.
+     * @return The state word.
+     */
+    public int state(final int slot) {
+        return states[slot];
+    }
+
+    /**
+     * Reads a flag of a state word.
+     *
+     * @param state The state word.
+     * @param flag The flag.
+     * @return The value of the flag.
+     */
+    public static boolean has(final int state, final Flag flag) {
+        return (state & 1 << flag.ordinal()) != 0;
+    }
+
+    /**
+     * Checks if a state word has a scanned plant, water source or animal.
+     *
+     * @param state The state word.
+     * @return true if any scanned flag is set.
+     */
+    public static boolean hasScanned(final int state) {
+        return (state & SCANNED_MASK) != 0;
+    }
+
+    /**
+     * Counts the plants, water sources and animals of a state word.
+     *
+     * @param state The state word.
+     * @return The number of objects (0 to 3), as Cell.getTotalNrOfObjects.
+     */
+    public static int countObjects(final int state) {
+        return Integer.bitCount(state & OBJECTS_MASK);
+    }
+
+    /**
+     * Reads a flag of a slot.
+     *
+     * @param flag The flag.
+     * @param slot The slot.
+     * @return The value of the flag.
+     */
+    public boolean get(final Flag flag, final int slot) {
+        return (words[flag.ordinal()][slot >>> WORD_BITS] & 1L << slot) != 0;
+    }
+
+    /**
+     * Finds the next slot that has a flag.
+     *
+     * @param flag The flag.
+     * @param from The first slot to check.
+     * @return The slot, or -1 if there is none.
+     */
+    public int next(final Flag flag, final int from) {
+        long[] bits = words[flag.ordinal()];
+        if (from >= size) {
+            return -1;
+        }
+        int index = from >>> WORD_BITS;
+        long word = bits[index] & -1L << from;
+        while (word == 0) {
+            index++;
+            if (index == bits.length) {
+                return -1;
+            }
+            word = bits[index];
+        }
+        return (index << WORD_BITS) + Long.numberOfTrailingZeros(word);
+    }
+
+    /**
+     * Finds the next slot that holds a plant, a water source or an animal.
+     *
+     * @param from The first slot to check.
+     * @return The slot, or -1 if there is none.
+     */
+    public int nextOccupied(final int from) {
+        long[] plants = words[Flag.PLANT.ordinal()];
+        long[] waters = words[Flag.WATER.ordinal()];
+        long[] animals = words[Flag.ANIMAL.ordinal()];
+        if (from >= size) {
+            return -1;
+        }
+        int index = from >>> WORD_BITS;
+        long word = (plants[index] | waters[index] | animals[index]) & -1L << from;
+        while (word == 0) {
+            index++;
+            if (index == plants.length) {
+                return -1;
+            }
+            word = plants[index] | waters[index] | animals[index];
+        }
+        return (index << WORD_BITS) + Long.numberOfTrailingZeros(word);
+    }
+}
@@ -0,0 +1,13 @@
+package main.storage;
+
+/**
+ * The integer fields of the entities that can be kept in a CellStorage.
+ * Enum values (maturity level, animal state) are stored by their ordinal, booleans as
+ * 0 or 1.
+ */
+public enum IntField {
+    AIR_WEATHER_ACTIVE,
+    PLANT_LEVEL,
+    ANIMAL_ROUNDS_SINCE_SCANNED,
+    ANIMAL_STATE
+}
@@ -0,0 +1,282 @@
+package main.storage;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.lang.ref.Cleaner;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.BitSet;
+import java.util.function.IntConsumer;
+
+/**
+ * Storage kept in a temporary file and mapped into memory one tile at a time, for
+ * territories whose state does not fit in the heap. A tile holds the records of
+ * TILE_SIZE x TILE_SIZE cells (the chunks of the SimulationMap), laid out as
+ * CellRecord describes, and is mapped the first time one of its cells is read or written.
+ * The file is sparse: the tiles of the chunks that are never allocated take no space.
+ *
+ * The accessors take the index returned by indexOf, which packs the tile and the record
+ * of a slot, so that they only shift and mask it.
+ *
+ * Between two steps, trim unmaps tiles once more than twice residentTiles are mapped,
+ * until residentTiles remain: first the tiles that were not used since the previous trim,
+ * in the order in which they were mapped, then the others, so that a working set that
+ * fits in the budget is not unmapped and mapped again on every step. The hot tiles marked
+ * with keep (the robot, the scanned animals) are never unmapped. The records of an
+ * unmapped tile stay in the file and are read back when the tile is mapped again; the
+ * map can drop the cells of a quiescent chunk along with its tile, keeping the templates
+ * of their entities in the ParkedField ints of the records. Tiles
+ * are mapped from any thread of the parallel engines, but only unmapped by trim, which
+ * must not run during a step.
+ */
+public final class MappedCellStorage implements CellStorage {
+    public static final int TILE_BITS = 6;
+    public static final int TILE_SIZE = 1 << TILE_BITS;
+    /** The tiles that stay mapped between two steps when the map does not say otherwise. */
+    public static final int DEFAULT_RESIDENT_TILES = 64;
+    /** How many times residentTiles may be mapped before trim unmaps any tile. */
+    public static final int HYSTERESIS = 2;
+    private static final int TILE_MASK = TILE_SIZE - 1;
+    /** The bits of the record in an index, below those of the tile. */
+    private static final int RECORD_BITS = 2 * TILE_BITS;
+    private static final int RECORD_MASK = (1 << RECORD_BITS) - 1;
+    private static final long TILE_BYTES = CellRecord.STRIDE * TILE_SIZE * TILE_SIZE;
+    private static final Cleaner CLEANER = Cleaner.create();
+
+    private final int size;
+    private final int height;
+    private final int tilesY;
+    private final int residentTiles;
+    private final MemorySegment[] tiles;
+    private final Mapping mapping;
+    /** The mapped tiles, in the order in which they were mapped. */
+    private final ArrayDeque<Integer> mapped = new ArrayDeque<>();
+    private final BitSet hot = new BitSet();
+    /** The tiles used since the last trim, set without locking by any thread. */
+    private final boolean[] used;
+
+    public MappedCellStorage(final int width, final int height) {
+        this(width, height, DEFAULT_RESIDENT_TILES);
+    }
+
+    public MappedCellStorage(final int width, final int height, final int residentTiles) {
+        this.size = width * height;
+        this.height = height;
+        this.tilesY = (height + TILE_MASK) >> TILE_BITS;
+        this.residentTiles = residentTiles;
+        int tileCount = ((width + TILE_MASK) >> TILE_BITS) * tilesY;
+        this.tiles = new MemorySegment[tileCount];
+        this.used = new boolean[tileCount];
+        this.mapping = new Mapping(tileCount);
+        CLEANER.register(this, mapping);
+    }
+
+    /**
+     * The file and the arenas of the mapped tiles, released once the storage is no
+     * longer reachable. Closing the file deletes it.
+     */
+    private static final class Mapping implements Runnable {
+        private final FileChannel channel;
+        private final Arena[] arenas;
+
+        Mapping(final int tileCount) {
+            try {
+                this.channel = FileChannel.open(Files.createTempFile("terrabot-", ".cells"),
+                        StandardOpenOption.READ, StandardOpenOption.WRITE,
+                        StandardOpenOption.DELETE_ON_CLOSE);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            this.arenas = new Arena[tileCount];
+        }
+
+        MemorySegment map(final int tile) {
+            arenas[tile] = Arena.ofShared();
+            try {
+                return channel.map(FileChannel.MapMode.READ_WRITE, tile * TILE_BYTES,
+                        TILE_BYTES, arenas[tile]);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        void unmap(final int tile) {
+            arenas[tile].close();
+            arenas[tile] = null;
+        }
+
+        @Override
+        public void run() {
+            for (int tile = 0; tile < arenas.length; tile++) {
+                if (arenas[tile] != null) {
+                    unmap(tile);
+                }
+            }
+            try {
+                channel.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the tile that holds the record of a slot.
+     *
+     * @param slot The slot of the cell.
+     * @return The index of the tile.
+     */
+    public int tileOf(final int slot) {
+        int x = slot / height;
+        int y = slot - x * height;
+        return (x >> TILE_BITS) * tilesY + (y >> TILE_BITS);
+    }
+
+    /**
+     * Marks the tile of a slot as hot: the next trim keeps it mapped.
+     *
+     * @param slot The slot of the cell.
+     */
+    public synchronized void keep(final int slot) {
+        hot.set(tileOf(slot));
+    }
+
+    /**
+     * Unmaps tiles, if more than HYSTERESIS times residentTiles are mapped, until
+     * residentTiles remain. The tiles used since the previous trim are passed over once,
+     * and the hot ones are never unmapped. Then forgets the hot marks and the uses.
+     * Called between two steps.
+     *
+     * @param beforeUnmap Called with each tile about to be unmapped, while it is still
+     *                    mapped.
+     */
+    public synchronized void trim(final IntConsumer beforeUnmap) {
+        if (mapped.size() > residentTiles * HYSTERESIS) {
+            int rounds = 2 * mapped.size();
+            for (int i = 0; i < rounds && mapped.size() > residentTiles; i++) {
+                int tile = mapped.poll();
+                if (hot.get(tile) || used[tile]) {
+                    used[tile] = false;
+                    mapped.add(tile);
+                } else {
+                    beforeUnmap.accept(tile);
+                    tiles[tile] = null;
+                    used[tile] = false;
+                    mapping.unmap(tile);
+                }
+            }
+        }
+        for (int tile : mapped) {
+            used[tile] = false;
+        }
+        hot.clear();
+    }
+
+    /**
+     * Unmaps tiles as trim does, with nothing to do before each one.
+     */
+    public void trim() {
+        trim(tile -> { });
+    }
+
+    /**
+     * Returns the number of tiles currently mapped.
+     *
+     * @return The number of mapped tiles.
+     */
+    public synchronized int getMappedTiles() {
+        return mapped.size();
+    }
+
+    private MemorySegment tile(final int tile) {
+        if (!used[tile]) {
+            used[tile] = true;
+        }
+        MemorySegment segment = tiles[tile];
+        return segment != null ? segment : map(tile);
+    }
+
+    private synchronized MemorySegment map(final int tile) {
+        if (tiles[tile] == null) {
+            tiles[tile] = mapping.map(tile);
+            mapped.add(tile);
+        }
+        return tiles[tile];
+    }
+
+    /**
+     * Packs the tile of a slot and the index of its record in the tile, dividing the slot
+     * by the height once per cell instead of on every access.
+     *
+     * @param slot The slot of the cell in the map.
+     * @return The tile in the high bits, the record in the low RECORD_BITS.
+     */
+    @Override
+    public int indexOf(final int slot) {
+        int x = slot / height;
+        int y = slot - x * height;
+        return tileOf(slot) << RECORD_BITS | (x & TILE_MASK) << TILE_BITS | (y & TILE_MASK);
+    }
+
+    private static long offsetOf(final DoubleField field, final int index) {
+        return CellRecord.offsetOf(field, index & RECORD_MASK);
+    }
+
+    private static long offsetOf(final IntField field, final int index) {
+        return CellRecord.offsetOf(field, index & RECORD_MASK);
+    }
+
+    @Override
+    public double get(final DoubleField field, final int slot) {
+        return tile(slot >>> RECORD_BITS).get(ValueLayout.JAVA_DOUBLE, offsetOf(field, slot));
+    }
+
+    @Override
+    public void set(final DoubleField field, final int slot, final double value) {
+        tile(slot >>> RECORD_BITS).set(ValueLayout.JAVA_DOUBLE, offsetOf(field, slot), value);
+    }
+
+    @Override
+    public int get(final IntField field, final int slot) {
+        return tile(slot >>> RECORD_BITS).get(ValueLayout.JAVA_INT, offsetOf(field, slot));
+    }
+
+    @Override
+    public void set(final IntField field, final int slot, final int value) {
+        tile(slot >>> RECORD_BITS).set(ValueLayout.JAVA_INT, offsetOf(field, slot), value);
+    }
+
+    /**
+     * Reads a field of a parked cell.
+     *
+     * @param field The field.
+     * @param slot The index returned by indexOf.
+     * @return The stored value.
+     */
+    public int get(final ParkedField field, final int slot) {
+        return tile(slot >>> RECORD_BITS).get(ValueLayout.JAVA_INT,
+                CellRecord.offsetOf(field, slot & RECORD_MASK));
+    }
+
+    /**
+     * Writes a field of a parked cell.
+     *
+     * @param field The field.
+     * @param slot The index returned by indexOf.
+     * @param value The new value.
+     */
+    public void set(final ParkedField field, final int slot, final int value) {
+        tile(slot >>> RECORD_BITS).set(ValueLayout.JAVA_INT,
+                CellRecord.offsetOf(field, slot & RECORD_MASK), value);
+    }
+}
@@ -0,0 +1,14 @@
+package main.storage;
+
+/**
+ * The integer fields that MappedCellStorage keeps after the fields of a record, for a cell
+ * whose chunk was parked (see SimulationMap.park): the template of each entity of the
+ * cell, as an id of the map, 0 for none.
+ */
+public enum ParkedField {
+    AIR_TEMPLATE,
+    SOIL_TEMPLATE,
+    PLANT_TEMPLATE,
+    WATER_TEMPLATE,
+    ANIMAL_TEMPLATE
+}
@@ -0,0 +1,77 @@
+package main.storage;
+
+import java.util.Arrays;
+
+/**
+ * An int for every slot of a map, 0 until set. The values are kept in pages of
+ * PAGE_SIZE consecutive slots, and a page is only allocated when a non-zero value is
+ * first written in it, so a huge territory whose entities fill a few chunks only pays
+ * for the pages of their columns.
+ * Not thread-safe; written by the sequential parts of the simulation.
+ */
+public final class SlotInts {
+    public static final int PAGE_BITS = 12;
+    public static final int PAGE_SIZE = 1 << PAGE_BITS;
+    private static final int PAGE_MASK = PAGE_SIZE - 1;
+
+    private final int[][] pages;
+
+    public SlotInts(final int size) {
+        this.pages = new int[(size + PAGE_MASK) >>> PAGE_BITS][];
+    }
+
+    /**
+     * Reads the value of a slot.
+     *
+     * @param slot The slot.
+     * @return The value, or 0 if it was never set.
+     */
+    public int get(final int slot) {
+        int[] page = pages[slot >>> PAGE_BITS];
+        return page == null ? 0 : page[slot & PAGE_MASK];
+    }
+
+    /**
+     * Writes the value of a slot, allocating its page if needed.
+     *
+     * @param slot The slot.
+     * @param value The new value.
+     */
+    public void set(final int slot, final int value) {
+        int[] page = pages[slot >>> PAGE_BITS];
+        if (page == null) {
+            if (value == 0) {
+                return;
+            }
+            page = new int[PAGE_SIZE];
+            pages[slot >>> PAGE_BITS] = page;
+        }
+        page[slot & PAGE_MASK] = value;
+    }
+
+    /**
+     * Sets every slot back to 0, keeping the pages for the next writes.
+     */
+    public void clear() {
+        for (int[] page : pages) {
+            if (page != null) {
+                Arrays.fill(page, 0);
+            }
+        }
+    }
+
+    /**
+     * Counts the pages allocated so far.
+     *
+     * @return The number of pages.
+     */
+    public int getPageCount() {
+        int count = 0;
+        for (int[] page : pages) {
+            if (page != null) {
+                count++;
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,54 @@
+package main.storage;
+
+/**
+ * The available backends for the numeric state of the entities.
+ */
+public enum StorageType {
+    /** Every entity keeps its state in its own fields (the original layout). */
+    OBJECTS,
+    /** The state is kept in per-field primitive arrays indexed by cell. */
+    ARRAYS,
+    /** Like ARRAYS, but the rounded fields are updated as whole hundredths. */
+    FIXED_POINT,
+    /**
+     * The state is kept outside the Java heap, in a fixed-size record per cell (see
+     * CellRecord) of a file mapped tile by tile, for maps whose numeric state is
+     * larger than the memory. The cells and entities of a quiescent chunk are dropped
+     * when its tile is unmapped and recreated from the records when it is read again
+     * (see SimulationMap.park); those of the other allocated chunks, and the flags of
+     * the whole map, still take heap space.
+     */
+    MAPPED;
+
+    /**
+     * Creates the storage for a map of the given size.
+     *
+     * @param width The number of columns of the map.
+     * @param height The number of rows of the map.
+     * @return The storage, or null when the entities keep their own state.
+     */
+    public CellStorage create(final int width, final int height) {
+        int size = width * height;
+        return switch (this) {
+            case ARRAYS -> new ArrayCellStorage(size);
+            case FIXED_POINT -> new FixedPointCellStorage(size);
+            case MAPPED -> new MappedCellStorage(width, height);
+            default -> null;
+        };
+    }
+
+    /**
+     * Checks if a storage was created by this backend.
+     *
+     * @param storage The storage, or null.
+     * @return true if create returns storages of the same class.
+     */
+    public boolean isTypeOf(final CellStorage storage) {
+        return switch (this) {
+            case ARRAYS -> storage instanceof ArrayCellStorage;
+            case FIXED_POINT -> storage instanceof FixedPointCellStorage;
+            case MAPPED -> storage instanceof MappedCellStorage;
+            default -> storage == null;
+        };
+    }
+}
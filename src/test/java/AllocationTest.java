@@ -0,0 +1,85 @@
+import com.sun.management.ThreadMXBean;
+import main.Simulation;
+import main.SimulationConfig;
+import main.engine.EngineType;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.lang.management.ManagementFactory;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks that the single-threaded engines allocate nothing per step once warmed up.
+ * The parallel engines hand tasks to a ForkJoinPool, and the task objects of a step are
+ * expected: their allocation, counted over every thread, must stay far below one object
+ * per cell.
+ */
+public class AllocationTest {
+    private static final long SEED = 5;
+    private static final int SIZE = 60;
+    private static final double DENSITY = 0.3;
+    private static final int WARM_UP_STEPS = 2_000;
+    private static final int MEASURED_STEPS = 200;
+    /** Bytes per step allowed to the parallel engines, an eighth of a 16-byte object a cell. */
+    private static final long PARALLEL_BUDGET = SIZE * SIZE * 2;
+
+    @ParameterizedTest
+    @EnumSource(value = EngineType.class, names = {"DENSE", "SPARSE"})
+    public void tickAllocatesNothing(final EngineType engine) {
+        SimulationConfig config = new SimulationConfig();
+        config.setEngine(engine);
+        Simulation simulation = new Simulation(
+                TerritoryFixture.territory(SEED, SIZE, SIZE, DENSITY), config);
+        TerritoryFixture.activate(simulation, SEED);
+        for (int i = 0; i < WARM_UP_STEPS; i++) {
+            simulation.updateEnvironment();
+        }
+        assertThat(simulation.isQuiescent()).isFalse();
+        ThreadMXBean threads = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+        // Calibrate, the counter itself may allocate
+        long start = threads.getCurrentThreadAllocatedBytes();
+        long overhead = threads.getCurrentThreadAllocatedBytes() - start;
+
+        start = threads.getCurrentThreadAllocatedBytes();
+        for (int i = 0; i < MEASURED_STEPS; i++) {
+            simulation.updateEnvironment();
+        }
+        long allocated = threads.getCurrentThreadAllocatedBytes() - start - overhead;
+
+        assertThat(allocated).isEqualTo(0L);
+    }
+
+    @ParameterizedTest
+    @EnumSource(value = EngineType.class, names = {"TILED", "PHASED"})
+    public void tickAllocatesABoundedAmount(final EngineType engine) {
+        SimulationConfig config = new SimulationConfig();
+        config.setEngine(engine);
+        Simulation simulation = new Simulation(
+                TerritoryFixture.territory(SEED, SIZE, SIZE, DENSITY), config);
+        TerritoryFixture.activate(simulation, SEED);
+        for (int i = 0; i < WARM_UP_STEPS; i++) {
+            simulation.updateEnvironment();
+        }
+        ThreadMXBean threads = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long start = allocatedByAllThreads(threads);
+        for (int i = 0; i < MEASURED_STEPS; i++) {
+            simulation.updateEnvironment();
+        }
+        long allocated = allocatedByAllThreads(threads) - start;
+
+        assertThat(allocated / MEASURED_STEPS).isLessThan(PARALLEL_BUDGET);
+    }
+
+    /**
+     * Sums the bytes allocated so far by the live threads, the ForkJoinPool workers
+     * included.
+     */
+    private static long allocatedByAllThreads(final ThreadMXBean threads) {
+        long total = 0;
+        for (long bytes : threads.getThreadAllocatedBytes(threads.getAllThreadIds())) {
+            total += Math.max(bytes, 0);
+        }
+        return total;
+    }
+}
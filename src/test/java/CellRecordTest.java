@@ -0,0 +1,67 @@
+import main.storage.DoubleField;
+import main.storage.IntField;
+import main.storage.CellRecord;
+import main.storage.ParkedField;
+import org.junit.jupiter.api.Test;
+
+import java.util.BitSet;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks the binary layout of the records of the mapped storage: the doubles first,
+ * then the ints and the fields of a parked cell, with no field overlapping another.
+ */
+public class CellRecordTest {
+    private static final int SLOTS = 5;
+    private static final int DOUBLE_BYTES = 8;
+    private static final int INT_BYTES = 4;
+
+    @Test
+    public void laysTheRecordsOut() {
+        int doubles = DoubleField.values().length;
+        int ints = IntField.values().length + ParkedField.values().length;
+        long expectedStride = (doubles * DOUBLE_BYTES + ints * INT_BYTES + DOUBLE_BYTES - 1)
+                / DOUBLE_BYTES * DOUBLE_BYTES;
+        assertThat(CellRecord.STRIDE).isEqualTo(expectedStride);
+
+        assertThat(CellRecord.offsetOf(DoubleField.AIR_HUMIDITY, 0)).isEqualTo(0L);
+        assertThat(CellRecord.offsetOf(DoubleField.AIR_OXYGEN_LEVEL, 0))
+                .isEqualTo((long) DOUBLE_BYTES);
+        assertThat(CellRecord.offsetOf(IntField.values()[0], 0))
+                .isEqualTo((long) doubles * DOUBLE_BYTES);
+        assertThat(CellRecord.offsetOf(IntField.ANIMAL_STATE, 2)).isEqualTo(
+                2 * expectedStride + doubles * DOUBLE_BYTES
+                        + IntField.ANIMAL_STATE.ordinal() * INT_BYTES);
+        assertThat(CellRecord.offsetOf(ParkedField.values()[0], 0)).isEqualTo(
+                (long) doubles * DOUBLE_BYTES + IntField.values().length * INT_BYTES);
+    }
+
+    @Test
+    public void fieldsDoNotOverlap() {
+        BitSet used = new BitSet();
+        for (int slot = 0; slot < SLOTS; slot++) {
+            for (DoubleField field : DoubleField.values()) {
+                claim(used, CellRecord.offsetOf(field, slot), DOUBLE_BYTES, slot);
+            }
+            for (IntField field : IntField.values()) {
+                claim(used, CellRecord.offsetOf(field, slot), INT_BYTES, slot);
+            }
+            for (ParkedField field : ParkedField.values()) {
+                claim(used, CellRecord.offsetOf(field, slot), INT_BYTES, slot);
+            }
+        }
+    }
+
+    private static void claim(final BitSet used, final long offset, final int bytes,
+                              final int slot) {
+        // Aligned, and inside the record of its slot
+        assertThat(offset % bytes).isEqualTo(0L);
+        assertThat(offset >= slot * CellRecord.STRIDE).isTrue();
+        assertThat(offset + bytes <= (slot + 1) * CellRecord.STRIDE).isTrue();
+        for (int i = 0; i < bytes; i++) {
+            assertThat(used.get((int) offset + i)).isFalse();
+            used.set((int) offset + i);
+        }
+    }
+}
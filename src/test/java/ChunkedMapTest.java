@@ -0,0 +1,186 @@
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import fileio.CommandInput;
+import fileio.SimulationInput;
+import main.Cell;
+import main.Commands.ChangeWeatherConditions;
+import main.Commands.PrintMap;
+import main.Simulation;
+import main.SimulationConfig;
+import main.SimulationMap;
+import main.engine.EngineType;
+import main.engine.FastForward;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Loads a small populated region into a huge territory and checks that only its chunks
+ * are allocated, and that the commands and engines work on those chunks alone.
+ */
+public class ChunkedMapTest {
+    private static final long SEED = 11;
+    private static final int REGION_WIDTH = 2 * SimulationMap.CHUNK_SIZE;
+    private static final int REGION_HEIGHT = SimulationMap.CHUNK_SIZE;
+    private static final String TERRITORY = "3000x4000";
+    private static final double DENSITY = 0.4;
+    private static final int STEPS = 30;
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    @Test
+    public void allocatesOnlyPopulatedChunks() {
+        Simulation simulation = create(new SimulationConfig());
+        SimulationMap map = simulation.getMap();
+
+        assertThat(map.getChunkCount()).isEqualTo(2);
+        assertThat(map.hasChunk(0, 0)).isTrue();
+        assertThat(map.hasChunk(REGION_WIDTH, 0)).isFalse();
+        assertThat(map.hasChunk(0, REGION_HEIGHT)).isFalse();
+
+        JsonNode printed = PrintMap.execute(MAPPER, map);
+        assertThat(printed.size()).isEqualTo(REGION_WIDTH * REGION_HEIGHT);
+        assertThat(map.getChunkCount()).isEqualTo(2);
+    }
+
+    @Test
+    public void weatherChangeSkipsEmptyChunks() {
+        Simulation simulation = create(new SimulationConfig());
+        CommandInput command = new CommandInput();
+        command.setCommand("changeWeatherConditions");
+        command.setDesertStorm(true);
+
+        assertThat(ChangeWeatherConditions.execute(command, simulation))
+                .isEqualTo("The weather has changed.");
+        assertThat(simulation.getMap().getChunkCount()).isEqualTo(2);
+    }
+
+    @Test
+    public void sparseEngineMatchesDenseEngine() {
+        SimulationConfig sparse = new SimulationConfig();
+        sparse.setEngine(EngineType.SPARSE);
+
+        assertThat(run(sparse)).isEqualTo(run(new SimulationConfig()));
+    }
+
+    @Test
+    public void stepsAFarChunkAlone() {
+        for (EngineType engine : EngineType.values()) {
+            ObjectNode params = TerritoryFixture.emptyParams();
+            TerritoryFixture.calmCell(params, 3100, 2100);
+            params.withArray("water").add(TerritoryFixture.lake(50, 3100, 2100));
+            SimulationConfig config = new SimulationConfig();
+            config.setEngine(engine);
+            Simulation simulation =
+                    new Simulation(TerritoryFixture.input(TERRITORY, params), config);
+            SimulationMap map = simulation.getMap();
+            map.getCell(3100, 2100).getWater().scan();
+
+            simulation.advance(4);
+
+            assertThat(map.getChunkCount()).isEqualTo(1);
+            assertThat(map.getCell(3100, 2100).getAir().getHumidity()).isEqualTo(40.2);
+            assertThat(map.getCell(3100, 2100).getSoil().getWaterRetention()).isEqualTo(1.0);
+            JsonNode printed = PrintMap.execute(MAPPER, map);
+            assertThat(printed.size()).isEqualTo(1);
+            assertThat(printed.get(0).get("airQuality").asText()).isEqualTo("moderate");
+        }
+    }
+
+    @Test
+    public void parallelEnginesMatchDenseEngine() {
+        String expected = run(new SimulationConfig());
+        for (EngineType engine : new EngineType[] {EngineType.PHASED, EngineType.TILED}) {
+            SimulationConfig config = new SimulationConfig();
+            config.setEngine(engine);
+
+            assertThat(run(config)).isEqualTo(expected);
+        }
+    }
+
+    @Test
+    public void fastForwardSkipsTheEmptyChunksAroundItsZone() {
+        Simulation stepped = lonelyAnimal();
+        for (int i = 0; i < FastForward.CHUNK_STEPS; i++) {
+            stepped.updateEnvironment();
+        }
+        Simulation advanced = lonelyAnimal();
+        advanced.advance(FastForward.CHUNK_STEPS);
+
+        assertThat(advanced.getMap().getChunkCount()).isEqualTo(1);
+        assertThat(stepped.getMap().getChunkCount()).isEqualTo(1);
+        assertThat(PrintMap.execute(MAPPER, advanced.getMap()))
+                .isEqualTo(PrintMap.execute(MAPPER, stepped.getMap()));
+    }
+
+    @Test
+    public void printsSectionsWithOnlyAirOrSoil() {
+        ObjectNode params = TerritoryFixture.emptyParams();
+        TerritoryFixture.calmCell(params, 0, 0);
+        ObjectNode air = TerritoryFixture.entity("TemperateAir", "Calm Spring Air", 90000, 1, 0);
+        air.put("humidity", 40);
+        air.put("oxygenLevel", 20);
+        air.put("pollenLevel", 7.5);
+        params.withArray("air").add(air);
+        params.withArray("soil").add(TerritoryFixture.entity("ForestSoil", "Bare", 900, 0, 1));
+        SimulationConfig config = new SimulationConfig();
+        config.setSnapshots(true);
+        Simulation simulation = new Simulation(TerritoryFixture.input("2x2", params), config);
+
+        JsonNode live = PrintMap.execute(MAPPER, simulation.getMap());
+        JsonNode snapshot = simulation.readSnapshot(s -> PrintMap.execute(MAPPER, s));
+
+        assertThat(snapshot).isEqualTo(live);
+        assertThat(live.size()).isEqualTo(3);
+        assertThat(live.get(0).get("airQuality").asText()).isEqualTo("moderate");
+        assertThat(live.get(0).has("soilQuality")).isTrue();
+        // The rows come first: (1, 0) has only air, (0, 1) only soil
+        assertThat(live.get(1).get("airQuality").asText()).isEqualTo("moderate");
+        assertThat(live.get(1).has("soilQuality")).isFalse();
+        assertThat(live.get(2).has("airQuality")).isFalse();
+        assertThat(live.get(2).has("soilQuality")).isTrue();
+    }
+
+    private static String run(final SimulationConfig config) {
+        Simulation simulation = create(config);
+        for (int i = 0; i < STEPS; i++) {
+            simulation.updateEnvironment();
+        }
+        return PrintMap.execute(MAPPER, simulation.getMap()).toString();
+    }
+
+    /**
+     * A scanned animal 16 cells below the end of its chunk: it cannot leave the chunk in
+     * one fast-forward chunk of steps, but the zone around it reaches the next one.
+     */
+    private static Simulation lonelyAnimal() {
+        ObjectNode params = TerritoryFixture.emptyParams();
+        TerritoryFixture.calmCell(params, 3100, 2095);
+        params.withArray("animals").add(
+                TerritoryFixture.entity("Herbivores", "Deer", 30, 3100, 2095));
+        Simulation simulation = new Simulation(
+                TerritoryFixture.input(TERRITORY, params), new SimulationConfig());
+        simulation.getMap().getCell(3100, 2095).getAnimal().scan();
+        return simulation;
+    }
+
+    private static Simulation create(final SimulationConfig config) {
+        SimulationInput input = TerritoryFixture.territory(
+                SEED, REGION_WIDTH, REGION_HEIGHT, DENSITY);
+        input.setTerritoryDim(TERRITORY);
+        Simulation simulation = new Simulation(input, config);
+        SimulationMap map = simulation.getMap();
+        for (int x = 0; x < REGION_WIDTH; x++) {
+            for (int y = 0; y < REGION_HEIGHT; y++) {
+                Cell cell = map.getCell(x, y);
+                if (cell.getPlant() != null) {
+                    cell.getPlant().scan();
+                }
+                if (cell.getAnimal() != null) {
+                    cell.getAnimal().scan();
+                }
+            }
+        }
+        return simulation;
+    }
+}
@@ -0,0 +1,43 @@
+import fileio.SimulationInput;
+import main.Simulation;
+import main.SimulationConfig;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks that deferred steps are only applied when the map is read, and that they then
+ * leave it as the same steps applied right away.
+ */
+public class DeferredStepsTest {
+    private static final long SEED = 5;
+    private static final int WIDTH = 60;
+    private static final int HEIGHT = 50;
+    private static final double DENSITY = 0.3;
+
+    @Test
+    public void appliesTheStepsWhenTheMapIsRead() {
+        Simulation eager = create();
+        Simulation lazy = create();
+        int[] gaps = {1, 3, 0, 40, 7, 100};
+        for (int gap : gaps) {
+            eager.advance(gap);
+            lazy.defer(gap);
+        }
+        assertThat(lazy.getStep()).isZero();
+        assertThat(lazy.getPendingSteps()).isEqualTo(151);
+
+        String dump = TerritoryFixture.dump(lazy);
+
+        assertThat(lazy.getPendingSteps()).isZero();
+        assertThat(lazy.getStep()).isEqualTo(eager.getStep());
+        assertThat(dump).isEqualTo(TerritoryFixture.dump(eager));
+    }
+
+    private static Simulation create() {
+        SimulationInput input = TerritoryFixture.territory(SEED, WIDTH, HEIGHT, DENSITY);
+        Simulation simulation = new Simulation(input, new SimulationConfig());
+        TerritoryFixture.activate(simulation, SEED);
+        return simulation;
+    }
+}
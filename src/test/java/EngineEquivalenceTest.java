@@ -0,0 +1,40 @@
+import fileio.SimulationInput;
+import main.Simulation;
+import main.SimulationConfig;
+import main.engine.EngineType;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs a large random territory with every engine and checks that the state of each
+ * cell is byte-identical to the one left by the dense engine.
+ * The input files are too small for the parallel engines to split the work, this map is not.
+ */
+public class EngineEquivalenceTest {
+    private static final long SEED = 2024;
+    private static final int WIDTH = 150;
+    private static final int HEIGHT = 130;
+    private static final double DENSITY = 0.4;
+    private static final int STEPS = 40;
+
+    @ParameterizedTest
+    @EnumSource(value = EngineType.class, names = "DENSE", mode = EnumSource.Mode.EXCLUDE)
+    public void matchesDenseEngine(final EngineType engine) {
+        SimulationConfig config = new SimulationConfig();
+        config.setEngine(engine);
+
+        assertThat(run(config)).isEqualTo(run(new SimulationConfig()));
+    }
+
+    private static String run(final SimulationConfig config) {
+        SimulationInput input = TerritoryFixture.territory(SEED, WIDTH, HEIGHT, DENSITY);
+        Simulation simulation = new Simulation(input, config);
+        TerritoryFixture.activate(simulation, SEED);
+        for (int i = 0; i < STEPS; i++) {
+            simulation.updateEnvironment();
+        }
+        return TerritoryFixture.dump(simulation);
+    }
+}
@@ -0,0 +1,122 @@
+import com.fasterxml.jackson.databind.ObjectMapper;
+import fileio.SimulationInput;
+import main.Cell;
+import main.Simulation;
+import main.SimulationConfig;
+import main.SimulationMap;
+import main.entities.Air.AirKind;
+import main.entities.Animal.AnimalKind;
+import main.entities.NameTable;
+import main.entities.Soil.ForestSoil;
+import main.entities.Water.Water;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks that the entities of the sections of one input share a single template, that
+ * each of them still has its own state, and that they are created by kind.
+ */
+public class EntityTemplateTest {
+    private static final int SIZE = 20;
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    @Test
+    public void sectionsShareTheirTemplate() {
+        Simulation simulation = new Simulation(territory(), new SimulationConfig());
+        SimulationMap map = simulation.getMap();
+        Cell first = map.getCell(0, 0);
+        Cell last = map.getCell(SIZE - 1, SIZE - 1);
+
+        assertThat(first.getAir()).isNotSameAs(last.getAir());
+        assertThat(first.getAir().getTemplate()).isSameAs(last.getAir().getTemplate());
+        assertThat(first.getSoil().getTemplate()).isSameAs(last.getSoil().getTemplate());
+        assertThat(first.getWater().getTemplate()).isSameAs(last.getWater().getTemplate());
+        assertThat(last.getWater().getName()).isEqualTo("lake");
+        assertThat(last.getSoil().getNitrogen()).isEqualTo(2.5);
+    }
+
+    @Test
+    public void sectionsKeepTheirOwnState() {
+        Simulation simulation = new Simulation(territory(), new SimulationConfig());
+        Water first = simulation.getMap().getCell(0, 0).getWater();
+        Water last = simulation.getMap().getCell(SIZE - 1, SIZE - 1).getWater();
+
+        first.decreaseMass(10);
+
+        assertThat(first.getMass()).isEqualTo(40.0);
+        assertThat(last.getMass()).isEqualTo(50.0);
+    }
+
+    @Test
+    public void kindsMatchTheirTypeNames() {
+        for (AirKind kind : AirKind.values()) {
+            assertThat(AirKind.fromTypeName(kind.getTypeName())).isEqualTo(kind);
+        }
+        for (AnimalKind kind : AnimalKind.values()) {
+            assertThat(AnimalKind.fromTypeName(kind.getTypeName())).isEqualTo(kind);
+        }
+        assertThat(AnimalKind.fromTypeName("Detrivores")).isNull();
+
+        Simulation simulation = new Simulation(territory(), new SimulationConfig());
+        Cell cell = simulation.getMap().getCell(1, 2);
+        assertThat(cell.getAir().getKind()).isEqualTo(AirKind.TEMPERATE);
+        assertThat(cell.getAir().getType()).isEqualTo("TemperateAir");
+        assertThat(cell.getSoil() instanceof ForestSoil).isTrue();
+    }
+
+    @Test
+    public void namesAreInterned() {
+        NameTable names = new NameTable();
+        String first = names.intern(new String("lake"));
+
+        assertThat(names.intern(new String("lake"))).isSameAs(first);
+        assertThat(names.size()).isEqualTo(1);
+    }
+
+    private static SimulationInput territory() {
+        List<Map<String, Object>> sections = new ArrayList<>();
+        for (int x = 0; x < SIZE; x++) {
+            for (int y = 0; y < SIZE; y++) {
+                sections.add(Map.of("x", x, "y", y));
+            }
+        }
+        Map<String, Object> air = new LinkedHashMap<>();
+        air.put("type", "TemperateAir");
+        air.put("name", "breeze");
+        air.put("mass", 1.0);
+        air.put("humidity", 40.0);
+        air.put("oxygenLevel", 21.0);
+        air.put("pollenLevel", 3.0);
+        air.put("sections", sections);
+        Map<String, Object> soil = new LinkedHashMap<>();
+        soil.put("type", "ForestSoil");
+        soil.put("name", "loam");
+        soil.put("mass", 1.0);
+        soil.put("nitrogen", 2.5);
+        soil.put("leafLitter", 4.0);
+        soil.put("sections", sections);
+        Map<String, Object> water = new LinkedHashMap<>();
+        water.put("type", "lake");
+        water.put("name", "lake");
+        water.put("mass", 50.0);
+        water.put("purity", 80.0);
+        water.put("sections", sections);
+        Map<String, Object> params = new LinkedHashMap<>();
+        params.put("soil", List.of(soil));
+        params.put("plants", List.of());
+        params.put("animals", List.of());
+        params.put("water", List.of(water));
+        params.put("air", List.of(air));
+        Map<String, Object> simulation = new LinkedHashMap<>();
+        simulation.put("territoryDim", SIZE + "x" + SIZE);
+        simulation.put("energyPoints", 1000);
+        simulation.put("territorySectionParams", params);
+        return MAPPER.convertValue(simulation, SimulationInput.class);
+    }
+}
@@ -0,0 +1,122 @@
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import fileio.CommandInput;
+import fileio.SimulationInput;
+import main.Cell;
+import main.Commands.ChangeWeatherConditions;
+import main.Simulation;
+import main.SimulationConfig;
+import main.engine.FastForward;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks that Simulation.advance leaves every cell exactly as the same number of
+ * single steps does, on territories with few and with many animals, and gives the
+ * known values of a small territory after long gaps.
+ */
+public class FastForwardTest {
+    private static final long SEED = 7;
+    private static final int WIDTH = 120;
+    private static final int HEIGHT = 90;
+
+    public static Stream<Arguments> data() {
+        return Stream.of(0.02, 0.4).flatMap(density -> Stream.of(
+                FastForward.CHUNK_STEPS, FastForward.CHUNK_STEPS + 1, 250, 3001)
+                .map(steps -> Arguments.of(density, steps)));
+    }
+
+    @ParameterizedTest(name = "density {0}, {1} steps")
+    @MethodSource("data")
+    public void matchesSingleSteps(final double density, final int steps) {
+        Simulation stepped = create(density);
+        // Start on an odd step, so that the parity of the humidity rule is exercised
+        stepped.updateEnvironment();
+        for (int i = 0; i < steps; i++) {
+            stepped.updateEnvironment();
+        }
+        Simulation advanced = create(density);
+        advanced.updateEnvironment();
+        advanced.advance(steps);
+
+        assertThat(advanced.getStep()).isEqualTo(stepped.getStep());
+        assertThat(TerritoryFixture.dump(advanced)).isEqualTo(TerritoryFixture.dump(stepped));
+    }
+
+    @Test
+    public void raisesTheHumidityOnEveryEvenStepOfAGap() {
+        Simulation simulation = calm();
+        simulation.updateEnvironment();
+        // Steps 2 to 98: 49 even steps, each adding 0.1 to the humidity and the retention
+        simulation.advance(FastForward.CHUNK_STEPS * 3 + 1);
+
+        Cell lake = simulation.getMap().getCell(0, 0);
+        assertThat(simulation.getStep()).isEqualTo(98);
+        assertThat(lake.getAir().getHumidity()).isEqualTo(44.9);
+        assertThat(lake.getSoil().getWaterRetention()).isEqualTo(5.7);
+        assertThat(lake.getSoil().calculateQuality()).isEqualTo(12.53);
+        // The other cell has no water
+        assertThat(simulation.getMap().getCell(1, 0).getAir().getHumidity()).isEqualTo(40.0);
+    }
+
+    @Test
+    public void endsTheWeatherInsideAGap() {
+        Simulation simulation = calm();
+        simulation.updateEnvironment();
+        changeToSpring(simulation);
+        Cell dry = simulation.getMap().getCell(1, 0);
+        assertThat(dry.getAir().calculateQuality()).isEqualTo(52.25);
+
+        simulation.advance(FastForward.CHUNK_STEPS);
+
+        assertThat(dry.getAir().isWeatherActive()).isFalse();
+        assertThat(dry.getAir().calculateQuality()).isEqualTo(67.25);
+    }
+
+    @Test
+    public void keepsTheWeatherUntilItsLastStep() {
+        Simulation simulation = calm();
+        simulation.updateEnvironment();
+        changeToSpring(simulation);
+        Cell dry = simulation.getMap().getCell(1, 0);
+
+        // An event of two steps set during step 1 is cleared at the start of step 3
+        simulation.advance(1);
+        assertThat(dry.getAir().isWeatherActive()).isTrue();
+        assertThat(dry.getAir().calculateQuality()).isEqualTo(52.25);
+        simulation.advance(1);
+        assertThat(dry.getAir().isWeatherActive()).isFalse();
+        assertThat(dry.getAir().calculateQuality()).isEqualTo(67.25);
+    }
+
+    /**
+     * A territory of two calm cells, the first with a scanned lake.
+     */
+    private static Simulation calm() {
+        ObjectNode params = TerritoryFixture.calmParams(2, 1);
+        params.withArray("water").add(TerritoryFixture.lake(50, 0, 0));
+        Simulation simulation =
+                new Simulation(TerritoryFixture.input("1x2", params), new SimulationConfig());
+        simulation.getMap().getCell(0, 0).getWater().scan();
+        return simulation;
+    }
+
+    private static void changeToSpring(final Simulation simulation) {
+        CommandInput command = new CommandInput();
+        command.setCommand("changeWeatherConditions");
+        command.setSeason("Spring");
+        ChangeWeatherConditions.execute(command, simulation);
+    }
+
+    private static Simulation create(final double density) {
+        SimulationInput input = TerritoryFixture.territory(SEED, WIDTH, HEIGHT, density);
+        Simulation simulation = new Simulation(input, new SimulationConfig());
+        TerritoryFixture.activate(simulation, SEED);
+        return simulation;
+    }
+}
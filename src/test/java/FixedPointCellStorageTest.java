@@ -0,0 +1,70 @@
+import main.storage.ArrayCellStorage;
+import main.storage.CellStorage;
+import main.storage.DoubleField;
+import main.storage.FixedPointCellStorage;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks that the fixed-point storage gives bit-identical results to the double
+ * arithmetic, for values on and off the hundredths grid, and known values.
+ */
+public class FixedPointCellStorageTest {
+    private static final long SEED = 17;
+    private static final int SLOTS = 64;
+    private static final int UPDATES = 200_000;
+    private static final double[] DELTAS = {0.1, 0.2, 0.3, 0.5, 0.8, 0.7, 6.4, -0.3, 0.123};
+
+    @Test
+    public void keepsTheValuesOffTheGrid() {
+        FixedPointCellStorage storage = new FixedPointCellStorage(SLOTS);
+        storage.set(DoubleField.SOIL_ORGANIC_MATTER, 3, 0.035);
+        storage.set(DoubleField.AIR_HUMIDITY, 3, -0.0);
+        storage.set(DoubleField.AIR_HUMIDITY, 4, 40.0);
+        assertThat(storage.get(DoubleField.SOIL_ORGANIC_MATTER, 3)).isEqualTo(0.035);
+        assertThat(Double.doubleToRawLongBits(storage.get(DoubleField.AIR_HUMIDITY, 3)))
+                .isEqualTo(Double.doubleToRawLongBits(-0.0));
+
+        // The first update rounds the value onto the grid
+        storage.addRounded(DoubleField.SOIL_ORGANIC_MATTER, 3, 0.1);
+        assertThat(storage.get(DoubleField.SOIL_ORGANIC_MATTER, 3)).isEqualTo(0.14);
+        for (int i = 0; i < 49; i++) {
+            storage.addRounded(DoubleField.AIR_HUMIDITY, 4, 0.1);
+        }
+        assertThat(storage.get(DoubleField.AIR_HUMIDITY, 4)).isEqualTo(44.9);
+        storage.addRounded(DoubleField.AIR_HUMIDITY, 4, 0.123);
+        assertThat(storage.get(DoubleField.AIR_HUMIDITY, 4)).isEqualTo(45.02);
+    }
+
+    @Test
+    public void matchesDoubleRounding() {
+        CellStorage expected = new ArrayCellStorage(SLOTS);
+        CellStorage actual = new FixedPointCellStorage(SLOTS);
+        Random random = new Random(SEED);
+        for (int slot = 0; slot < SLOTS; slot++) {
+            for (DoubleField field : DoubleField.values()) {
+                // Half of the slots start off the grid, like the input values
+                double value = slot % 2 == 0
+                        ? random.nextInt(10_000) / 100.0 : random.nextDouble() * 100;
+                expected.set(field, slot, value);
+                actual.set(field, slot, value);
+            }
+        }
+        for (int i = 0; i < UPDATES; i++) {
+            int slot = random.nextInt(SLOTS);
+            DoubleField field = DoubleField.values()[random.nextInt(DoubleField.values().length)];
+            if (!field.isRounded()) {
+                continue;
+            }
+            double delta = DELTAS[random.nextInt(DELTAS.length)];
+            expected.addRounded(field, slot, delta);
+            actual.addRounded(field, slot, delta);
+
+            assertThat(Double.doubleToRawLongBits(actual.get(field, slot)))
+                    .isEqualTo(Double.doubleToRawLongBits(expected.get(field, slot)));
+        }
+    }
+}
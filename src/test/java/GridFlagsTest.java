@@ -0,0 +1,92 @@
+import main.Cell;
+import main.Simulation;
+import main.SimulationConfig;
+import main.SimulationMap;
+import main.storage.GridFlags;
+import main.storage.StorageType;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks the bit scans and the state words of GridFlags, and that the flags of a map
+ * still match its cells after animals moved, died and were replaced.
+ */
+public class GridFlagsTest {
+    private static final long SEED = 29;
+    private static final int SIZE = 70;
+    private static final double DENSITY = 0.3;
+    private static final int STEPS = 60;
+
+    @Test
+    public void findsTheNextFlag() {
+        GridFlags flags = new GridFlags(200);
+        flags.set(GridFlags.Flag.PLANT, 3, true);
+        flags.set(GridFlags.Flag.ANIMAL, 64, true);
+        flags.set(GridFlags.Flag.WATER, 199, true);
+        flags.set(GridFlags.Flag.ANIMAL, 130, true);
+        flags.set(GridFlags.Flag.ANIMAL, 130, false);
+
+        assertThat(flags.next(GridFlags.Flag.ANIMAL, 0)).isEqualTo(64);
+        assertThat(flags.next(GridFlags.Flag.ANIMAL, 65)).isEqualTo(-1);
+        assertThat(flags.nextOccupied(4)).isEqualTo(64);
+        assertThat(flags.nextOccupied(65)).isEqualTo(199);
+        assertThat(flags.nextOccupied(200)).isEqualTo(-1);
+    }
+
+    @Test
+    public void packsTheStateWords() {
+        GridFlags flags = new GridFlags(4);
+        flags.set(GridFlags.Flag.SCANNED_ANIMAL, 2, true);
+        flags.set(GridFlags.Flag.PLANT, 2, true);
+        flags.set(GridFlags.Flag.WATER, 2, true);
+        flags.set(GridFlags.Flag.WATER, 2, false);
+
+        int state = flags.state(2);
+        assertThat(GridFlags.has(state, GridFlags.Flag.PLANT)).isTrue();
+        assertThat(GridFlags.has(state, GridFlags.Flag.WATER)).isFalse();
+        assertThat(GridFlags.has(state, GridFlags.Flag.ANIMAL)).isFalse();
+        assertThat(GridFlags.hasScanned(state)).isTrue();
+        assertThat(GridFlags.countObjects(state)).isEqualTo(1);
+        assertThat(flags.state(1)).isEqualTo(0);
+    }
+
+    @Test
+    public void mirrorsTheCells() {
+        SimulationConfig config = new SimulationConfig();
+        config.setStorage(StorageType.ARRAYS);
+        Simulation simulation = new Simulation(
+                TerritoryFixture.territory(SEED, SIZE, SIZE, DENSITY), config);
+        TerritoryFixture.activate(simulation, SEED);
+        simulation.advance(STEPS);
+
+        SimulationMap map = simulation.getMap();
+        GridFlags flags = map.getFlags();
+        for (int x = 0; x < SIZE; x++) {
+            for (int y = 0; y < SIZE; y++) {
+                Cell cell = map.getCell(x, y);
+                int slot = map.slotOf(x, y);
+                assertThat(flags.get(GridFlags.Flag.PLANT, slot))
+                        .isEqualTo(cell.getPlant() != null);
+                assertThat(flags.get(GridFlags.Flag.WATER, slot))
+                        .isEqualTo(cell.getWater() != null);
+                assertThat(flags.get(GridFlags.Flag.ANIMAL, slot))
+                        .isEqualTo(cell.getAnimal() != null);
+                assertThat(flags.get(GridFlags.Flag.SCANNED_PLANT, slot))
+                        .isEqualTo(cell.getPlant() != null && cell.getPlant().isScanned());
+                assertThat(flags.get(GridFlags.Flag.SCANNED_WATER, slot))
+                        .isEqualTo(cell.getWater() != null && cell.getWater().isScanned());
+                assertThat(flags.get(GridFlags.Flag.SCANNED_ANIMAL, slot))
+                        .isEqualTo(cell.getAnimal() != null && cell.getAnimal().isScanned());
+                assertState(cell, flags.state(slot));
+            }
+        }
+    }
+
+    private static void assertState(final Cell cell, final int state) {
+        assertThat(state).isEqualTo(cell.getState());
+        assertThat(GridFlags.countObjects(state)).isEqualTo(cell.getTotalNrOfObjects());
+        assertThat(GridFlags.has(state, GridFlags.Flag.SCANNED_PLANT))
+                .isEqualTo(cell.getPlant() != null && cell.getPlant().isScanned());
+    }
+}
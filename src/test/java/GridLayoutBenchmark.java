@@ -0,0 +1,81 @@
+import main.Cell;
+import main.GridLayout;
+import main.SimulationMap;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Times the three traversals of a large, fully allocated map (the column order of the
+ * engines, the row order of printMap, and forEachCell) with each layout. A traversal
+ * against the layout touches a new cache line at every cell, both in the chunk array and
+ * on the heap, where the cells were allocated in the order of the layout.
+ * Not part of the regular test run; run it with -Dtest=GridLayoutBenchmark.
+ */
+public class GridLayoutBenchmark {
+    private static final int SIZE = 2048;
+    private static final int WARM_UP_ROUNDS = 5;
+    private static final int MEASURED_ROUNDS = 10;
+    private static final double NANOS_PER_MILLI = 1e6;
+
+    @Test
+    public void traversals() {
+        for (GridLayout layout : GridLayout.values()) {
+            SimulationMap map = new SimulationMap(SIZE, SIZE, null, layout);
+            for (int x = 0; x < SIZE; x++) {
+                for (int y = 0; y < SIZE; y++) {
+                    map.getCell(x, y);
+                }
+            }
+            double columns = measure(() -> byColumns(map));
+            double rows = measure(() -> byRows(map));
+            double chunks = measure(() -> byChunks(map));
+            System.out.printf("%-7s columns %.2f ms, rows %.2f ms, forEachCell %.2f ms%n",
+                    layout, columns, rows, chunks);
+        }
+    }
+
+    private static long byColumns(final SimulationMap map) {
+        long sum = 0;
+        for (int x = 0; x < map.getWidth(); x++) {
+            for (int y = 0; y < map.getHeight(); y++) {
+                sum += map.getCell(x, y).getSlot();
+            }
+        }
+        return sum;
+    }
+
+    private static long byRows(final SimulationMap map) {
+        long sum = 0;
+        for (int y = 0; y < map.getHeight(); y++) {
+            for (int x = 0; x < map.getWidth(); x++) {
+                sum += map.getCell(x, y).getSlot();
+            }
+        }
+        return sum;
+    }
+
+    private static long byChunks(final SimulationMap map) {
+        long[] sum = {0};
+        map.forEachCell((Cell cell) -> sum[0] += cell.getSlot());
+        return sum[0];
+    }
+
+    private static double measure(final Traversal traversal) {
+        long elapsed = 0;
+        long check = 0;
+        for (int round = 0; round < WARM_UP_ROUNDS + MEASURED_ROUNDS; round++) {
+            long start = System.nanoTime();
+            check += traversal.run();
+            if (round >= WARM_UP_ROUNDS) {
+                elapsed += System.nanoTime() - start;
+            }
+        }
+        if (check == 0) {
+            throw new IllegalStateException("The traversal was optimized away");
+        }
+        return elapsed / NANOS_PER_MILLI / MEASURED_ROUNDS;
+    }
+
+    private interface Traversal {
+        long run();
+    }
+}
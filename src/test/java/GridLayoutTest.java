@@ -0,0 +1,104 @@
+import com.fasterxml.jackson.databind.ObjectMapper;
+import fileio.CommandInput;
+import fileio.SimulationInput;
+import main.Commands.ChangeWeatherConditions;
+import main.Commands.PrintMap;
+import main.GridLayout;
+import main.Simulation;
+import main.SimulationConfig;
+import main.SimulationMap;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.util.BitSet;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks that every layout stores each cell of a chunk exactly once, and that the layout
+ * changes nothing in the result of a run.
+ */
+public class GridLayoutTest {
+    private static final long SEED = 17;
+    private static final int WIDTH = 150;
+    private static final int HEIGHT = 100;
+    private static final double DENSITY = 0.4;
+    private static final int STEPS = 30;
+    private static final int CHUNK_CELLS = SimulationMap.CHUNK_SIZE * SimulationMap.CHUNK_SIZE;
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    @ParameterizedTest
+    @EnumSource(GridLayout.class)
+    public void indexesEveryCellOnce(final GridLayout layout) {
+        BitSet used = new BitSet();
+        for (int x = 0; x < SimulationMap.CHUNK_SIZE; x++) {
+            for (int y = 0; y < SimulationMap.CHUNK_SIZE; y++) {
+                int index = layout.index(x, y);
+                assertThat(used.get(index)).isFalse();
+                used.set(index);
+                assertThat(layout.xOf(index)).isEqualTo(x);
+                assertThat(layout.yOf(index)).isEqualTo(y);
+            }
+        }
+        assertThat(used.cardinality()).isEqualTo(CHUNK_CELLS);
+    }
+
+    @Test
+    public void placesKnownCells() {
+        // x = 3 = 0b011 and y = 5 = 0b101 interleave, from the top bit, to 0b011011
+        assertThat(GridLayout.COLUMNS.index(3, 5)).isEqualTo(3 * SimulationMap.CHUNK_SIZE + 5);
+        assertThat(GridLayout.ROWS.index(3, 5)).isEqualTo(5 * SimulationMap.CHUNK_SIZE + 3);
+        assertThat(GridLayout.MORTON.index(3, 5)).isEqualTo(0b011011);
+        assertThat(GridLayout.MORTON.index(1, 0)).isEqualTo(2);
+        assertThat(GridLayout.MORTON.index(0, 1)).isEqualTo(1);
+        int last = SimulationMap.CHUNK_SIZE - 1;
+        assertThat(GridLayout.MORTON.index(last, last)).isEqualTo(CHUNK_CELLS - 1);
+        assertThat(GridLayout.MORTON.index(last, 0)).isEqualTo(0b101010101010);
+    }
+
+    @ParameterizedTest
+    @EnumSource(value = GridLayout.class, names = "COLUMNS", mode = EnumSource.Mode.EXCLUDE)
+    public void matchesColumnLayout(final GridLayout layout) {
+        SimulationConfig config = new SimulationConfig();
+        config.setLayout(layout);
+
+        assertThat(run(config)).isEqualTo(run(new SimulationConfig()));
+    }
+
+    @ParameterizedTest
+    @EnumSource(GridLayout.class)
+    public void visitsEveryCellOnce(final GridLayout layout) {
+        SimulationMap map = new SimulationMap(WIDTH, HEIGHT, null, layout);
+        for (int x = 0; x < WIDTH; x++) {
+            for (int y = 0; y < HEIGHT; y++) {
+                map.getCell(x, y);
+            }
+        }
+        BitSet visited = new BitSet();
+        map.forEachCell(cell -> {
+            assertThat(visited.get(map.slotOf(cell.getX(), cell.getY()))).isFalse();
+            visited.set(map.slotOf(cell.getX(), cell.getY()));
+            assertThat(map.getCell(cell.getX(), cell.getY())).isEqualTo(cell);
+        });
+        assertThat(visited.cardinality()).isEqualTo(WIDTH * HEIGHT);
+    }
+
+    private static String run(final SimulationConfig config) {
+        SimulationInput input = TerritoryFixture.territory(SEED, WIDTH, HEIGHT, DENSITY);
+        Simulation simulation = new Simulation(input, config);
+        TerritoryFixture.activate(simulation, SEED);
+        CommandInput command = new CommandInput();
+        command.setCommand("changeWeatherConditions");
+        command.setDesertStorm(true);
+        for (int i = 0; i < STEPS; i++) {
+            if (i % 10 == 0) {
+                ChangeWeatherConditions.execute(command, simulation);
+            }
+            simulation.updateEnvironment();
+        }
+        // printMap reads each chunk in the order of the layout
+        return TerritoryFixture.dump(simulation)
+                + PrintMap.execute(MAPPER, simulation.getMap());
+    }
+}
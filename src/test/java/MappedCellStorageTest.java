@@ -0,0 +1,180 @@
+import com.fasterxml.jackson.databind.ObjectMapper;
+import main.Commands.PrintMap;
+import main.GridLayout;
+import main.Simulation;
+import main.SimulationConfig;
+import main.SimulationMap;
+import main.storage.DoubleField;
+import main.storage.IntField;
+import main.storage.MappedCellStorage;
+import main.storage.StorageType;
+import org.junit.jupiter.api.Test;
+
+import java.util.BitSet;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks that the tiles of the mapped storage keep their records once unmapped, that the
+ * hot tiles stay mapped, that trim leaves a working set within the hysteresis alone, and
+ * that a simulation with a tiny budget of resident tiles, whose quiescent chunks are
+ * parked, matches one that keeps its state in the entities.
+ */
+public class MappedCellStorageTest {
+    private static final long SEED = 37;
+    private static final int SIZE = 200;
+    private static final double DENSITY = 0.3;
+    private static final int STEPS = 40;
+    private static final int TILES = 16;
+    private static final int RESIDENT_TILES = 2;
+    private static final int HEIGHT = 130;
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    @Test
+    public void tilesMatchTheChunks() {
+        assertThat(MappedCellStorage.TILE_SIZE).isEqualTo(SimulationMap.CHUNK_SIZE);
+    }
+
+    @Test
+    public void indexesEverySlotOnce() {
+        MappedCellStorage storage = new MappedCellStorage(SIZE, HEIGHT);
+        BitSet indexes = new BitSet();
+        for (int slot = 0; slot < storage.size(); slot++) {
+            int index = storage.indexOf(slot);
+            assertThat(indexes.get(index)).isFalse();
+            indexes.set(index);
+            assertThat(index >>> 2 * MappedCellStorage.TILE_BITS)
+                    .isEqualTo(storage.tileOf(slot));
+        }
+    }
+
+    @Test
+    public void keepsTheRecordsOfUnmappedTiles() {
+        MappedCellStorage storage = new MappedCellStorage(SIZE, SIZE, RESIDENT_TILES);
+        for (int slot = 0; slot < storage.size(); slot++) {
+            storage.set(DoubleField.PLANT_MASS, storage.indexOf(slot), slot / 100.0);
+            storage.set(IntField.ANIMAL_STATE, storage.indexOf(slot), slot);
+        }
+        assertThat(storage.getMappedTiles()).isEqualTo(TILES);
+
+        int hot = SIZE * SIZE - 1;
+        storage.keep(hot);
+        storage.trim();
+        assertThat(storage.getMappedTiles()).isEqualTo(RESIDENT_TILES);
+        storage.trim();
+        assertThat(storage.getMappedTiles()).isEqualTo(RESIDENT_TILES);
+
+        for (int slot = 0; slot < storage.size(); slot++) {
+            int index = storage.indexOf(slot);
+            assertThat(storage.get(DoubleField.PLANT_MASS, index)).isEqualTo(slot / 100.0);
+            assertThat(storage.get(IntField.ANIMAL_STATE, index)).isEqualTo(slot);
+        }
+    }
+
+    @Test
+    public void trimKeepsAWorkingSetWithinTheHysteresis() {
+        MappedCellStorage storage = new MappedCellStorage(SIZE, SIZE, RESIDENT_TILES);
+        int budget = RESIDENT_TILES * MappedCellStorage.HYSTERESIS;
+        for (int tile = 0; tile < budget; tile++) {
+            touch(storage, tile);
+        }
+        storage.trim();
+        assertThat(storage.getMappedTiles()).isEqualTo(budget);
+
+        touch(storage, budget);
+        storage.trim();
+        assertThat(storage.getMappedTiles()).isEqualTo(RESIDENT_TILES);
+    }
+
+    @Test
+    public void trimUnmapsTheUnusedTilesFirst() {
+        MappedCellStorage storage = new MappedCellStorage(SIZE, SIZE, RESIDENT_TILES);
+        int count = RESIDENT_TILES * MappedCellStorage.HYSTERESIS + 1;
+        for (int tile = 0; tile < count; tile++) {
+            touch(storage, tile);
+        }
+        BitSet unmapped = new BitSet();
+        storage.trim(unmapped::set);
+        // Every tile was used, so they go in the order in which they were mapped
+        assertThat(unmapped.cardinality()).isEqualTo(count - RESIDENT_TILES);
+        assertThat(unmapped.nextClearBit(0)).isEqualTo(count - RESIDENT_TILES);
+
+        unmapped.clear();
+        for (int tile = 0; tile < count - RESIDENT_TILES; tile++) {
+            touch(storage, tile);
+        }
+        storage.trim(unmapped::set);
+        // The two tiles left alone since the previous trim go first
+        assertThat(unmapped.get(count - 2)).isTrue();
+        assertThat(unmapped.get(count - 1)).isTrue();
+        assertThat(storage.getMappedTiles()).isEqualTo(RESIDENT_TILES);
+    }
+
+    @Test
+    public void parksTheQuiescentChunks() {
+        SimulationConfig mapped = new SimulationConfig();
+        mapped.setStorage(StorageType.MAPPED);
+        SimulationMap map = new SimulationMap(SIZE, SIZE,
+                new MappedCellStorage(SIZE, SIZE, RESIDENT_TILES), GridLayout.COLUMNS);
+        // Nothing is scanned, so the map is quiescent once the dead entities are gone
+        Simulation expected = new Simulation(
+                TerritoryFixture.territory(SEED, SIZE, SIZE, DENSITY), new SimulationConfig());
+        Simulation actual = new Simulation(
+                TerritoryFixture.territory(SEED, SIZE, SIZE, DENSITY), mapped, map);
+        for (int i = 0; i < STEPS; i++) {
+            expected.updateEnvironment();
+            actual.updateEnvironment();
+        }
+        assertThat(map.getChunkCount()).isLessThan(TILES);
+        // The tile of the robot is hot
+        assertThat(map.isParked(0, 0)).isFalse();
+        assertThat(PrintMap.execute(MAPPER, map).toString())
+                .isEqualTo(PrintMap.execute(MAPPER, expected.getMap()).toString());
+
+        // Scanning everything brings the parked chunks back, with the same entities
+        TerritoryFixture.activate(expected, SEED);
+        TerritoryFixture.activate(actual, SEED);
+        for (int i = 0; i < STEPS; i++) {
+            expected.updateEnvironment();
+            actual.updateEnvironment();
+        }
+        assertThat(map.getChunkCount()).isEqualTo(TILES);
+        assertThat(TerritoryFixture.dump(actual)).isEqualTo(TerritoryFixture.dump(expected));
+    }
+
+    @Test
+    public void simulationMatchesTheObjects() {
+        SimulationConfig mapped = new SimulationConfig();
+        mapped.setStorage(StorageType.MAPPED);
+        // A map with a tiny budget, handed over as if it was recycled
+        SimulationMap map = new SimulationMap(SIZE, SIZE,
+                new MappedCellStorage(SIZE, SIZE, RESIDENT_TILES), GridLayout.COLUMNS);
+        Simulation expected = create(new SimulationConfig(), null);
+        Simulation actual = create(mapped, map);
+        assertThat(actual.getMap()).isSameAs(map);
+
+        for (int i = 0; i < STEPS; i++) {
+            expected.updateEnvironment();
+            actual.updateEnvironment();
+        }
+        assertThat(PrintMap.execute(MAPPER, actual.getMap()).toString())
+                .isEqualTo(PrintMap.execute(MAPPER, expected.getMap()).toString());
+    }
+
+    /**
+     * Maps a tile by writing into its first record.
+     */
+    private static void touch(final MappedCellStorage storage, final int tile) {
+        int tilesY = (SIZE + MappedCellStorage.TILE_SIZE - 1) / MappedCellStorage.TILE_SIZE;
+        int slot = tile / tilesY * MappedCellStorage.TILE_SIZE * SIZE
+                + tile % tilesY * MappedCellStorage.TILE_SIZE;
+        storage.set(DoubleField.PLANT_MASS, storage.indexOf(slot), 1);
+    }
+
+    private static Simulation create(final SimulationConfig config, final SimulationMap map) {
+        Simulation simulation = new Simulation(
+                TerritoryFixture.territory(SEED, SIZE, SIZE, DENSITY), config, map);
+        TerritoryFixture.activate(simulation, SEED);
+        return simulation;
+    }
+}
@@ -0,0 +1,146 @@
+import main.Cell;
+import main.Simulation;
+import main.SimulationConfig;
+import main.SimulationMap;
+import main.entities.QualityBatch;
+import main.entities.QualityKernel;
+import main.entities.ScalarQualityKernel;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks that the batches give exactly the scores, toxicities and descriptions that the
+ * entities compute one by one, with the vector kernel when the module is available.
+ */
+public class QualityBatchTest {
+    private static final long SEED = 31;
+    private static final int SIZE = 37;
+    private static final double DENSITY = 0.4;
+    private static final int STEPS = 25;
+    private static final int ROWS = 1003;
+    private static final double SPREAD = 150.0;
+
+    @Test
+    public void usesTheVectorKernelWhenAvailable() {
+        boolean available = ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent()
+                && QualityBatch.class.getResource("VectorQualityKernel.class") != null;
+        String kernel = QualityBatch.getDefaultKernel().getClass().getSimpleName();
+
+        assertThat(kernel).isEqualTo(available ? "VectorQualityKernel" : "ScalarQualityKernel");
+    }
+
+    @Test
+    public void kernelsAgree() {
+        Random random = new Random(SEED);
+        double[][] values = new double[QualityBatch.TERMS][ROWS];
+        double[][] weights = new double[QualityBatch.TERMS][ROWS];
+        double[] maxScores = new double[ROWS];
+        for (int i = 0; i < ROWS; i++) {
+            for (int term = 0; term < QualityBatch.TERMS; term++) {
+                values[term][i] = (random.nextDouble() - 0.5) * SPREAD;
+                weights[term][i] = random.nextInt(3) == 0 ? 1.0 : random.nextDouble() - 0.5;
+            }
+            // Whole and half hundredths, where the rounding is decided
+            if (i % 3 == 0) {
+                values[0][i] = random.nextInt(20000) / 200.0;
+                weights[0][i] = 1.0;
+                for (int term = 1; term < QualityBatch.TERMS; term++) {
+                    weights[term][i] = 0;
+                }
+            }
+            maxScores[i] = i % 50 == 0 ? 0 : 50 + random.nextInt(100);
+        }
+        QualityKernel scalar = new ScalarQualityKernel();
+        QualityKernel kernel = QualityBatch.getDefaultKernel();
+
+        double[] expected = new double[ROWS];
+        double[] actual = new double[ROWS];
+        scalar.qualities(values, weights, expected, ROWS);
+        kernel.qualities(values, weights, actual, ROWS);
+        assertThat(actual).isEqualTo(expected);
+
+        double[] expectedToxicity = new double[ROWS];
+        double[] actualToxicity = new double[ROWS];
+        boolean[] expectedToxic = new boolean[ROWS];
+        boolean[] actualToxic = new boolean[ROWS];
+        scalar.toxicities(expected, maxScores, expectedToxicity, expectedToxic, ROWS);
+        kernel.toxicities(expected, maxScores, actualToxicity, actualToxic, ROWS);
+        assertThat(actualToxicity).isEqualTo(expectedToxicity);
+        assertThat(actualToxic).isEqualTo(expectedToxic);
+    }
+
+    @Test
+    public void batchesMatchTheEntities() {
+        Simulation batched = create();
+        Simulation single = create();
+        SimulationMap map = batched.getMap();
+        List<Cell> cells = new ArrayList<>();
+        map.forEachCell(cells::add);
+        QualityBatch airs = QualityBatch.forAir(cells.size());
+        QualityBatch soils = QualityBatch.forSoil(cells.size());
+        for (Cell cell : cells) {
+            airs.add(cell.getAir());
+            soils.add(cell.getSoil());
+        }
+        airs.compute();
+        soils.compute();
+
+        for (int row = 0; row < cells.size(); row++) {
+            Cell cell = single.getMap().getCell(cells.get(row).getX(), cells.get(row).getY());
+            assertThat(airs.getQuality(row)).isEqualTo(cell.getAir().calculateQuality());
+            assertThat(airs.getToxicity(row)).isEqualTo(cell.getAir().calculateToxicity());
+            assertThat(airs.isToxic(row)).isEqualTo(cell.getAir().checkToxicity());
+            assertThat(airs.getInterpretation(row))
+                    .isEqualTo(cell.getAir().interpretationQuality());
+            assertThat(soils.getQuality(row)).isEqualTo(cell.getSoil().calculateQuality());
+            assertThat(soils.getInterpretation(row))
+                    .isEqualTo(cell.getSoil().interpretationQuality());
+            // The batch left its scores in the cache of the entities
+            assertThat(cells.get(row).getAir().hasQuality()).isTrue();
+        }
+    }
+
+    @Test
+    public void batchesGiveTheKnownScores() {
+        Simulation simulation = new Simulation(
+                TerritoryFixture.input("1x3", TerritoryFixture.calmParams(3, 1)),
+                new SimulationConfig());
+        SimulationMap map = simulation.getMap();
+        map.getCell(1, 0).getAir().setWeather(-15);
+        map.getCell(2, 0).getAir().setWeather(-60);
+        QualityBatch airs = QualityBatch.forAir(3);
+        QualityBatch soils = QualityBatch.forSoil(3);
+        for (int x = 0; x < 3; x++) {
+            airs.add(map.getCell(x, 0).getAir());
+            soils.add(map.getCell(x, 0).getSoil());
+        }
+        airs.compute();
+        soils.compute();
+
+        assertThat(airs.getQuality(0)).isEqualTo(67.25);
+        assertThat(airs.getInterpretation(0)).isEqualTo("moderate");
+        // 100 * (1 - 67.25 / 84)
+        assertThat(airs.getToxicity(0)).isEqualTo(19.94);
+        assertThat(airs.getQuality(1)).isEqualTo(52.25);
+        assertThat(airs.getQuality(2)).isEqualTo(7.25);
+        assertThat(airs.getInterpretation(2)).isEqualTo("poor");
+        assertThat(airs.getToxicity(2)).isEqualTo(91.37);
+        assertThat(airs.isToxic(2)).isTrue();
+        assertThat(airs.isToxic(1)).isFalse();
+        assertThat(soils.getQuality(0)).isEqualTo(5.18);
+        assertThat(soils.getInterpretation(0)).isEqualTo("poor");
+    }
+
+    private static Simulation create() {
+        Simulation simulation = new Simulation(
+                TerritoryFixture.territory(SEED, SIZE, SIZE, DENSITY), new SimulationConfig());
+        TerritoryFixture.activate(simulation, SEED);
+        simulation.advance(STEPS);
+        return simulation;
+    }
+}
@@ -0,0 +1,90 @@
+import main.Cell;
+import main.Simulation;
+import main.SimulationConfig;
+import main.SimulationMap;
+import main.storage.StorageType;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Reads every quality score after every step, so that each one is cached, and checks
+ * that the result matches a simulation that only reads them at the end: a mutator that
+ * did not discard the cached score would leave a stale value behind.
+ */
+public class QualityCacheTest {
+    private static final long SEED = 23;
+    private static final int SIZE = 30;
+    private static final double DENSITY = 0.4;
+    private static final int STEPS = 40;
+
+    @Test
+    public void cachedScoresFollowTheSteps() {
+        for (StorageType storage : StorageType.values()) {
+            SimulationConfig config = new SimulationConfig();
+            config.setStorage(storage);
+            Simulation eager = create(config);
+            Simulation lazy = create(config);
+            for (int i = 0; i < STEPS; i++) {
+                readQualities(eager.getMap());
+                eager.updateEnvironment();
+                lazy.updateEnvironment();
+            }
+
+            assertThat(TerritoryFixture.dump(eager)).isEqualTo(TerritoryFixture.dump(lazy));
+        }
+    }
+
+    @Test
+    public void mutatorsDiscardTheScore() {
+        Simulation simulation = create(new SimulationConfig());
+        Cell cell = simulation.getMap().getCell(0, 0);
+        double air = cell.getAir().calculateQuality();
+        double soil = cell.getSoil().calculateQuality();
+
+        cell.getAir().setWeather(-30);
+        cell.getSoil().updateOrganicMatter(50);
+        cell.getSoil().updateWaterRetention(50);
+
+        assertThat(cell.getAir().calculateQuality()).isLessThan(air);
+        assertThat(cell.getSoil().calculateQuality()).isGreaterThan(soil);
+    }
+
+    @Test
+    public void mutatorsGiveTheKnownScores() {
+        Simulation simulation = new Simulation(
+                TerritoryFixture.input("1x1", TerritoryFixture.calmParams(1, 1)),
+                new SimulationConfig());
+        Cell cell = simulation.getMap().getCell(0, 0);
+        assertThat(cell.getAir().calculateQuality()).isEqualTo(67.25);
+        assertThat(cell.getSoil().calculateQuality()).isEqualTo(5.18);
+
+        cell.getAir().updateHumidity(0.1);
+        assertThat(cell.getAir().calculateQuality()).isEqualTo(67.32);
+        cell.getAir().updateOxygen(0.5);
+        assertThat(cell.getAir().calculateQuality()).isEqualTo(68.32);
+        cell.getAir().setWeather(-15);
+        assertThat(cell.getAir().calculateQuality()).isEqualTo(53.32);
+        cell.getSoil().updateWaterRetention(0.1);
+        assertThat(cell.getSoil().calculateQuality()).isEqualTo(5.33);
+        cell.getSoil().updateOrganicMatter(1.0);
+        assertThat(cell.getSoil().calculateQuality()).isEqualTo(7.33);
+    }
+
+    private static Simulation create(final SimulationConfig config) {
+        Simulation simulation = new Simulation(
+                TerritoryFixture.territory(SEED, SIZE, SIZE, DENSITY), config);
+        TerritoryFixture.activate(simulation, SEED);
+        return simulation;
+    }
+
+    private static void readQualities(final SimulationMap map) {
+        map.forEachCell(cell -> {
+            cell.getAir().checkToxicity();
+            cell.getSoil().calculateQuality();
+            if (cell.getWater() != null) {
+                cell.getWater().calculateQuality();
+            }
+        });
+    }
+}
@@ -0,0 +1,58 @@
+import main.entities.QualityBatch;
+import main.entities.QualityKernel;
+import main.entities.ScalarQualityKernel;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+/**
+ * Times the scalar kernel and the default one (the vector kernel when the module is
+ * available) on the columns of a batch as large as a column of a big map, computing the
+ * scores, the toxicities and the descriptions.
+ * Not part of the regular test run; run it with -Dtest=QualityKernelBenchmark.
+ */
+public class QualityKernelBenchmark {
+    private static final long SEED = 5;
+    private static final int ROWS = 1 << 16;
+    private static final int WARM_UP_ROUNDS = 200;
+    private static final int MEASURED_ROUNDS = 500;
+    private static final double NANOS_PER_MICRO = 1e3;
+    private static final double MAX_SCORE = 82.0;
+    private static final double MODERATE_FROM = 40.0;
+    private static final double GOOD_ABOVE = 70.0;
+
+    @Test
+    public void kernels() {
+        Random random = new Random(SEED);
+        double[][] values = new double[QualityBatch.TERMS][ROWS];
+        double[][] weights = new double[QualityBatch.TERMS][ROWS];
+        double[] maxScores = new double[ROWS];
+        for (int i = 0; i < ROWS; i++) {
+            for (int term = 0; term < QualityBatch.TERMS; term++) {
+                values[term][i] = random.nextDouble() * 100;
+                weights[term][i] = random.nextDouble() - 0.25;
+            }
+            maxScores[i] = MAX_SCORE;
+        }
+        for (QualityKernel kernel : new QualityKernel[] {
+            new ScalarQualityKernel(), QualityBatch.getDefaultKernel()}) {
+            double[] qualities = new double[ROWS];
+            double[] toxicities = new double[ROWS];
+            boolean[] toxic = new boolean[ROWS];
+            boolean[] notPoor = new boolean[ROWS];
+            boolean[] good = new boolean[ROWS];
+            long elapsed = 0;
+            for (int round = 0; round < WARM_UP_ROUNDS + MEASURED_ROUNDS; round++) {
+                long start = System.nanoTime();
+                kernel.qualities(values, weights, qualities, ROWS);
+                kernel.toxicities(qualities, maxScores, toxicities, toxic, ROWS);
+                kernel.levels(qualities, MODERATE_FROM, GOOD_ABOVE, notPoor, good, ROWS);
+                if (round >= WARM_UP_ROUNDS) {
+                    elapsed += System.nanoTime() - start;
+                }
+            }
+            System.out.printf("%-20s %.1f us per %d rows%n", kernel.getClass().getSimpleName(),
+                    elapsed / NANOS_PER_MICRO / MEASURED_ROUNDS, ROWS);
+        }
+    }
+}
@@ -0,0 +1,93 @@
+import main.Cell;
+import main.Simulation;
+import main.SimulationConfig;
+import main.SimulationMap;
+import main.engine.EngineType;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks that a map with nothing left to change skips steps, and that a command marking
+ * a cell wakes it up again.
+ */
+public class QuiescenceTest {
+    private static final long SEED = 11;
+    private static final int SIZE = 40;
+    private static final double DENSITY = 0.3;
+    private static final int LONG_GAP = 1_000_000_000;
+
+    @ParameterizedTest
+    @EnumSource(EngineType.class)
+    public void skipsStepsOnceQuiescent(final EngineType engine) {
+        Simulation simulation = create(engine);
+        // Nothing is scanned: the first step only removes the dead entities
+        simulation.updateEnvironment();
+        assertThat(simulation.isQuiescent()).isTrue();
+        String before = TerritoryFixture.dump(simulation);
+
+        simulation.advance(LONG_GAP);
+
+        assertThat(simulation.getStep()).isEqualTo(LONG_GAP + 1);
+        assertThat(TerritoryFixture.dump(simulation)).isEqualTo(before);
+    }
+
+    @ParameterizedTest
+    @EnumSource(EngineType.class)
+    public void wakesUpWhenACellIsMarked(final EngineType engine) {
+        Simulation simulation = create(engine);
+        simulation.updateEnvironment();
+        SimulationMap map = simulation.getMap();
+        Cell cell = findWater(map);
+        double humidity = cell.getAir().getHumidity();
+
+        cell.getWater().scan();
+        map.markActive(cell.getX(), cell.getY());
+        assertThat(simulation.isQuiescent()).isFalse();
+        // Steps 2 and 3: only the even one raises the humidity
+        simulation.advance(2);
+
+        assertThat(simulation.isQuiescent()).isFalse();
+        assertThat(cell.getAir().getHumidity()).isEqualTo(Math.round(humidity * 100 + 10) / 100.0);
+    }
+
+    @ParameterizedTest
+    @EnumSource(EngineType.class)
+    public void endsTheWeatherOfAQuiescentMap(final EngineType engine) {
+        SimulationConfig config = new SimulationConfig();
+        config.setEngine(engine);
+        Simulation simulation = new Simulation(
+                TerritoryFixture.input("2x2", TerritoryFixture.calmParams(2, 2)), config);
+        simulation.updateEnvironment();
+        Cell cell = simulation.getMap().getCell(1, 1);
+        cell.getAir().setWeather(-20);
+        simulation.scheduleWeatherEnd(1, 1, 3);
+        simulation.updateEnvironment();
+        assertThat(simulation.isQuiescent()).isTrue();
+        assertThat(cell.getAir().calculateQuality()).isEqualTo(47.25);
+
+        simulation.advance(LONG_GAP);
+
+        assertThat(cell.getAir().getWeatherInfluence()).isEqualTo(0.0);
+        assertThat(cell.getAir().calculateQuality()).isEqualTo(67.25);
+    }
+
+    private static Simulation create(final EngineType engine) {
+        SimulationConfig config = new SimulationConfig();
+        config.setEngine(engine);
+        return new Simulation(TerritoryFixture.territory(SEED, SIZE, SIZE, DENSITY), config);
+    }
+
+    private static Cell findWater(final SimulationMap map) {
+        for (int x = 0; x < map.getWidth(); x++) {
+            for (int y = 0; y < map.getHeight(); y++) {
+                Cell cell = map.getCell(x, y);
+                if (cell.getWater() != null) {
+                    return cell;
+                }
+            }
+        }
+        throw new IllegalStateException("The territory has no water");
+    }
+}
@@ -0,0 +1,124 @@
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import main.Cell;
+import main.Simulation;
+import main.SimulationConfig;
+import main.SimulationMap;
+import main.entities.EntityPool;
+import main.entities.Plant.MaturityLevel;
+import main.entities.Plant.Plant;
+import main.entities.Water.Water;
+import main.storage.StorageType;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs a simulation on the map and entities recycled from an ended one, and checks that
+ * it reaches the same state as a simulation built from scratch.
+ */
+public class RecycleTest {
+    private static final long FIRST_SEED = 41;
+    private static final long SECOND_SEED = 42;
+    private static final int SIZE = 40;
+    private static final double DENSITY = 0.35;
+    private static final int STEPS = 80;
+
+    @Test
+    public void recycledMatchesFresh() {
+        for (StorageType storage : StorageType.values()) {
+            SimulationConfig config = new SimulationConfig();
+            config.setStorage(storage);
+            Simulation first = run(new Simulation(
+                    TerritoryFixture.territory(FIRST_SEED, SIZE, SIZE, DENSITY), config));
+            SimulationMap recycled = first.recycle();
+            assertThat(recycled.getPool().size()).isGreaterThan(0);
+
+            Simulation second = run(new Simulation(
+                    TerritoryFixture.territory(SECOND_SEED, SIZE, SIZE, DENSITY), config,
+                    recycled));
+            Simulation fresh = run(new Simulation(
+                    TerritoryFixture.territory(SECOND_SEED, SIZE, SIZE, DENSITY), config));
+
+            assertThat(second.getMap()).isSameAs(recycled);
+            assertThat(TerritoryFixture.dump(second)).isEqualTo(TerritoryFixture.dump(fresh));
+        }
+    }
+
+    @Test
+    public void reusesTheRemovedEntities() {
+        SimulationConfig config = new SimulationConfig();
+        Simulation first = new Simulation(
+                TerritoryFixture.territory(FIRST_SEED, SIZE, SIZE, 1.0), config);
+        SimulationMap recycled = first.recycle();
+        Plant plant = recycled.getCell(0, 0).getPlant();
+        assertThat(plant).isNotNull();
+        new Simulation(
+                TerritoryFixture.territory(FIRST_SEED, SIZE, SIZE, 1.0), config, recycled);
+
+        // The same input takes back every entity it released
+        assertThat(recycled.getPool().size()).isEqualTo(0);
+    }
+
+    @Test
+    public void resetsTheReusedEntities() {
+        ObjectNode params = TerritoryFixture.calmParams(2, 1);
+        params.withArray("plants").add(TerritoryFixture.entity("Ferns", "SilverFern", 3, 0, 0));
+        params.withArray("water").add(TerritoryFixture.lake(50, 0, 0));
+        SimulationConfig config = new SimulationConfig();
+        Simulation first = new Simulation(TerritoryFixture.input("1x2", params), config);
+        Cell cell = first.getMap().getCell(0, 0);
+        Plant plant = cell.getPlant();
+        plant.scan();
+        cell.getWater().scan();
+        // The plant grows by 0.4 a step and matures on step 3
+        first.advance(4);
+        assertThat(plant.getLevel()).isEqualTo(MaturityLevel.MATURE);
+        assertThat(cell.getAir().getHumidity()).isEqualTo(40.2);
+
+        Simulation second = new Simulation(
+                TerritoryFixture.input("1x2", params), config, first.recycle());
+
+        Cell reused = second.getMap().getCell(0, 0);
+        assertThat(reused.getPlant()).isSameAs(plant);
+        assertThat(plant.getLevel()).isEqualTo(MaturityLevel.YOUNG);
+        assertThat(plant.getMass()).isEqualTo(3.0);
+        assertThat(plant.isScanned()).isFalse();
+        assertThat(reused.getWater().isScanned()).isFalse();
+        assertThat(reused.getAir().getHumidity()).isEqualTo(40.0);
+        assertThat(reused.getSoil().getWaterRetention()).isEqualTo(0.8);
+        assertThat(second.getMap().getPool().size()).isEqualTo(0);
+    }
+
+    @Test
+    public void boundsTheReleasedEntities() {
+        ObjectNode params = TerritoryFixture.calmParams(1, 1);
+        params.withArray("water").add(TerritoryFixture.lake(50, 0, 0));
+        Simulation simulation =
+                new Simulation(TerritoryFixture.input("1x1", params), new SimulationConfig());
+        Water water = simulation.getMap().getCell(0, 0).getWater();
+        EntityPool pool = new EntityPool();
+        for (int i = 0; i <= EntityPool.MAX_FREE; i++) {
+            pool.release(water);
+        }
+
+        assertThat(pool.size()).isEqualTo(EntityPool.MAX_FREE);
+    }
+
+    @Test
+    public void keepsNoMapOfAnotherSize() {
+        SimulationConfig config = new SimulationConfig();
+        SimulationMap recycled = new Simulation(
+                TerritoryFixture.territory(FIRST_SEED, SIZE, SIZE, DENSITY), config).recycle();
+        Simulation other = new Simulation(
+                TerritoryFixture.territory(FIRST_SEED, SIZE + 1, SIZE, DENSITY), config,
+                recycled);
+
+        assertThat(other.getMap()).isNotSameAs(recycled);
+    }
+
+    private static Simulation run(final Simulation simulation) {
+        TerritoryFixture.activate(simulation, SECOND_SEED);
+        simulation.advance(STEPS);
+        return simulation;
+    }
+}
@@ -0,0 +1,69 @@
+import main.GridLayout;
+import main.Main;
+import main.SimulationConfig;
+import main.engine.EngineType;
+import main.storage.StorageType;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs every input with each alternative configuration and checks that the output is
+ * byte-identical to the one produced by the default configuration.
+ */
+public class SimulationConfigTest {
+    private static final String OUTPUT_DIR = "out/config/";
+
+    public static Stream<Arguments> data() {
+        File[] inputs = Objects.requireNonNull(new File("input").listFiles());
+        Arrays.sort(inputs);
+        return Arrays.stream(inputs)
+                .flatMap(input -> configs().map(config -> Arguments.of(input.getPath(), config)));
+    }
+
+    private static Stream<NamedConfig> configs() {
+        return Stream.of(
+                new NamedConfig("arrays", config -> config.setStorage(StorageType.ARRAYS)),
+                new NamedConfig("fixed", config -> config.setStorage(StorageType.FIXED_POINT)),
+                new NamedConfig("mapped", config -> config.setStorage(StorageType.MAPPED)),
+                new NamedConfig("sparse", config -> config.setEngine(EngineType.SPARSE)),
+                new NamedConfig("tiled", config -> config.setEngine(EngineType.TILED)),
+                new NamedConfig("phased", config -> config.setEngine(EngineType.PHASED)),
+                new NamedConfig("rows", config -> config.setLayout(GridLayout.ROWS)),
+                new NamedConfig("morton", config -> config.setLayout(GridLayout.MORTON))
+        );
+    }
+
+    @ParameterizedTest(name = "{0} [{1}]")
+    @MethodSource("data")
+    public void matchesDefault(final String inputPath, final NamedConfig named) throws IOException {
+        String fileName = new File(inputPath).getName();
+        File expected = new File(OUTPUT_DIR + "default/" + fileName);
+        File actual = new File(OUTPUT_DIR + named.name() + "/" + fileName);
+
+        Main.action(inputPath, expected.getPath(), new SimulationConfig());
+        SimulationConfig config = new SimulationConfig();
+        named.setup().accept(config);
+        Main.action(inputPath, actual.getPath(), config);
+
+        assertThat(Files.readString(actual.toPath()))
+                .isEqualTo(Files.readString(expected.toPath()));
+    }
+
+    public record NamedConfig(String name, Consumer<SimulationConfig> setup) {
+        @Override
+        public String toString() {
+            return name;
+        }
+    }
+}
@@ -0,0 +1,39 @@
+import main.storage.SlotInts;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks that SlotInts reads 0 for the slots never set, and only allocates the pages
+ * of the slots that were given a value.
+ */
+public class SlotIntsTest {
+    private static final int SIZE = 10 * SlotInts.PAGE_SIZE + 7;
+
+    @Test
+    public void allocatesOnlyTheWrittenPages() {
+        SlotInts ints = new SlotInts(SIZE);
+        ints.set(3, 0);
+        assertThat(ints.getPageCount()).isEqualTo(0);
+
+        ints.set(SIZE - 1, 42);
+        ints.set(SlotInts.PAGE_SIZE + 1, -5);
+
+        assertThat(ints.getPageCount()).isEqualTo(2);
+        assertThat(ints.get(SIZE - 1)).isEqualTo(42);
+        assertThat(ints.get(SlotInts.PAGE_SIZE + 1)).isEqualTo(-5);
+        assertThat(ints.get(SlotInts.PAGE_SIZE)).isEqualTo(0);
+        assertThat(ints.get(3)).isEqualTo(0);
+    }
+
+    @Test
+    public void clearKeepsThePages() {
+        SlotInts ints = new SlotInts(SIZE);
+        ints.set(SlotInts.PAGE_SIZE * 4, 9);
+
+        ints.clear();
+
+        assertThat(ints.get(SlotInts.PAGE_SIZE * 4)).isEqualTo(0);
+        assertThat(ints.getPageCount()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,178 @@
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import fileio.CommandInput;
+import fileio.SimulationInput;
+import main.Commands.ChangeWeatherConditions;
+import main.Commands.PrintMap;
+import main.Simulation;
+import main.SimulationConfig;
+import main.SimulationMap;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Checks that the published snapshots render like the live map, that the changes made
+ * outside a step are published too, that a capture only copies the chunks that changed,
+ * and that a reader on another thread only ever sees the map as it was at the end of a
+ * step or of a change.
+ */
+public class SnapshotTest {
+    private static final long SEED = 3;
+    private static final int SIZE = 30;
+    private static final double DENSITY = 0.4;
+    private static final int STEPS = 300;
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    @Test
+    public void rendersLikeTheLiveMap() {
+        Simulation simulation = create();
+        for (int i = 0; i < 25; i++) {
+            simulation.updateEnvironment();
+        }
+        simulation.advance(100);
+
+        String snapshot = simulation.readSnapshot(TerritoryFixture::dump);
+        String printMap = simulation.readSnapshot(s -> PrintMap.execute(MAPPER, s).toString());
+
+        assertThat(snapshot).isEqualTo(TerritoryFixture.dump(simulation));
+        int step = simulation.readSnapshot(s -> s.getStep());
+        assertThat(printMap).isEqualTo(PrintMap.execute(MAPPER, simulation.getMap()).toString());
+        assertThat(step).isEqualTo(125);
+    }
+
+    @Test
+    public void commandsAndDeferredStepsRepublish() {
+        Simulation simulation = create();
+        String before = simulation.readSnapshot(TerritoryFixture::dump);
+        CommandInput command = new CommandInput();
+        command.setCommand("changeWeatherConditions");
+        command.setDesertStorm(true);
+
+        assertThat(ChangeWeatherConditions.execute(command, simulation))
+                .isEqualTo("The weather has changed.");
+        String unpublished = simulation.readSnapshot(TerritoryFixture::dump);
+        assertThat(unpublished).isEqualTo(before);
+        simulation.publish();
+        String changed = simulation.readSnapshot(TerritoryFixture::dump);
+        assertThat(changed.equals(before)).isFalse();
+        assertThat(changed).isEqualTo(TerritoryFixture.dump(simulation));
+
+        simulation.defer(7);
+        int step = simulation.readSnapshot(s -> s.getStep());
+        String deferred = simulation.readSnapshot(TerritoryFixture::dump);
+        assertThat(step).isEqualTo(7);
+        assertThat(deferred).isEqualTo(TerritoryFixture.dump(simulation));
+    }
+
+    @Test
+    public void keepsTheValuesOfThePublishedStep() {
+        ObjectNode params = TerritoryFixture.calmParams(1, 1);
+        params.withArray("water").add(TerritoryFixture.lake(50, 0, 0));
+        SimulationConfig config = new SimulationConfig();
+        config.setSnapshots(true);
+        Simulation simulation = new Simulation(TerritoryFixture.input("1x1", params), config);
+        simulation.getMap().getCell(0, 0).getWater().scan();
+        simulation.advance(4);
+        double published = simulation.readSnapshot(s -> s.getHumidity(0));
+        assertThat(published).isEqualTo(40.2);
+
+        // Not published yet: the readers keep the values of step 4
+        simulation.getMap().getCell(0, 0).getAir().updateHumidity(1.0);
+        double humidity = simulation.readSnapshot(s -> s.getHumidity(0));
+        double quality = simulation.readSnapshot(s -> s.getAirQuality(0));
+        assertThat(humidity).isEqualTo(40.2);
+        assertThat(quality).isEqualTo(67.39);
+        simulation.updateEnvironment();
+        double next = simulation.readSnapshot(s -> s.getHumidity(0));
+        int step = simulation.readSnapshot(s -> s.getStep());
+        assertThat(next).isEqualTo(41.2);
+        assertThat(step).isEqualTo(5);
+    }
+
+    @Test
+    public void copiesOnlyTheChangedChunks() {
+        ObjectNode params = TerritoryFixture.calmParams(2 * SimulationMap.CHUNK_SIZE,
+                SimulationMap.CHUNK_SIZE);
+        params.withArray("water").add(TerritoryFixture.lake(50, 0, 0));
+        SimulationConfig config = new SimulationConfig();
+        config.setSnapshots(true);
+        Simulation simulation = new Simulation(TerritoryFixture.input(
+                SimulationMap.CHUNK_SIZE + "x" + 2 * SimulationMap.CHUNK_SIZE, params), config);
+        simulation.getMap().getCell(0, 0).getWater().scan();
+        for (int i = 0; i < 4; i++) {
+            simulation.updateEnvironment();
+        }
+
+        // Only the chunk of the scanned lake changes once both snapshots were filled
+        int copied = simulation.readSnapshot(s -> s.getCopiedChunks());
+        String snapshot = simulation.readSnapshot(TerritoryFixture::dump);
+        assertThat(copied).isEqualTo(1);
+        assertThat(snapshot).isEqualTo(TerritoryFixture.dump(simulation));
+    }
+
+    @Test
+    public void retriesAReaderThatFailsOnAnOverwrittenSnapshot() {
+        Simulation simulation = create();
+        AtomicInteger calls = new AtomicInteger();
+        int step = simulation.readSnapshot(s -> {
+            if (calls.getAndIncrement() == 0) {
+                // Overwrites the snapshot being read, as two racing steps would
+                simulation.publish();
+                simulation.publish();
+                throw new NullPointerException();
+            }
+            return s.getStep();
+        });
+        assertThat(step).isEqualTo(0);
+        assertThat(calls.get()).isEqualTo(2);
+
+        assertThatThrownBy(() -> simulation.readSnapshot(s -> {
+            throw new IllegalStateException("consistent");
+        })).isInstanceOf(IllegalStateException.class).hasMessage("consistent");
+    }
+
+    @Test
+    public void readersSeeWholeSteps() throws InterruptedException {
+        Simulation simulation = create();
+        Map<Integer, String> expected = new ConcurrentHashMap<>();
+        expected.put(0, PrintMap.execute(MAPPER, simulation.getMap()).toString());
+        List<Object[]> reads = new CopyOnWriteArrayList<>();
+        AtomicBoolean done = new AtomicBoolean();
+        Thread reader = new Thread(() -> {
+            while (!done.get()) {
+                reads.add(simulation.readSnapshot(s -> new Object[] {
+                    s.getStep(), PrintMap.execute(MAPPER, s).toString()}));
+            }
+        });
+        reader.start();
+        for (int i = 1; i <= STEPS; i++) {
+            simulation.updateEnvironment();
+            expected.put(i, PrintMap.execute(MAPPER, simulation.getMap()).toString());
+        }
+        done.set(true);
+        reader.join();
+
+        assertThat(reads.isEmpty()).isFalse();
+        for (Object[] read : reads) {
+            assertThat(read[1]).isEqualTo(expected.get((Integer) read[0]));
+        }
+    }
+
+    private static Simulation create() {
+        SimulationInput input = TerritoryFixture.territory(SEED, SIZE, SIZE, DENSITY);
+        SimulationConfig config = new SimulationConfig();
+        config.setSnapshots(true);
+        Simulation simulation = new Simulation(input, config);
+        TerritoryFixture.activate(simulation, SEED);
+        return simulation;
+    }
+}
@@ -0,0 +1,92 @@
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import fileio.CommandInput;
+import fileio.InputLoader;
+import fileio.SimulationInput;
+import fileio.StreamingInputLoader;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks that the streaming loader reads the same simulations and commands as the
+ * InputLoader, whatever the order of the fields of the input.
+ */
+public class StreamingInputLoaderTest {
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    @Test
+    public void readsTheSameInputs() throws IOException {
+        File[] inputs = Objects.requireNonNull(new File("input").listFiles());
+        Arrays.sort(inputs);
+        for (File input : inputs) {
+            InputLoader expected = new InputLoader(input.getPath());
+            try (StreamingInputLoader actual = new StreamingInputLoader(input.getPath())) {
+                assertThat(tree(simulations(actual))).isEqualTo(tree(expected.getSimulations()));
+                assertThat(tree(commands(actual))).isEqualTo(tree(expected.getCommands()));
+            }
+        }
+    }
+
+    @Test
+    public void readsTheCommandsBeforeTheSimulations() throws IOException {
+        File[] inputs = Objects.requireNonNull(new File("input").listFiles());
+        Arrays.sort(inputs);
+        InputLoader expected = new InputLoader(inputs[0].getPath());
+        ObjectNode root = (ObjectNode) MAPPER.readTree(inputs[0]);
+        ObjectNode reversed = MAPPER.createObjectNode();
+        reversed.put("comment", "ignored");
+        reversed.set("commands", root.get("commands"));
+        reversed.set("simulationParams", root.get("simulationParams"));
+        Path path = Files.createTempFile("terrabot-input-", ".json");
+        try {
+            MAPPER.writeValue(path.toFile(), reversed);
+            try (StreamingInputLoader actual = new StreamingInputLoader(path.toString())) {
+                // Interleaved, as Main reads them
+                CommandInput first = actual.nextCommand();
+                SimulationInput simulation = actual.nextSimulation();
+                assertThat(tree(first)).isEqualTo(tree(expected.getCommands().get(0)));
+                assertThat(tree(simulation)).isEqualTo(tree(expected.getSimulations().get(0)));
+                List<CommandInput> rest = commands(actual);
+                assertThat(rest.size()).isEqualTo(expected.getCommands().size() - 1);
+                assertThat(actual.nextCommand()).isNull();
+            }
+        } finally {
+            Files.delete(path);
+        }
+    }
+
+    private static JsonNode tree(final Object input) {
+        return MAPPER.valueToTree(input);
+    }
+
+    private static List<SimulationInput> simulations(final StreamingInputLoader loader)
+            throws IOException {
+        List<SimulationInput> simulations = new ArrayList<>();
+        for (SimulationInput input = loader.nextSimulation(); input != null;
+                input = loader.nextSimulation()) {
+            simulations.add(input);
+        }
+        return simulations;
+    }
+
+    private static List<CommandInput> commands(final StreamingInputLoader loader)
+            throws IOException {
+        List<CommandInput> commands = new ArrayList<>();
+        for (CommandInput input = loader.nextCommand(); input != null;
+                input = loader.nextCommand()) {
+            commands.add(input);
+        }
+        return commands;
+    }
+}
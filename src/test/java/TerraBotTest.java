@@ -0,0 +1,26 @@
+import main.TerraBot;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks that the inventory of the robot only refers to the scanned entities by name.
+ */
+public class TerraBotTest {
+    @Test
+    public void inventoryKeepsNames() {
+        TerraBot robot = new TerraBot(0);
+        robot.addToInventory(() -> "rose");
+        robot.addToInventory(() -> "rose");
+        robot.addToInventory(() -> "lake");
+
+        assertThat(robot.getInventory().get(0)).isEqualTo("rose");
+        assertThat(robot.hasEntity("lake")).isTrue();
+
+        robot.removeFromInventory("rose");
+        assertThat(robot.hasEntity("rose")).isTrue();
+        robot.removeFromInventory("rose");
+        assertThat(robot.hasEntity("rose")).isFalse();
+        assertThat(robot.getInventory().size()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,251 @@
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import fileio.SimulationInput;
+import main.Cell;
+import main.Commands.PrintEnvConditions;
+import main.MapSnapshot;
+import main.Simulation;
+import main.SimulationMap;
+import main.TerraBot;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Builds random territories much larger than the ones in the input files, for the tests
+ * that compare engines or storages on maps where the parallel code paths really split,
+ * and small hand-made ones, whose values after a few steps are known.
+ */
+public final class TerritoryFixture {
+    private static final String[] AIR = {
+        "TropicalAir", "PolarAir", "TemperateAir", "DesertAir", "MountainAir"};
+    private static final String[] SOIL = {
+        "ForestSoil", "SwampSoil", "DesertSoil", "GrasslandSoil", "TundraSoil"};
+    private static final String[] PLANTS = {
+        "FloweringPlants", "GymnospermsPlants", "Ferns", "Mosses", "Algae"};
+    private static final String[] ANIMALS = {
+        "Herbivores", "Carnivores", "Omnivores", "Detritivores", "Parasites"};
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private TerritoryFixture() {
+
+    }
+
+    /**
+     * Creates a territory where every cell has air and soil and, with the given density,
+     * plants, water and animals. Some entities start dead or empty.
+     */
+    public static SimulationInput territory(final long seed, final int width, final int height,
+                                            final double density) {
+        Random random = new Random(seed);
+        List<Map<String, Object>> air = new ArrayList<>();
+        List<Map<String, Object>> soil = new ArrayList<>();
+        List<Map<String, Object>> plants = new ArrayList<>();
+        List<Map<String, Object>> animals = new ArrayList<>();
+        List<Map<String, Object>> water = new ArrayList<>();
+        for (int x = 0; x < width; x++) {
+            for (int y = 0; y < height; y++) {
+                air.add(section(random, AIR[random.nextInt(AIR.length)], x, y,
+                        "humidity", 10, 90, "temperature", -20, 40, "oxygenLevel", 15, 25,
+                        "altitude", 100, 3000, "pollenLevel", 0, 20, "co2Level", 0, 1,
+                        "iceCrystalConcentration", 0, 5, "dustParticles", 0, 50));
+                soil.add(section(random, SOIL[random.nextInt(SOIL.length)], x, y,
+                        "nitrogen", 0, 5, "waterRetention", 0, 9, "soilpH", 4, 8,
+                        "organicMatter", 0, 2, "leafLitter", 0, 10, "waterLogging", 0, 1,
+                        "permafrostDepth", 0, 50, "rootDensity", 0, 15, "salinity", 0, 1));
+                if (random.nextDouble() < density) {
+                    plants.add(section(random, PLANTS[random.nextInt(PLANTS.length)], x, y));
+                }
+                if (random.nextDouble() < density) {
+                    animals.add(section(random, ANIMALS[random.nextInt(ANIMALS.length)], x, y));
+                }
+                if (random.nextDouble() < density) {
+                    Map<String, Object> source = section(random, "lake", x, y,
+                            "purity", 0, 100, "salinity", 0, 300, "turbidity", 0, 100,
+                            "contaminantIndex", 0, 100, "pH", 5, 9);
+                    source.put("isFrozen", random.nextInt(5) == 0);
+                    water.add(source);
+                }
+            }
+        }
+        Map<String, Object> params = new LinkedHashMap<>();
+        params.put("soil", soil);
+        params.put("plants", plants);
+        params.put("animals", animals);
+        params.put("water", water);
+        params.put("air", air);
+        Map<String, Object> simulation = new LinkedHashMap<>();
+        simulation.put("territoryDim", height + "x" + width);
+        simulation.put("energyPoints", 1000);
+        simulation.put("territorySectionParams", params);
+        return MAPPER.convertValue(simulation, SimulationInput.class);
+    }
+
+    /**
+     * Creates the parameters of a territory with no sections, to be filled by hand.
+     */
+    public static ObjectNode emptyParams() {
+        ObjectNode params = MAPPER.createObjectNode();
+        for (String field : new String[] {"soil", "plants", "animals", "water", "air"}) {
+            params.putArray(field);
+        }
+        return params;
+    }
+
+    /**
+     * Creates an entity covering a single section.
+     */
+    public static ObjectNode entity(final String type, final String name, final double mass,
+                                    final int x, final int y) {
+        ObjectNode entity = MAPPER.createObjectNode();
+        entity.put("type", type);
+        entity.put("name", name);
+        entity.put("mass", mass);
+        entity.putArray("sections").addObject().put("x", x).put("y", y);
+        return entity;
+    }
+
+    /**
+     * Adds a calm air and soil (see calmCell) to every cell of a territory.
+     */
+    public static ObjectNode calmParams(final int width, final int height) {
+        ObjectNode params = emptyParams();
+        for (int x = 0; x < width; x++) {
+            for (int y = 0; y < height; y++) {
+                calmCell(params, x, y);
+            }
+        }
+        return params;
+    }
+
+    /**
+     * Adds a temperate air of quality 67.25 (humidity 40, oxygen 20, pollen 7.5) and a
+     * forest soil of quality 5.18 (water retention 0.8) to a cell.
+     */
+    public static void calmCell(final ObjectNode params, final int x, final int y) {
+        ObjectNode air = entity("TemperateAir", "Calm Spring Air", 90000, x, y);
+        air.put("humidity", 40);
+        air.put("temperature", 16);
+        air.put("oxygenLevel", 20);
+        air.put("pollenLevel", 7.5);
+        params.withArray("air").add(air);
+        ObjectNode soil = entity("ForestSoil", "LightForestSoil", 900, x, y);
+        soil.put("nitrogen", 2.6);
+        soil.put("waterRetention", 0.8);
+        soil.put("soilpH", 5.3);
+        soil.put("organicMatter", 0.4);
+        soil.put("leafLitter", 0.2);
+        params.withArray("soil").add(soil);
+    }
+
+    /**
+     * Creates a clear lake covering a single section.
+     */
+    public static ObjectNode lake(final double mass, final int x, final int y) {
+        ObjectNode water = entity("lake", "ClearLake", mass, x, y);
+        water.put("purity", 94);
+        water.put("salinity", 0.4);
+        water.put("turbidity", 1);
+        water.put("contaminantIndex", 0.5);
+        water.put("pH", 7.2);
+        water.put("isFrozen", false);
+        return water;
+    }
+
+    /**
+     * Binds hand-made parameters to the input of a simulation.
+     *
+     * @param territory The dimensions, as "heightxwidth".
+     */
+    public static SimulationInput input(final String territory, final ObjectNode params) {
+        ObjectNode input = MAPPER.createObjectNode();
+        input.put("territoryDim", territory);
+        input.put("energyPoints", 100);
+        input.set("territorySectionParams", params);
+        return MAPPER.convertValue(input, SimulationInput.class);
+    }
+
+    private static Map<String, Object> section(final Random random, final String type,
+                                               final int x, final int y,
+                                               final Object... ranges) {
+        Map<String, Object> entity = new LinkedHashMap<>();
+        entity.put("type", type);
+        entity.put("name", type + x + "_" + y);
+        // One entity in eight starts with no mass, so removals happen on the first steps
+        entity.put("mass", random.nextInt(8) == 0 ? 0.0 : round(1 + random.nextDouble() * 99));
+        for (int i = 0; i < ranges.length; i += 3) {
+            double low = ((Number) ranges[i + 1]).doubleValue();
+            double high = ((Number) ranges[i + 2]).doubleValue();
+            entity.put((String) ranges[i], round(low + random.nextDouble() * (high - low)));
+        }
+        entity.put("sections", List.of(Map.of("x", x, "y", y)));
+        return entity;
+    }
+
+    private static double round(final double value) {
+        return Math.round(value * 100.0) / 100.0;
+    }
+
+    /**
+     * Scans every plant, water source and animal, and starts a weather event on a few
+     * cells, so that all the rules of a step are exercised.
+     */
+    public static void activate(final Simulation simulation, final long seed) {
+        SimulationMap map = simulation.getMap();
+        Random random = new Random(seed);
+        for (int x = 0; x < map.getWidth(); x++) {
+            for (int y = 0; y < map.getHeight(); y++) {
+                Cell cell = map.getCell(x, y);
+                if (cell.getPlant() != null) {
+                    cell.getPlant().scan();
+                }
+                if (cell.getWater() != null) {
+                    cell.getWater().scan();
+                }
+                if (cell.getAnimal() != null) {
+                    cell.getAnimal().scan();
+                }
+                if (random.nextInt(10) == 0) {
+                    int duration = 1 + random.nextInt(5);
+                    cell.getAir().setWeather(-random.nextInt(20));
+                    simulation.scheduleWeatherEnd(x, y, duration);
+                }
+            }
+        }
+        simulation.publish();
+    }
+
+    /**
+     * Renders every cell of a simulation the way printEnvConditions does.
+     */
+    public static String dump(final Simulation simulation) {
+        SimulationMap map = simulation.getMap();
+        TerraBot probe = new TerraBot(0);
+        StringBuilder builder = new StringBuilder();
+        for (int x = 0; x < map.getWidth(); x++) {
+            for (int y = 0; y < map.getHeight(); y++) {
+                probe.move(x, y);
+                builder.append(x).append(',').append(y).append(' ')
+                        .append(PrintEnvConditions.execute(MAPPER, map, probe)).append('\n');
+            }
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Renders every cell of a snapshot, in the same format as dump.
+     */
+    public static String dump(final MapSnapshot snapshot) {
+        StringBuilder builder = new StringBuilder();
+        for (int x = 0; x < snapshot.getWidth(); x++) {
+            for (int y = 0; y < snapshot.getHeight(); y++) {
+                builder.append(x).append(',').append(y).append(' ')
+                        .append(PrintEnvConditions.execute(MAPPER, snapshot, x, y)).append('\n');
+            }
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,159 @@
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import main.Cell;
+import main.Simulation;
+import main.SimulationConfig;
+import main.SimulationMap;
+import main.engine.DenseEngine;
+import main.engine.TickEngine;
+import main.engine.TiledEngine;
+import main.entities.Animal.Animal;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs the tiled engine with tiles much smaller than the map, so that animals look at
+ * neighbours that belong to other tiles, and checks it against the dense engine.
+ */
+public class TiledEngineTest {
+    private static final int TILE_SIZE = 3;
+    private static final long SEED = 3;
+    private static final int WIDTH = 20;
+    private static final int HEIGHT = 17;
+    private static final int STEPS = 24;
+    private static final double DENSITY = 0.4;
+
+    @Test
+    public void reclassifiesNeighboursEmptiedInEarlierTiles() {
+        assertMovesAwayFromDeadPlant(DenseEngine::new);
+        assertMovesAwayFromDeadPlant(
+                map -> new TiledEngine(map, TILE_SIZE, ForkJoinPool.commonPool()));
+    }
+
+    @Test
+    public void matchesDenseEngineAcrossTiles() {
+        Simulation dense = randomSimulation();
+        Simulation tiled = randomSimulation();
+        TickEngine denseEngine = new DenseEngine(dense.getMap());
+        TickEngine tiledEngine =
+                new TiledEngine(tiled.getMap(), TILE_SIZE, ForkJoinPool.commonPool());
+        for (int step = 1; step <= STEPS; step++) {
+            denseEngine.tick(step);
+            tiledEngine.tick(step);
+            assertThat(dump(tiled.getMap())).isEqualTo(dump(dense.getMap()));
+        }
+    }
+
+    /**
+     * The animal at (3, 1), in the second column of tiles, is due to move, and its only
+     * resource is the plant at (2, 1), in the first column of tiles, which is dead and
+     * is removed earlier in the same step. It must take the first empty cell instead.
+     */
+    private static void assertMovesAwayFromDeadPlant(
+            final Function<SimulationMap, TickEngine> engine) {
+        ObjectNode params = TerritoryFixture.emptyParams();
+        params.withArray("plants").add(
+                TerritoryFixture.entity("FloweringPlants", "Lily", 0, 2, 1));
+        params.withArray("animals").add(TerritoryFixture.entity("Herbivores", "Deer", 80, 3, 1));
+        Simulation simulation = new Simulation(
+                TerritoryFixture.input("6x6", params), new SimulationConfig());
+        SimulationMap map = simulation.getMap();
+        map.getCell(2, 1).getPlant().scan();
+        Animal animal = map.getCell(3, 1).getAnimal();
+        animal.scan();
+        animal.setRoundsSinceScanned(1);
+
+        engine.apply(map).tick(1);
+
+        assertThat(map.getCell(2, 1).getPlant()).isNull();
+        assertThat(map.getCell(2, 1).getAnimal()).isNull();
+        assertThat(map.getCell(3, 1).getAnimal()).isNull();
+        assertThat(map.getCell(3, 2).getAnimal()).isSameAs(animal);
+    }
+
+    private static Simulation randomSimulation() {
+        Random random = new Random(SEED);
+        ObjectNode params = TerritoryFixture.emptyParams();
+        for (int x = 0; x < WIDTH; x++) {
+            for (int y = 0; y < HEIGHT; y++) {
+                ObjectNode air =
+                        TerritoryFixture.entity("TemperateAir", "Calm Spring Air", 90000, x, y);
+                air.put("humidity", 40 + random.nextInt(30));
+                air.put("temperature", 16);
+                air.put("oxygenLevel", 15 + random.nextInt(8));
+                air.put("pollenLevel", 7.5);
+                params.withArray("air").add(air);
+                ObjectNode soil =
+                        TerritoryFixture.entity("ForestSoil", "LightForestSoil", 900, x, y);
+                soil.put("nitrogen", 2.6);
+                soil.put("waterRetention", 0.8);
+                soil.put("soilpH", 5.3);
+                soil.put("organicMatter", 0.4);
+                soil.put("leafLitter", 0.2);
+                params.withArray("soil").add(soil);
+                if (random.nextDouble() < DENSITY) {
+                    params.withArray("plants").add(TerritoryFixture.entity(
+                            "Ferns", "SilverFern", random.nextInt(3), x, y));
+                }
+                if (random.nextDouble() < DENSITY / 2) {
+                    params.withArray("water").add(
+                            TerritoryFixture.lake(random.nextInt(20), x, y));
+                }
+                if (random.nextDouble() < DENSITY / 2) {
+                    boolean carnivore = random.nextInt(4) == 0;
+                    params.withArray("animals").add(carnivore
+                            ? TerritoryFixture.entity("Carnivores", "SnowLeopard", 70, x, y)
+                            : TerritoryFixture.entity("Herbivores", "Deer", 80, x, y));
+                }
+            }
+        }
+        Simulation simulation = new Simulation(
+                TerritoryFixture.input(HEIGHT + "x" + WIDTH, params), new SimulationConfig());
+        for (int x = 0; x < WIDTH; x++) {
+            for (int y = 0; y < HEIGHT; y++) {
+                Cell cell = simulation.getMap().getCell(x, y);
+                if (cell.getPlant() != null) {
+                    cell.getPlant().scan();
+                }
+                if (cell.getWater() != null) {
+                    cell.getWater().scan();
+                }
+                if (cell.getAnimal() != null) {
+                    cell.getAnimal().scan();
+                }
+            }
+        }
+        return simulation;
+    }
+
+    private static String dump(final SimulationMap map) {
+        StringBuilder builder = new StringBuilder();
+        for (int x = 0; x < map.getWidth(); x++) {
+            for (int y = 0; y < map.getHeight(); y++) {
+                Cell cell = map.getCell(x, y);
+                builder.append(x).append(',').append(y)
+                        .append(' ').append(cell.getAir().getHumidity())
+                        .append(' ').append(cell.getAir().getOxygenLevel())
+                        .append(' ').append(cell.getSoil().getOrganicMatter());
+                if (cell.getPlant() != null) {
+                    builder.append(" plant ").append(cell.getPlant().getMass())
+                            .append(' ').append(cell.getPlant().getLevel());
+                }
+                if (cell.getWater() != null) {
+                    builder.append(" water ").append(cell.getWater().getMass());
+                }
+                if (cell.getAnimal() != null) {
+                    builder.append(" animal ").append(cell.getAnimal().getName())
+                            .append(' ').append(cell.getAnimal().getMass())
+                            .append(' ').append(cell.getAnimal().getState());
+                }
+                builder.append('\n');
+            }
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,62 @@
+import main.engine.TimerWheel;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Checks that the timer wheel fires every timer exactly once, at its step, whether it is
+ * advanced one step at a time or over long gaps.
+ */
+public class TimerWheelTest {
+    private static final long SEED = 11;
+    private static final int TIMERS = 5000;
+    private static final int[] DELAYS = {1, 5, 63, 64, 65, 4095, 4097, 300_000, 20_000_000};
+
+    @Test
+    public void firesEveryTimerAtItsStep() {
+        List<int[]> fired = new ArrayList<>();
+        TimerWheel wheel = new TimerWheel((payload, step) -> fired.add(new int[] {payload, step}));
+        Random random = new Random(SEED);
+        int[] due = new int[TIMERS];
+        int scheduled = 0;
+        while (scheduled < TIMERS) {
+            // Schedule a few timers, then advance by a small or a very large amount
+            for (int i = 0; i < 10 && scheduled < TIMERS; i++) {
+                int delay = random.nextBoolean()
+                        ? DELAYS[random.nextInt(DELAYS.length)] : 1 + random.nextInt(200);
+                due[scheduled] = wheel.getNow() + delay;
+                wheel.schedule(scheduled, due[scheduled]);
+                scheduled++;
+            }
+            int jump = random.nextInt(4) == 0 ? random.nextInt(10_000_000) : random.nextInt(70);
+            wheel.advanceTo(wheel.getNow() + jump);
+        }
+        wheel.advanceTo(Integer.MAX_VALUE / 2);
+
+        assertThat(wheel.size()).isZero();
+        assertThat(fired).hasSize(TIMERS);
+        int last = 0;
+        boolean[] seen = new boolean[TIMERS];
+        for (int[] timer : fired) {
+            assertThat(timer[1]).isEqualTo(due[timer[0]]);
+            assertThat(timer[1]).isGreaterThanOrEqualTo(last);
+            assertThat(seen[timer[0]]).isFalse();
+            seen[timer[0]] = true;
+            last = timer[1];
+        }
+    }
+
+    @Test
+    public void rejectsTimersInThePast() {
+        TimerWheel wheel = new TimerWheel((payload, step) -> { });
+        wheel.advanceTo(10);
+
+        assertThatThrownBy(() -> wheel.schedule(0, 10))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
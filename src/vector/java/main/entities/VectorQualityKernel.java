@@ -0,0 +1,78 @@
+package main.entities;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * The QualityKernel that processes as many rows per instruction as the widest vectors
+ * of the CPU hold, through the jdk.incubator.vector module. The rows that do not fill a
+ * whole vector are left to the scalar kernel.
+ * Lanewise additions and multiplications round like the scalar ones, and the rounding to
+ * two decimals is Math.round written for the non-negative values of the scores:
+ * the integer part, plus one if the fraction is at least one half.
+ */
+public final class VectorQualityKernel implements QualityKernel {
+    private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+    private static final double HALF = 0.5;
+
+    @Override
+    public void qualities(final double[][] values, final double[][] weights,
+                          final double[] qualities, final int count) {
+        int bound = SPECIES.loopBound(count);
+        for (int i = 0; i < bound; i += SPECIES.length()) {
+            DoubleVector score = DoubleVector.fromArray(SPECIES, values[0], i)
+                    .mul(DoubleVector.fromArray(SPECIES, weights[0], i));
+            for (int term = 1; term < values.length; term++) {
+                score = score.add(DoubleVector.fromArray(SPECIES, values[term], i)
+                        .mul(DoubleVector.fromArray(SPECIES, weights[term], i)));
+            }
+            round(normalize(score)).intoArray(qualities, i);
+        }
+        ScalarQualityKernel.qualities(values, weights, qualities, bound, count);
+    }
+
+    @Override
+    public void toxicities(final double[] qualities, final double[] maxScores,
+                           final double[] toxicities, final boolean[] toxic, final int count) {
+        int bound = SPECIES.loopBound(count);
+        for (int i = 0; i < bound; i += SPECIES.length()) {
+            DoubleVector maxScore = DoubleVector.fromArray(SPECIES, maxScores, i);
+            DoubleVector ratio = DoubleVector.fromArray(SPECIES, qualities, i).div(maxScore);
+            DoubleVector toxicity = round(normalize(
+                    DoubleVector.broadcast(SPECIES, 1.0).sub(ratio).mul(MAX_PERCENTAGE)))
+                    .blend(0.0, maxScore.compare(VectorOperators.EQ, 0.0));
+            toxicity.intoArray(toxicities, i);
+            toxicity.compare(VectorOperators.GT, maxScore.mul(TOXICITY_THRESHOLD_RATIO))
+                    .intoArray(toxic, i);
+        }
+        ScalarQualityKernel.toxicities(qualities, maxScores, toxicities, toxic, bound, count);
+    }
+
+    @Override
+    public void levels(final double[] qualities, final double moderateFrom,
+                       final double goodAbove, final boolean[] notPoor, final boolean[] good,
+                       final int count) {
+        int bound = SPECIES.loopBound(count);
+        for (int i = 0; i < bound; i += SPECIES.length()) {
+            DoubleVector quality = DoubleVector.fromArray(SPECIES, qualities, i);
+            quality.compare(VectorOperators.LT, moderateFrom).not().intoArray(notPoor, i);
+            quality.compare(VectorOperators.GT, goodAbove).intoArray(good, i);
+        }
+        ScalarQualityKernel.levels(qualities, moderateFrom, goodAbove, notPoor, good,
+                bound, count);
+    }
+
+    private static DoubleVector normalize(final DoubleVector score) {
+        return score.min(MAX_PERCENTAGE).max(0.0);
+    }
+
+    private static DoubleVector round(final DoubleVector value) {
+        DoubleVector scaled = value.mul(ROUNDING_FACTOR);
+        DoubleVector whole = (DoubleVector) scaled.convert(VectorOperators.D2L, 0)
+                .convert(VectorOperators.L2D, 0);
+        VectorMask<Double> up = scaled.sub(whole).compare(VectorOperators.GE, HALF);
+        return whole.add(1.0, up).div(ROUNDING_FACTOR);
+    }
+}